@@ -0,0 +1,175 @@
+package com.quartzkube.core;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Job worker pool that resizes itself between a lower and an upper bound.
+ * Every interval it looks at how long tasks waited in the queue and at the
+ * state of the workers running a task. When tasks wait longer than the
+ * target and most busy workers are blocked or waiting, the jobs are I/O
+ * bound and the pool grows by a quarter; when workers are mostly running
+ * on CPU the pool only grows up to the processor count, since more threads
+ * would just contend. After a few intervals with an empty queue and most
+ * workers idle it shrinks one thread at a time.
+ */
+final class AdaptiveWorkerPool extends ThreadPoolExecutor {
+    /** Consecutive idle intervals before the pool shrinks. */
+    static final int IDLE_ROUNDS = 3;
+
+    private final int min;
+    private final int max;
+    private final long targetWaitNanos;
+    private final int cpus = Runtime.getRuntime().availableProcessors();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final Set<Thread> busy = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService sizer;
+    private int target;
+    private int borrowed;
+    private int idleRounds;
+
+    /**
+     * @param intervalMillis how often to reconsider the size; 0 disables the
+     *                       background sizer so {@link #adapt()} can be
+     *                       driven by hand
+     */
+    AdaptiveWorkerPool(int min, int max, long targetWaitMillis, long intervalMillis, ThreadFactory threads) {
+        super(clamp(Runtime.getRuntime().availableProcessors(), min, max),
+                clamp(Runtime.getRuntime().availableProcessors(), min, max),
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threads);
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException("invalid worker bounds " + min + ".." + max);
+        }
+        this.min = min;
+        this.max = max;
+        this.targetWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, targetWaitMillis));
+        this.target = getCorePoolSize();
+        allowCoreThreadTimeOut(true);
+        Metrics.getInstance().setWorkerPoolSize(target);
+        if (intervalMillis > 0) {
+            sizer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "quartzkube-pool-sizer");
+                t.setDaemon(true);
+                return t;
+            });
+            sizer.scheduleWithFixedDelay(this::adapt, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            sizer = null;
+        }
+    }
+
+    private static int clamp(int v, int min, int max) {
+        return Math.max(min, Math.min(max, v));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new Queued(command, System.nanoTime()));
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        if (r instanceof Queued q) {
+            waitNanos.add(System.nanoTime() - q.enqueued);
+            started.increment();
+        }
+        busy.add(t);
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        busy.remove(Thread.currentThread());
+    }
+
+    @Override
+    protected void terminated() {
+        if (sizer != null) {
+            sizer.shutdownNow();
+        }
+    }
+
+    /** Size chosen by the sizer, not counting threads lent to overrunning jobs. */
+    synchronized int targetSize() {
+        return target;
+    }
+
+    /**
+     * Adds or returns a thread on behalf of a job that overran its timeout
+     * and keeps its worker busy. Borrowed threads are on top of the target
+     * size so the sizer does not undo them.
+     */
+    synchronized void borrow(int delta) {
+        borrowed = Math.max(0, borrowed + delta);
+        apply();
+    }
+
+    /** Samples the pool and grows or shrinks it by one step if warranted. */
+    synchronized void adapt() {
+        if (isShutdown()) {
+            return;
+        }
+        long count = started.sumThenReset();
+        long waited = waitNanos.sumThenReset();
+        long avgWait = count == 0 ? 0 : waited / count;
+        // tasks stuck behind a saturated pool never start, so also look at the oldest queued task
+        Runnable head = getQueue().peek();
+        long headWait = head instanceof Queued q ? System.nanoTime() - q.enqueued : 0;
+        long wait = Math.max(avgWait, headWait);
+
+        int running = 0;
+        int blocked = 0;
+        for (Thread t : busy) {
+            running++;
+            Thread.State s = t.getState();
+            if (s == Thread.State.BLOCKED || s == Thread.State.WAITING || s == Thread.State.TIMED_WAITING) {
+                blocked++;
+            }
+        }
+        boolean ioBound = running > 0 && blocked * 2 >= running;
+
+        if (head != null && wait > targetWaitNanos && target < max && (ioBound || target < cpus)) {
+            int step = Math.max(1, target / 4);
+            target = Math.min(max, ioBound ? target + step : Math.min(cpus, target + step));
+            idleRounds = 0;
+            apply();
+            Metrics.getInstance().recordWorkerPoolResize(true);
+        } else if (head == null && running * 2 <= target && target > min) {
+            if (++idleRounds >= IDLE_ROUNDS) {
+                target--;
+                idleRounds = 0;
+                apply();
+                Metrics.getInstance().recordWorkerPoolResize(false);
+            }
+        } else {
+            idleRounds = 0;
+        }
+    }
+
+    private void apply() {
+        int size = target + borrowed;
+        // the maximum must never drop below the core size
+        if (size > getMaximumPoolSize()) {
+            setMaximumPoolSize(size);
+            setCorePoolSize(size);
+        } else {
+            setCorePoolSize(size);
+            setMaximumPoolSize(size);
+        }
+        Metrics.getInstance().setWorkerPoolSize(target);
+    }
+
+    private record Queued(Runnable task, long enqueued) implements Runnable {
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+}
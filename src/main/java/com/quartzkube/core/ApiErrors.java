@@ -0,0 +1,61 @@
+package com.quartzkube.core;
+
+/**
+ * Reads the HTTP status out of failures raised by either Kubernetes client,
+ * so callers can tell throttling and server errors from bad requests.
+ */
+final class ApiErrors {
+    private ApiErrors() {
+    }
+
+    /** HTTP status of the first client exception in the cause chain, or -1. */
+    static int statusCode(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof io.fabric8.kubernetes.client.KubernetesClientException k && k.getCode() > 0) {
+                return k.getCode();
+            }
+            if (t instanceof io.kubernetes.client.openapi.ApiException a && a.getCode() > 0) {
+                return a.getCode();
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Delay the server asked for with {@code Retry-After}, in milliseconds,
+     * or -1 if the failure carries none.
+     */
+    static long retryAfterMillis(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof io.fabric8.kubernetes.client.KubernetesClientException k
+                    && k.getStatus() != null && k.getStatus().getDetails() != null
+                    && k.getStatus().getDetails().getRetryAfterSeconds() != null) {
+                return k.getStatus().getDetails().getRetryAfterSeconds() * 1000L;
+            }
+            if (t instanceof io.kubernetes.client.openapi.ApiException a && a.getResponseHeaders() != null) {
+                for (java.util.Map.Entry<String, java.util.List<String>> h : a.getResponseHeaders().entrySet()) {
+                    if ("Retry-After".equalsIgnoreCase(h.getKey()) && h.getValue() != null && !h.getValue().isEmpty()) {
+                        try {
+                            return Long.parseLong(h.getValue().get(0).trim()) * 1000L;
+                        } catch (NumberFormatException ignored) {
+                            // HTTP dates are not sent by the API server
+                        }
+                    }
+                }
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    /** True if the API server asked us to slow down: 429 or any 5xx. */
+    static boolean isOverload(Throwable error) {
+        int code = statusCode(error);
+        return code == 429 || code >= 500;
+    }
+}
@@ -0,0 +1,13 @@
+package com.quartzkube.core;
+
+/**
+ * Default {@link JobFactory} that instantiates jobs through a per-class
+ * constructor handle cached on first use instead of reflective lookups on
+ * every fire.
+ */
+public class CachingJobFactory implements JobFactory {
+    @Override
+    public Object newJob(Class<?> jobClass) throws Exception {
+        return JobClassInfo.of(jobClass).newInstance();
+    }
+}
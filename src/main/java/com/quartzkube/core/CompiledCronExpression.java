@@ -0,0 +1,323 @@
+package com.quartzkube.core;
+
+import org.quartz.CronExpression;
+
+import java.lang.reflect.Field;
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cron expression compiled into bit masks so the next fire time can be found
+ * with plain arithmetic on epoch milliseconds. Parsing is delegated to
+ * {@link CronExpression} so the accepted syntax is identical. Expressions using
+ * {@code L}, {@code W} or {@code #}, and searches that cross a daylight saving
+ * transition, fall back to {@link CronExpression#getNextValidTimeAfter(Date)}.
+ * Instances are immutable, thread-safe and shared through {@link #compile}.
+ */
+public final class CompiledCronExpression {
+    private static final int NO_SPEC = 98;
+    private static final int MAX_CACHE_SIZE = 10_000;
+    private static final Map<String, CompiledCronExpression> CACHE = new ConcurrentHashMap<>();
+
+    private final CronExpression delegate;
+    private final boolean compiled;
+    private final long secondMask;
+    private final long minuteMask;
+    private final int hourMask;
+    private final long dayOfMonthMask;
+    private final int monthMask;
+    private final int dayOfWeekMask;
+    private final BitSet years;
+    private final int maxYear;
+    private final ZoneRules rules;
+    private final int fixedOffsetSeconds;
+    private volatile OffsetWindow window;
+    private volatile Memo memo;
+
+    private CompiledCronExpression(String expression, TimeZone tz) throws ParseException {
+        this.delegate = new CronExpression(expression);
+        delegate.setTimeZone(tz);
+        this.rules = tz.toZoneId().getRules();
+        this.fixedOffsetSeconds = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH).getTotalSeconds() : 0;
+        long sec = 0, min = 0, dom = 0;
+        int hour = 0, month = 0, dow = 0;
+        BitSet yrs = new BitSet();
+        boolean ok;
+        try {
+            boolean special = bool("lastdayOfWeek") || bool("lastdayOfMonth") || bool("nearestWeekday")
+                    || integer("nthdayOfWeek") != 0;
+            Set<Integer> dowSet = set("daysOfWeek");
+            Set<Integer> domSet = set("daysOfMonth");
+            sec = mask(set("seconds"), 0, 59);
+            min = mask(set("minutes"), 0, 59);
+            hour = (int) mask(set("hours"), 0, 23);
+            month = (int) mask(set("months"), 1, 12);
+            if (dowSet.contains(NO_SPEC)) {
+                dom = mask(domSet, 1, 31);
+            } else {
+                dow = (int) mask(dowSet, 1, 7);
+            }
+            for (int y : set("years")) {
+                if (y >= 1970 && y <= CronExpression.MAX_YEAR) {
+                    yrs.set(y);
+                }
+            }
+            ok = !special && (dom != 0 || dow != 0) && domSet.contains(NO_SPEC) != dowSet.contains(NO_SPEC);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            ok = false;
+        }
+        this.compiled = ok;
+        this.secondMask = sec;
+        this.minuteMask = min;
+        this.hourMask = hour;
+        this.dayOfMonthMask = dom;
+        this.monthMask = month;
+        this.dayOfWeekMask = dow;
+        this.years = yrs;
+        this.maxYear = yrs.isEmpty() ? 0 : yrs.length() - 1;
+    }
+
+    /**
+     * Returns the shared compiled form of the expression in the given time
+     * zone, compiling it on first use.
+     */
+    public static CompiledCronExpression compile(String expression, TimeZone timeZone) throws ParseException {
+        TimeZone tz = timeZone != null ? timeZone : TimeZone.getDefault();
+        String key = tz.getID() + '|' + expression;
+        CompiledCronExpression c = CACHE.get(key);
+        if (c == null) {
+            c = new CompiledCronExpression(expression, tz);
+            if (CACHE.size() >= MAX_CACHE_SIZE) {
+                CACHE.clear();
+            }
+            CompiledCronExpression prev = CACHE.putIfAbsent(key, c);
+            if (prev != null) {
+                c = prev;
+            }
+        }
+        return c;
+    }
+
+    /** True when next fire times are computed without the Calendar fallback. */
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    public String getCronExpression() {
+        return delegate.getCronExpression();
+    }
+
+    /** Date based variant matching {@link CronExpression#getNextValidTimeAfter(Date)}. */
+    public Date getNextValidTimeAfter(Date after) {
+        long next = nextFireTime(after.getTime());
+        return next < 0 ? null : new Date(next);
+    }
+
+    /**
+     * Returns the first fire time strictly after the given epoch millisecond,
+     * or -1 if the expression never fires again.
+     */
+    public long nextFireTime(long afterMillis) {
+        long afterSecond = Math.floorDiv(afterMillis, 1000);
+        Memo m = memo;
+        if (m != null && m.afterSecond == afterSecond) {
+            return m.next;
+        }
+        long next = compiled ? computeNext(afterSecond + 1) : Long.MIN_VALUE;
+        if (next == Long.MIN_VALUE) {
+            Date d = delegate.getNextValidTimeAfter(new Date(afterMillis));
+            next = d == null ? -1 : d.getTime();
+        }
+        memo = new Memo(afterSecond, next);
+        return next;
+    }
+
+    /**
+     * Searches for the first matching second at or after the given epoch second.
+     * Returns Long.MIN_VALUE when the result would cross an offset change.
+     */
+    private long computeNext(long fromSecond) {
+        OffsetWindow w = offsetWindow(fromSecond);
+        long local = fromSecond + w.offsetSeconds;
+        long day = Math.floorDiv(local, 86400);
+        int sod = (int) Math.floorMod(local, 86400);
+        int h = sod / 3600;
+        int mi = sod / 60 % 60;
+        int s = sod % 60;
+        while (true) {
+            long ymd = civil(day);
+            int y = (int) (ymd >> 9);
+            int mo = (int) (ymd >> 5) & 0xF;
+            int d = (int) ymd & 0x1F;
+            if (y > maxYear) {
+                return -1;
+            }
+            if (!years.get(y)) {
+                int ny = years.nextSetBit(y);
+                day = epochDay(ny, 1, 1);
+                h = mi = s = 0;
+                continue;
+            }
+            if ((monthMask & (1 << mo)) == 0) {
+                day = mo == 12 ? epochDay(y + 1, 1, 1) : epochDay(y, mo + 1, 1);
+                h = mi = s = 0;
+                continue;
+            }
+            boolean dayOk = dayOfWeekMask != 0
+                    ? (dayOfWeekMask & (1 << (Math.floorMod(day + 4, 7) + 1))) != 0
+                    : (dayOfMonthMask & (1L << d)) != 0;
+            if (!dayOk) {
+                day++;
+                h = mi = s = 0;
+                continue;
+            }
+            int nh = nextBit(hourMask, h);
+            if (nh < 0) {
+                day++;
+                h = mi = s = 0;
+                continue;
+            }
+            if (nh != h) {
+                h = nh;
+                mi = s = 0;
+            }
+            int nm = nextBit(minuteMask, mi);
+            if (nm < 0) {
+                h++;
+                mi = s = 0;
+                if (h == 24) {
+                    day++;
+                    h = 0;
+                }
+                continue;
+            }
+            if (nm != mi) {
+                mi = nm;
+                s = 0;
+            }
+            int ns = nextBit(secondMask, s);
+            if (ns < 0) {
+                mi++;
+                s = 0;
+                if (mi == 60) {
+                    mi = 0;
+                    h++;
+                    if (h == 24) {
+                        day++;
+                        h = 0;
+                    }
+                }
+                continue;
+            }
+            long epochSecond = day * 86400 + h * 3600L + mi * 60L + ns - w.offsetSeconds;
+            if (epochSecond >= w.endSecond) {
+                return Long.MIN_VALUE;
+            }
+            return epochSecond * 1000;
+        }
+    }
+
+    private OffsetWindow offsetWindow(long epochSecond) {
+        if (rules.isFixedOffset()) {
+            OffsetWindow w = window;
+            if (w == null) {
+                w = new OffsetWindow(Long.MIN_VALUE, Long.MAX_VALUE, fixedOffsetSeconds);
+                window = w;
+            }
+            return w;
+        }
+        OffsetWindow w = window;
+        if (w != null && epochSecond >= w.startSecond && epochSecond < w.endSecond) {
+            return w;
+        }
+        Instant at = Instant.ofEpochSecond(epochSecond);
+        ZoneOffsetTransition prev = rules.previousTransition(at.plusSeconds(1));
+        ZoneOffsetTransition next = rules.nextTransition(at);
+        long start = prev == null ? Long.MIN_VALUE : prev.toEpochSecond();
+        long end = next == null ? Long.MAX_VALUE : next.toEpochSecond();
+        // leave a day of margin so the Calendar fallback handles the transition itself
+        if (end != Long.MAX_VALUE) {
+            end -= 86400;
+        }
+        w = new OffsetWindow(start, end, rules.getOffset(at).getTotalSeconds());
+        window = w;
+        return w;
+    }
+
+    private static int nextBit(long mask, int from) {
+        if (from > 63) {
+            return -1;
+        }
+        long m = mask & (-1L << from);
+        return m == 0 ? -1 : Long.numberOfTrailingZeros(m);
+    }
+
+    /** Packs year, month and day of the given epoch day as y << 9 | m << 5 | d. */
+    private static long civil(long epochDay) {
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long d = doy - (153 * mp + 2) / 5 + 1;
+        long m = mp < 10 ? mp + 3 : mp - 9;
+        long y = yoe + era * 400 + (m <= 2 ? 1 : 0);
+        return y << 9 | m << 5 | d;
+    }
+
+    private static long epochDay(int y, int m, int d) {
+        long yy = m <= 2 ? y - 1 : y;
+        long era = Math.floorDiv(yy, 400);
+        long yoe = yy - era * 400;
+        long doy = (153 * (m > 2 ? m - 3 : m + 9) + 2) / 5 + d - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    private static long mask(Set<Integer> values, int min, int max) {
+        long m = 0;
+        for (int v : values) {
+            if (v >= min && v <= max) {
+                m |= 1L << v;
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Reads a parsed field of the delegate. {@link CronExpression} is final and
+     * exposes no accessors for its field sets; if reflective access is denied
+     * the constructor falls back to the delegate for every search.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<Integer> set(String name) throws ReflectiveOperationException {
+        return (Set<Integer>) field(name).get(delegate);
+    }
+
+    private boolean bool(String name) throws ReflectiveOperationException {
+        return field(name).getBoolean(delegate);
+    }
+
+    private int integer(String name) throws ReflectiveOperationException {
+        return field(name).getInt(delegate);
+    }
+
+    private static Field field(String name) throws NoSuchFieldException {
+        Field f = CronExpression.class.getDeclaredField(name);
+        f.setAccessible(true);
+        return f;
+    }
+
+    private record OffsetWindow(long startSecond, long endSecond, int offsetSeconds) {}
+
+    private record Memo(long afterSecond, long next) {}
+}
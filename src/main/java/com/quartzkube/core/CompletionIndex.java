@@ -0,0 +1,57 @@
+package com.quartzkube.core;
+
+/**
+ * Index of the current pod within an Indexed Job dispatched by
+ * {@link KubeJobDispatcher#dispatchIndexedJobAsync}. In a cluster the index
+ * comes from the pod's {@code JOB_COMPLETION_INDEX} environment variable;
+ * in local mode the dispatcher sets it for the thread running the job. A
+ * job uses it to pick its shard of the work.
+ */
+public final class CompletionIndex {
+    static final String INDEX_ENV = "JOB_COMPLETION_INDEX";
+    static final String COMPLETIONS_ENV = "JOB_COMPLETIONS";
+    /** Pod annotation the Job controller sets to the completion index. */
+    static final String INDEX_ANNOTATION = "batch.kubernetes.io/job-completion-index";
+
+    private static final ThreadLocal<int[]> LOCAL = new ThreadLocal<>();
+
+    private CompletionIndex() {
+    }
+
+    /** This pod's index, or -1 when the job was not dispatched as an Indexed Job. */
+    public static int current() {
+        int[] local = LOCAL.get();
+        return local != null ? local[0] : parse(System.getenv(INDEX_ENV));
+    }
+
+    /** Number of indexes of the Indexed Job, or -1 when not dispatched as one. */
+    public static int completions() {
+        int[] local = LOCAL.get();
+        return local != null ? local[1] : parse(System.getenv(COMPLETIONS_ENV));
+    }
+
+    /** Sets the index seen by jobs running on this thread in local mode. */
+    static void set(int index, int completions) {
+        LOCAL.set(new int[] {index, completions});
+    }
+
+    static void clear() {
+        LOCAL.remove();
+    }
+
+    /** Index of an Indexed Job pod from its annotations, or -1. */
+    static int of(java.util.Map<String, String> annotations) {
+        return annotations == null ? -1 : parse(annotations.get(INDEX_ANNOTATION));
+    }
+
+    private static int parse(String v) {
+        if (v == null || v.isEmpty()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
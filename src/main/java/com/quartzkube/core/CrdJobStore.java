@@ -1,11 +1,22 @@
 package com.quartzkube.core;
 
+import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -13,6 +24,11 @@ import java.util.regex.Pattern;
  * JobStore implementation backed by Kubernetes ScheduledJob CRDs.
  */
 public class CrdJobStore implements JobStore {
+    /** Most requests a bulk save keeps open against the API server at once. */
+    static final int MAX_IN_FLIGHT = 16;
+    /** ConfigMap holding the trigger checkpoints written by {@link #saveNextFireTimes}. */
+    static final String CHECKPOINT_CONFIG_MAP = "quartzkube-checkpoints";
+
     private final HttpClient client = HttpClient.newHttpClient();
     private final String apiUrl;
     private final String namespace;
@@ -28,6 +44,44 @@ public class CrdJobStore implements JobStore {
 
     @Override
     public void saveJob(String jobClass) throws Exception {
+        client.send(createRequest(jobClass), HttpResponse.BodyHandlers.discarding());
+    }
+
+    /**
+     * Creates all resources concurrently over the shared HTTP client instead
+     * of waiting for each POST before sending the next, with at most
+     * {@link #MAX_IN_FLIGHT} requests outstanding so a large batch does not
+     * flood the API server.
+     */
+    @Override
+    public void saveJobs(Collection<String> jobClasses) throws Exception {
+        List<HttpRequest> requests = new ArrayList<>();
+        for (String jobClass : jobClasses) {
+            requests.add(createRequest(jobClass));
+        }
+        sendAll(requests);
+    }
+
+    /** Sends the requests with at most {@link #MAX_IN_FLIGHT} outstanding and waits for all of them. */
+    private void sendAll(List<HttpRequest> requests) throws Exception {
+        Semaphore permits = new Semaphore(MAX_IN_FLIGHT);
+        List<CompletableFuture<HttpResponse<Void>>> pending = new ArrayList<>();
+        for (HttpRequest req : requests) {
+            permits.acquire();
+            pending.add(client.sendAsync(req, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((r, e) -> permits.release()));
+        }
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private HttpRequest createRequest(String jobClass) {
         String body = String.format("""
 apiVersion: quartzkube.com/v1
 kind: ScheduledJob
@@ -36,11 +90,123 @@ metadata:
 spec:
   jobClass: %s
 """, jobClass.toLowerCase(), jobClass);
-        HttpRequest req = HttpRequest.newBuilder(resourceUri())
+        return HttpRequest.newBuilder(resourceUri())
                 .header("Content-Type", "application/yaml")
                 .POST(HttpRequest.BodyPublishers.ofString(body))
                 .build();
-        client.send(req, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static final Pattern SPEC = Pattern.compile("\\\"spec\\\"\\s*:\\s*\\{([^}]*)\\}");
+    private static final Pattern JOB_CLASS = Pattern.compile("\\\"jobClass\\\"\\s*:\\s*\\\"([^\\\"]+)\\\"");
+    private static final Pattern CONTINUE = Pattern.compile("\\\"continue\\\"\\s*:\\s*\\\"([^\\\"]+)\\\"");
+    private static final Pattern DATA = Pattern.compile("\\\"data\\\"\\s*:\\s*\\{([^}]*)\\}");
+    private static final Pattern CHECKPOINT_ENTRY = Pattern.compile("\\\"([A-Za-z0-9_-]+)\\\"\\s*:\\s*\\\"(\\d+)\\\"");
+
+    /**
+     * Lists the resources with the API server's chunked list support
+     * ({@code limit} and {@code continue}) so large stores are read page by
+     * page instead of in one response.
+     */
+    @Override
+    public void loadJobs(int pageSize, Consumer<List<StoredJob>> consumer) throws Exception {
+        String token = null;
+        do {
+            String query = "?limit=" + pageSize
+                    + (token == null ? "" : "&continue=" + URLEncoder.encode(token, StandardCharsets.UTF_8));
+            HttpRequest req = HttpRequest.newBuilder(URI.create(resourceUri() + query)).GET().build();
+            String body = client.send(req, HttpResponse.BodyHandlers.ofString()).body();
+            List<StoredJob> page = new ArrayList<>();
+            Matcher spec = SPEC.matcher(body);
+            while (spec.find()) {
+                Matcher cls = JOB_CLASS.matcher(spec.group(1));
+                if (cls.find()) {
+                    page.add(new StoredJob(cls.group(1)));
+                }
+            }
+            if (!page.isEmpty()) {
+                consumer.accept(page);
+            }
+            Matcher cont = CONTINUE.matcher(body);
+            token = cont.find() ? cont.group(1) : null;
+        } while (token != null);
+    }
+
+    /**
+     * Merge-patches the trigger checkpoints into the {@value #CHECKPOINT_CONFIG_MAP}
+     * ConfigMap with a single request, creating it on first use. Keys are
+     * the base64url-encoded trigger keys, since ConfigMap keys only allow a
+     * small character set.
+     */
+    @Override
+    public void saveNextFireTimes(Map<String, Long> nextFireTimes) throws Exception {
+        if (nextFireTimes.isEmpty()) {
+            return;
+        }
+        StringBuilder data = new StringBuilder();
+        StringBuilder created = new StringBuilder();
+        for (Map.Entry<String, Long> e : nextFireTimes.entrySet()) {
+            String key = "\"" + checkpointKey(e.getKey()) + "\":";
+            data.append(data.length() == 0 ? "" : ",").append(key)
+                    .append(e.getValue() > 0 ? "\"" + e.getValue() + "\"" : "null");
+            if (e.getValue() > 0) {
+                created.append(created.length() == 0 ? "" : ",").append(key).append("\"").append(e.getValue()).append("\"");
+            }
+        }
+        HttpRequest patch = HttpRequest.newBuilder(checkpointUri())
+                .header("Content-Type", "application/merge-patch+json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"data\":{" + data + "}}"))
+                .build();
+        int status = client.send(patch, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status == 404) {
+            String body = "{\"apiVersion\":\"v1\",\"kind\":\"ConfigMap\",\"metadata\":{\"name\":\""
+                    + CHECKPOINT_CONFIG_MAP + "\"},\"data\":{" + created + "}}";
+            HttpRequest create = HttpRequest.newBuilder(URI.create(apiUrl + "/api/v1/namespaces/" + namespace + "/configmaps"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            status = client.send(create, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status == 409) {
+                // created concurrently by another replica
+                status = client.send(patch, HttpResponse.BodyHandlers.discarding()).statusCode();
+            }
+        }
+        if (status / 100 != 2) {
+            throw new IOException("Saving trigger checkpoints failed with HTTP " + status);
+        }
+    }
+
+    @Override
+    public Map<String, Long> loadNextFireTimes() throws Exception {
+        HttpResponse<String> resp = client.send(HttpRequest.newBuilder(checkpointUri()).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Map<String, Long> times = new HashMap<>();
+        if (resp.statusCode() == 404) {
+            return times;
+        }
+        if (resp.statusCode() / 100 != 2) {
+            throw new IOException("Loading trigger checkpoints failed with HTTP " + resp.statusCode());
+        }
+        Matcher data = DATA.matcher(resp.body());
+        if (data.find()) {
+            Matcher entry = CHECKPOINT_ENTRY.matcher(data.group(1));
+            while (entry.find()) {
+                try {
+                    times.put(new String(Base64.getUrlDecoder().decode(entry.group(1)), StandardCharsets.UTF_8),
+                            Long.parseLong(entry.group(2)));
+                } catch (IllegalArgumentException ignored) {
+                    // not written by this store
+                }
+            }
+        }
+        return times;
+    }
+
+    private URI checkpointUri() {
+        return URI.create(apiUrl + "/api/v1/namespaces/" + namespace + "/configmaps/" + CHECKPOINT_CONFIG_MAP);
+    }
+
+    private static String checkpointKey(String triggerKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(triggerKey.getBytes(StandardCharsets.UTF_8));
     }
 
     @Override
@@ -48,7 +214,7 @@ spec:
         HttpRequest req = HttpRequest.newBuilder(resourceUri()).GET().build();
         HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
         List<String> list = new ArrayList<>();
-        Matcher m = Pattern.compile("\\\"jobClass\\\"\\s*:\\s*\\\"([^\\\"]+)\\\"").matcher(resp.body());
+        Matcher m = JOB_CLASS.matcher(resp.body());
         while (m.find()) {
             list.add(m.group(1));
         }
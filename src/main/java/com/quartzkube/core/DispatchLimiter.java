@@ -0,0 +1,109 @@
+package com.quartzkube.core;
+
+/**
+ * Bounds the Kubernetes API creates a dispatcher has in flight. A fixed
+ * limiter behaves like a semaphore. An adaptive limiter moves its limit
+ * between a floor and a ceiling by AIMD: each create that finished within
+ * the target latency while at least half the limit was in use raises it by
+ * {@code 1/limit}, so an idle dispatcher does not inflate its limit; a
+ * create slower than the target lowers it by a tenth and a 429 or 5xx
+ * response halves it. The
+ * limit, in-flight count and waiter count are published to {@link Metrics}.
+ */
+final class DispatchLimiter {
+    private static final double LATENCY_BACKOFF = 0.9;
+    private static final double OVERLOAD_BACKOFF = 0.5;
+
+    private final boolean adaptive;
+    private final int min;
+    private final int max;
+    private final long targetLatencyNanos;
+    private double limit;
+    private int inFlight;
+    private int waiters;
+
+    private DispatchLimiter(boolean adaptive, int min, int max, int initial, long targetLatencyMillis) {
+        this.adaptive = adaptive;
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.targetLatencyNanos = java.util.concurrent.TimeUnit.MILLISECONDS.toNanos(Math.max(1, targetLatencyMillis));
+        this.limit = Math.min(this.max, Math.max(this.min, initial));
+        Metrics.getInstance().setDispatchLimit(this.max == Integer.MAX_VALUE ? 0 : (int) limit);
+    }
+
+    /** Limiter with a constant limit; {@code limit <= 0} means unlimited. */
+    static DispatchLimiter fixed(int limit) {
+        int l = limit <= 0 ? Integer.MAX_VALUE : limit;
+        return new DispatchLimiter(false, l, l, l, 1);
+    }
+
+    /** Limiter that adapts between {@code min} and {@code max}, starting at {@code initial}. */
+    static DispatchLimiter adaptive(int min, int max, int initial, long targetLatencyMillis) {
+        return new DispatchLimiter(true, min, max, initial, targetLatencyMillis);
+    }
+
+    /** Waits until another create may start. */
+    synchronized void acquire() throws InterruptedException {
+        if (inFlight >= (int) limit) {
+            waiters++;
+            Metrics.getInstance().adjustDispatchWaiters(1);
+            try {
+                while (inFlight >= (int) limit) {
+                    wait();
+                }
+            } finally {
+                waiters--;
+                Metrics.getInstance().adjustDispatchWaiters(-1);
+            }
+        }
+        inFlight++;
+        Metrics.getInstance().adjustDispatchInFlight(1);
+    }
+
+    /** Releases a slot without feedback, e.g. for a local run. */
+    synchronized void release() {
+        inFlight--;
+        Metrics.getInstance().adjustDispatchInFlight(-1);
+        notify();
+    }
+
+    /**
+     * Releases a slot and adapts the limit to how the create went.
+     * {@code overloaded} marks a 429 or 5xx response.
+     */
+    synchronized void release(long latencyNanos, boolean overloaded) {
+        boolean busy = inFlight * 2 >= limit;
+        inFlight--;
+        Metrics.getInstance().adjustDispatchInFlight(-1);
+        if (adaptive) {
+            double before = limit;
+            if (overloaded) {
+                limit = Math.max(min, limit * OVERLOAD_BACKOFF);
+            } else if (latencyNanos > targetLatencyNanos) {
+                limit = Math.max(min, limit * LATENCY_BACKOFF);
+            } else if (busy) {
+                limit = Math.min(max, limit + 1.0 / limit);
+            }
+            if ((int) limit != (int) before) {
+                Metrics.getInstance().setDispatchLimit((int) limit);
+                if (limit > before) {
+                    notifyAll();
+                    return;
+                }
+            }
+        }
+        notify();
+    }
+
+    synchronized int limit() {
+        return (int) limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    synchronized int waiters() {
+        return waiters;
+    }
+}
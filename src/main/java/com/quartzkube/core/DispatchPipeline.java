@@ -0,0 +1,102 @@
+package com.quartzkube.core;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded two-pool pipeline behind the asynchronous dispatch API. Manifests
+ * are rendered on a small CPU pool and handed to a separate I/O pool that
+ * talks to the API server; completion is then tracked from pod watches, so
+ * no pipeline thread waits for a job to finish. Both pools have bounded
+ * queues and a dispatch that does not fit fails fast with
+ * {@link RejectedExecutionException} instead of blocking the caller. A
+ * stage whose handle was already completed or cancelled is skipped.
+ */
+final class DispatchPipeline {
+    /** Work done on the I/O pool with the rendered manifest. */
+    interface SubmitStage {
+        void submit(String manifest) throws Exception;
+    }
+
+    private final ThreadPoolExecutor render;
+    private final ThreadPoolExecutor io;
+
+    DispatchPipeline(int renderThreads, int submitThreads, int capacity) {
+        this.render = pool("quartzkube-dispatch-render-", renderThreads, capacity);
+        this.io = pool("quartzkube-dispatch-submit-", submitThreads, capacity);
+    }
+
+    private static ThreadPoolExecutor pool(String prefix, int threads, int capacity) {
+        AtomicInteger n = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, prefix + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        int size = Math.max(1, threads);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, capacity)), factory, new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /** Executor for follow-up I/O such as log streaming after a job finished. */
+    Executor io() {
+        return io;
+    }
+
+    /** Dispatches still waiting in either stage. */
+    int backlog() {
+        return render.getQueue().size() + io.getQueue().size();
+    }
+
+    /**
+     * Runs {@code renderStage} and then {@code submitStage} for the dispatch
+     * represented by {@code handle}. Failures of either stage, including a
+     * full queue, complete the handle exceptionally.
+     */
+    void execute(CompletableFuture<?> handle, Callable<String> renderStage, SubmitStage submitStage) {
+        try {
+            render.execute(() -> {
+                if (handle.isDone()) {
+                    return;
+                }
+                String manifest;
+                try {
+                    manifest = renderStage.call();
+                } catch (Exception e) {
+                    handle.completeExceptionally(e);
+                    return;
+                }
+                try {
+                    io.execute(() -> {
+                        if (handle.isDone()) {
+                            return;
+                        }
+                        try {
+                            submitStage.submit(manifest);
+                        } catch (Exception e) {
+                            handle.completeExceptionally(e);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    handle.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            handle.completeExceptionally(e);
+        }
+    }
+
+    void shutdown() {
+        render.shutdownNow();
+        io.shutdownNow();
+    }
+}
@@ -0,0 +1,107 @@
+package com.quartzkube.core;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delays retries of API submissions that failed transiently: a 429, a 5xx
+ * or an I/O error without a response. A {@code Retry-After} sent by the
+ * server is honoured, with a little jitter so throttled dispatches do not
+ * come back together; otherwise the delay grows exponentially per attempt
+ * with equal jitter. The queue holds at most {@code capacity} retries and
+ * gives up after {@code maxAttempts}; either way the caller is told the
+ * retry was not scheduled and fails the dispatch.
+ */
+final class DispatchRetryQueue {
+    private final int capacity;
+    private final int maxAttempts;
+    private final long baseMillis;
+    private final long maxMillis;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "quartzkube-dispatch-retry");
+        t.setDaemon(true);
+        return t;
+    });
+
+    DispatchRetryQueue(int capacity, int maxAttempts, long baseMillis, long maxMillis) {
+        this.capacity = Math.max(0, capacity);
+        this.maxAttempts = Math.max(0, maxAttempts);
+        this.baseMillis = Math.max(1, baseMillis);
+        this.maxMillis = Math.max(this.baseMillis, maxMillis);
+    }
+
+    /** Stops the timer; retries still waiting are dropped. */
+    void shutdown() {
+        int dropped = timer.shutdownNow().size();
+        pending.addAndGet(-dropped);
+        Metrics.getInstance().adjustDispatchRetryQueue(-dropped);
+    }
+
+    /**
+     * Schedules {@code retry} after the failed attempt number {@code attempt}
+     * (0 for the first). Returns false if the error is not transient, the
+     * attempts are used up or the queue is full.
+     */
+    boolean schedule(int attempt, Throwable error, Runnable retry) {
+        if (!isTransient(error)) {
+            return false;
+        }
+        if (attempt >= maxAttempts) {
+            Metrics.getInstance().recordDispatchRetryExhausted();
+            return false;
+        }
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            Metrics.getInstance().recordDispatchRetryExhausted();
+            return false;
+        }
+        long delay = delayMillis(attempt, error);
+        Metrics.getInstance().adjustDispatchRetryQueue(1);
+        try {
+            timer.schedule(() -> {
+                pending.decrementAndGet();
+                Metrics.getInstance().adjustDispatchRetryQueue(-1);
+                retry.run();
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            Metrics.getInstance().adjustDispatchRetryQueue(-1);
+            return false;
+        }
+        Metrics.getInstance().recordDispatchRetry(delay);
+        return true;
+    }
+
+    /** Retries currently waiting for their delay to pass. */
+    int pending() {
+        return pending.get();
+    }
+
+    long delayMillis(int attempt, Throwable error) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long retryAfter = ApiErrors.retryAfterMillis(error);
+        if (retryAfter >= 0) {
+            return retryAfter + random.nextLong(baseMillis);
+        }
+        long cap = Math.min(maxMillis, baseMillis << Math.min(attempt, 20));
+        return cap / 2 + random.nextLong(cap / 2 + 1);
+    }
+
+    static boolean isTransient(Throwable error) {
+        int code = ApiErrors.statusCode(error);
+        if (code > 0) {
+            return code == 429 || code >= 500;
+        }
+        for (Throwable t = error; t != null && t.getCause() != t; t = t.getCause()) {
+            if (t instanceof java.io.IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,113 @@
+package com.quartzkube.core;
+
+import org.quartz.CronTrigger;
+import org.quartz.JobDetail;
+import org.quartz.Trigger;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Kubernetes options of a dispatch, parsed once from job data into typed,
+ * immutable fields. Both the Job and the CronJob manifest are rendered from
+ * it, so a spec compiled for a trigger can be reused by every dispatch of
+ * that trigger without touching the data map again.
+ *
+ * <p>Recognised keys are {@code k8sImage}, {@code cpu}, {@code memory},
+ * {@code backoffLimit}, {@code env}, {@code labels}, {@code annotations},
+ * {@code serviceAccount}, {@code timeZone}, {@code templateFile},
+ * {@code cronTemplateFile}, {@code affinity}, {@code extraContainers} and
+ * {@code volumes}. Other keys are ignored.</p>
+ */
+public final class DispatchSpec {
+    /** Spec without overrides; every setting comes from the dispatcher defaults. */
+    public static final DispatchSpec EMPTY = new DispatchSpec(Collections.emptyMap());
+
+    final String image;
+    final String cpu;
+    final String memory;
+    final Integer backoffLimit;
+    final Map<String, String> env;
+    final Map<String, String> labels;
+    final Map<String, String> annotations;
+    final String serviceAccount;
+    final String timeZone;
+    final String templateFile;
+    final String cronTemplateFile;
+    final String affinity;
+    final String extraContainers;
+    final String volumes;
+
+    private DispatchSpec(Map<String, ?> data) {
+        image = string(data, "k8sImage");
+        cpu = string(data, "cpu");
+        memory = string(data, "memory");
+        backoffLimit = integer(data, "backoffLimit");
+        env = stringMap(data, "env");
+        labels = stringMap(data, "labels");
+        annotations = stringMap(data, "annotations");
+        serviceAccount = string(data, "serviceAccount");
+        timeZone = string(data, "timeZone");
+        templateFile = string(data, "templateFile");
+        cronTemplateFile = string(data, "cronTemplateFile");
+        affinity = string(data, "affinity");
+        extraContainers = string(data, "extraContainers");
+        volumes = string(data, "volumes");
+    }
+
+    /** Compiles the options found in {@code jobData}, which may be null. */
+    public static DispatchSpec of(Map<String, ?> jobData) {
+        return jobData == null || jobData.isEmpty() ? EMPTY : new DispatchSpec(jobData);
+    }
+
+    /**
+     * Compiles the options of a scheduled job. Trigger entries override job
+     * entries, and a cron trigger's time zone is used unless the data sets
+     * {@code timeZone}.
+     */
+    public static DispatchSpec of(JobDetail detail, Trigger trigger) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        if (detail != null && detail.getJobDataMap() != null) {
+            data.putAll(detail.getJobDataMap().getWrappedMap());
+        }
+        if (trigger != null && trigger.getJobDataMap() != null) {
+            data.putAll(trigger.getJobDataMap().getWrappedMap());
+        }
+        if (trigger instanceof CronTrigger cron && cron.getTimeZone() != null && !data.containsKey("timeZone")) {
+            data.put("timeZone", cron.getTimeZone().getID());
+        }
+        return of(data);
+    }
+
+    private static String string(Map<String, ?> data, String key) {
+        Object v = data.get(key);
+        return v == null ? null : v.toString();
+    }
+
+    private static Integer integer(Map<String, ?> data, String key) {
+        Object v = data.get(key);
+        if (v == null) {
+            return null;
+        }
+        if (v instanceof Integer i) {
+            return i;
+        }
+        try {
+            return Integer.parseInt(v.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> stringMap(Map<String, ?> data, String key) {
+        if (!(data.get(key) instanceof Map<?, ?> m)) {
+            return null;
+        }
+        Map<String, String> copy = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> e : m.entrySet()) {
+            copy.put(e.getKey().toString(), e.getValue().toString());
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+}
@@ -0,0 +1,115 @@
+package com.quartzkube.core;
+
+import org.quartz.InterruptableJob;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Deadline of one in-process job execution, armed on the timing wheel. If it
+ * expires before the job returns, the job is asked to stop through
+ * {@link InterruptableJob#interrupt()} and its worker thread is interrupted.
+ * The expiry flag and the thread interrupt are set in the timer task
+ * itself, but {@code interrupt()} is job code and is handed to a separate
+ * executor, so a slow implementation can hold up neither the other
+ * timeouts expiring in the same batch nor trigger fires. A job may ignore both, so
+ * when the worker pool is a {@link ThreadPoolExecutor} it is grown by one
+ * thread for as long as the overrunning job holds its thread; the rest of
+ * the schedule keeps its capacity either way.
+ */
+final class ExecutionDeadline implements TimingWheel.Task {
+    private static final Object RESIZE_LOCK = new Object();
+
+    private final Thread worker;
+    private final Object job;
+    private final Executor pool;
+    private final Executor callbacks;
+    private final TimingWheel.Timeout timeout;
+    private boolean finished;
+    private boolean expired;
+
+    private ExecutionDeadline(TimingWheel timer, Executor pool, Executor callbacks, Object job, long deadlineMillis) {
+        this.worker = Thread.currentThread();
+        this.job = job;
+        this.pool = pool;
+        this.callbacks = callbacks;
+        this.timeout = timer.schedule(this, deadlineMillis);
+    }
+
+    /**
+     * Starts the deadline for the job running on the current thread.
+     * {@code callbacks} runs the job's {@code interrupt()} on expiry; it must
+     * not be the executor the timing wheel runs its tasks on.
+     */
+    static ExecutionDeadline start(TimingWheel timer, Executor pool, Executor callbacks, Object job,
+                                   long timeoutMillis) {
+        return new ExecutionDeadline(timer, pool, callbacks, job, System.currentTimeMillis() + timeoutMillis);
+    }
+
+    @Override
+    public void run(TimingWheel.Timeout t) {
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            expired = true;
+            // grow before finish() can observe the expiry and shrink again
+            resize(pool, 1);
+            worker.interrupt();
+        }
+        Metrics.getInstance().recordTimeout();
+        if (job instanceof InterruptableJob interruptable) {
+            try {
+                callbacks.execute(() -> {
+                    try {
+                        interruptable.interrupt();
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // shutting down; the thread interrupt already went out
+            }
+        }
+    }
+
+    /**
+     * Called on the worker thread once the job returned. Returns true if the
+     * deadline expired first, in which case the borrowed pool thread is
+     * handed back and the worker's interrupt flag is cleared.
+     */
+    boolean finish() {
+        synchronized (this) {
+            finished = true;
+            if (!expired) {
+                timeout.cancel();
+                return false;
+            }
+            Thread.interrupted();
+        }
+        resize(pool, -1);
+        return true;
+    }
+
+    private static void resize(Executor pool, int delta) {
+        if (pool instanceof AdaptiveWorkerPool adaptive) {
+            adaptive.borrow(delta);
+            return;
+        }
+        if (!(pool instanceof ThreadPoolExecutor tpe) || tpe.isShutdown()
+                || tpe.getMaximumPoolSize() == Integer.MAX_VALUE) {
+            return;
+        }
+        synchronized (RESIZE_LOCK) {
+            // the maximum must never drop below the core size
+            if (delta > 0) {
+                tpe.setMaximumPoolSize(tpe.getMaximumPoolSize() + delta);
+                tpe.setCorePoolSize(tpe.getCorePoolSize() + delta);
+            } else if (tpe.getCorePoolSize() + delta > 0) {
+                tpe.setCorePoolSize(tpe.getCorePoolSize() + delta);
+                tpe.setMaximumPoolSize(tpe.getMaximumPoolSize() + delta);
+            }
+        }
+    }
+}
@@ -27,8 +27,57 @@ public class Fabric8KubernetesApiService implements KubernetesApiService {
         return client.pods().inNamespace(namespace).withName(podName).getLog();
     }
 
+    @Override
+    public java.io.InputStream streamPodLog(String podName, boolean follow) throws Exception {
+        io.fabric8.kubernetes.client.dsl.PodResource pod = client.pods().inNamespace(namespace).withName(podName);
+        if (!follow) {
+            return pod.getLogInputStream();
+        }
+        io.fabric8.kubernetes.client.dsl.LogWatch watch = pod.watchLog();
+        return new java.io.FilterInputStream(watch.getOutput()) {
+            @Override
+            public void close() throws java.io.IOException {
+                try {
+                    super.close();
+                } finally {
+                    watch.close();
+                }
+            }
+        };
+    }
+
     @Override
     public Watch watchPod(String podName, Watcher<Pod> watcher) {
         return client.pods().inNamespace(namespace).withName(podName).watch(watcher);
     }
+
+    @Override
+    public Watch watchPods(String labelSelector, Watcher<Pod> watcher) {
+        return select(labelSelector).watch(watcher);
+    }
+
+    @Override
+    public java.util.List<String> listPodNames(String labelSelector) {
+        java.util.List<String> names = new java.util.ArrayList<>();
+        for (Pod pod : select(labelSelector).list().getItems()) {
+            names.add(pod.getMetadata().getName());
+        }
+        return names;
+    }
+
+    /** Pods of the namespace filtered by a {@code key} / {@code key=value} selector. */
+    private io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable<Pod, io.fabric8.kubernetes.api.model.PodList,
+            io.fabric8.kubernetes.client.dsl.PodResource> select(String labelSelector) {
+        io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable<Pod, io.fabric8.kubernetes.api.model.PodList,
+                io.fabric8.kubernetes.client.dsl.PodResource> pods = client.pods().inNamespace(namespace);
+        for (String term : labelSelector.split(",")) {
+            String t = term.trim();
+            if (t.isEmpty()) {
+                continue;
+            }
+            int eq = t.indexOf('=');
+            pods = eq < 0 ? pods.withLabel(t) : pods.withLabel(t.substring(0, eq).trim(), t.substring(eq + 1).trim());
+        }
+        return pods;
+    }
 }
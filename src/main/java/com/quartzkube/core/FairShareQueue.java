@@ -0,0 +1,145 @@
+package com.quartzkube.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Orders ready fires before they reach the worker executor. Every submitted
+ * fire hands the executor one generic drain token; whichever worker runs a
+ * token takes the best fire queued at that moment rather than the fire that
+ * created it. Groups are picked with stride scheduling so each group gets a
+ * share of workers proportional to its weight, and within a group fires run
+ * by descending trigger priority and then in submission order.
+ */
+final class FairShareQueue {
+    private static final long STRIDE = 1L << 20;
+
+    private final Executor executor;
+    private final Map<String, Integer> weights;
+    private final int defaultWeight;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Group> groups = new HashMap<>();
+    private final List<Group> active = new ArrayList<>();
+    private long virtualTime;
+    private long sequence;
+
+    FairShareQueue(Executor executor, Map<String, Integer> weights, int defaultWeight) {
+        this.executor = executor;
+        this.weights = Map.copyOf(weights);
+        this.defaultWeight = Math.max(1, defaultWeight);
+    }
+
+    /**
+     * Parses a weight list such as {@code "critical=10,batch=1"}. Malformed
+     * entries are ignored.
+     */
+    static Map<String, Integer> parseWeights(String spec) {
+        Map<String, Integer> out = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return out;
+        }
+        for (String entry : spec.split(",")) {
+            int eq = entry.indexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            try {
+                int w = Integer.parseInt(entry.substring(eq + 1).trim());
+                if (w > 0) {
+                    out.put(entry.substring(0, eq).trim(), w);
+                }
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return out;
+    }
+
+    /** Queues a fire for the given job group and trigger priority. */
+    void submit(String group, int priority, Runnable task) {
+        lock.lock();
+        try {
+            Group g = groups.computeIfAbsent(group, name -> new Group(name, weights.getOrDefault(name, defaultWeight)));
+            if (g.items.isEmpty()) {
+                // an idle group rejoins at the current virtual time instead of
+                // spending credit it accumulated while it had nothing to run
+                g.pass = Math.max(g.pass, virtualTime);
+                active.add(g);
+            }
+            g.items.add(new Item(priority, sequence++, System.nanoTime(), task));
+        } finally {
+            lock.unlock();
+        }
+        executor.execute(this::runNext);
+    }
+
+    /** Number of fires waiting for a worker. */
+    int size() {
+        lock.lock();
+        try {
+            int n = 0;
+            for (Group g : active) {
+                n += g.items.size();
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runNext() {
+        Item item;
+        String group;
+        lock.lock();
+        try {
+            Group best = null;
+            for (Group g : active) {
+                if (best == null || g.pass < best.pass) {
+                    best = g;
+                }
+            }
+            if (best == null) {
+                return;
+            }
+            item = best.items.poll();
+            virtualTime = best.pass;
+            best.pass += STRIDE / best.weight;
+            if (best.items.isEmpty()) {
+                active.remove(best);
+            }
+            group = best.name;
+        } finally {
+            lock.unlock();
+        }
+        long waitNanos = System.nanoTime() - item.enqueuedNanos;
+        Metrics.getInstance().recordQueueWait(group, waitNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        item.task.run();
+    }
+
+    private static final class Group {
+        final String name;
+        final int weight;
+        final PriorityQueue<Item> items = new PriorityQueue<>();
+        long pass;
+
+        Group(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+    }
+
+    private record Item(int priority, long seq, long enqueuedNanos, Runnable task) implements Comparable<Item> {
+        @Override
+        public int compareTo(Item o) {
+            if (priority != o.priority) {
+                return Integer.compare(o.priority, priority);
+            }
+            return Long.compare(seq, o.seq);
+        }
+    }
+}
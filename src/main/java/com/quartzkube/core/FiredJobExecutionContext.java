@@ -0,0 +1,118 @@
+package com.quartzkube.core;
+
+import org.quartz.Calendar;
+import org.quartz.Job;
+import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.Scheduler;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link JobExecutionContext} of one in-process fire. It is the only object
+ * allocated per fire for the context: the {@link JobDetail} and
+ * {@link Trigger} are the scheduler's registered instances, shared by every
+ * fire and not to be modified, while fire times and the fire instance id
+ * are kept as primitives. The merged data map, {@link Date} views and the
+ * context's own key/value map are only created when a job or listener asks
+ * for them.
+ */
+public final class FiredJobExecutionContext implements JobExecutionContext {
+    private final JobDetail jobDetail;
+    private final Trigger trigger;
+    private final long scheduledFireTime;
+    private final long previousFireTime;
+    private final long nextFireTime;
+    private final long fireInstance;
+    private final long fireTime;
+    private Job jobInstance;
+    private JobDataMap merged;
+    private Map<Object, Object> data;
+    private Object result;
+    private long runTime = -1;
+
+    /**
+     * @param scheduledFireTime time the trigger was due, or 0 to use the
+     *                          fire time, which is the moment of creation
+     * @param previousFireTime  previous fire of the trigger, or 0 if none
+     * @param nextFireTime      next fire of the trigger, or 0 if none
+     */
+    public FiredJobExecutionContext(JobDetail jobDetail, Trigger trigger, long scheduledFireTime,
+                                    long previousFireTime, long nextFireTime, long fireInstance) {
+        this.jobDetail = jobDetail;
+        this.trigger = trigger;
+        this.scheduledFireTime = scheduledFireTime;
+        this.previousFireTime = previousFireTime;
+        this.nextFireTime = nextFireTime;
+        this.fireInstance = fireInstance;
+        this.fireTime = System.currentTimeMillis();
+    }
+
+    void setJobInstance(Job job) {
+        this.jobInstance = job;
+    }
+
+    private static Date date(long millis) {
+        return millis > 0 ? new Date(millis) : null;
+    }
+
+    @Override public Scheduler getScheduler() { return null; }
+    @Override public Trigger getTrigger() { return trigger; }
+    @Override public Calendar getCalendar() { return null; }
+    @Override public boolean isRecovering() { return false; }
+    @Override public TriggerKey getRecoveringTriggerKey() { throw new IllegalStateException("Not a recovering job"); }
+    @Override public int getRefireCount() { return 0; }
+
+    /**
+     * The job's data overlaid with the trigger's, built on first use. Each
+     * fire gets its own copy, so changes do not leak into later fires.
+     */
+    @Override
+    public JobDataMap getMergedJobDataMap() {
+        if (merged == null) {
+            JobDataMap m = jobDetail != null ? new JobDataMap(jobDetail.getJobDataMap()) : new JobDataMap();
+            if (trigger != null && !trigger.getJobDataMap().isEmpty()) {
+                m.putAll(trigger.getJobDataMap());
+            }
+            merged = m;
+        }
+        return merged;
+    }
+
+    @Override public JobDetail getJobDetail() { return jobDetail; }
+    @Override public Job getJobInstance() { return jobInstance; }
+    @Override public Date getFireTime() { return new Date(fireTime); }
+    @Override public Date getScheduledFireTime() { return new Date(scheduledFireTime > 0 ? scheduledFireTime : fireTime); }
+    @Override public Date getPreviousFireTime() { return date(previousFireTime); }
+    @Override public Date getNextFireTime() { return date(nextFireTime); }
+    @Override public String getFireInstanceId() { return Long.toString(fireInstance); }
+    @Override public Object getResult() { return result; }
+    @Override public void setResult(Object result) { this.result = result; }
+    @Override public long getJobRunTime() { return runTime; }
+    void setJobRunTime(long rt) { this.runTime = rt; }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (data == null) {
+            data = new HashMap<>(4);
+        }
+        data.put(key, value);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return data == null ? null : data.get(key);
+    }
+
+    @Override
+    public String toString() {
+        return "FiredJobExecutionContext[job=" + (jobDetail != null ? jobDetail.getKey() : null)
+                + ", trigger=" + (trigger != null ? trigger.getKey() : null)
+                + ", fireInstanceId=" + fireInstance + "]";
+    }
+}
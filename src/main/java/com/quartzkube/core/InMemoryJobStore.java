@@ -1,21 +1,60 @@
 package com.quartzkube.core;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Simple in-memory JobStore used by default.
  */
 public class InMemoryJobStore implements JobStore {
     private final List<String> jobs = new ArrayList<>();
+    private final Map<String, Long> nextFireTimes = new HashMap<>();
 
     @Override
     public synchronized void saveJob(String jobClass) {
         jobs.add(jobClass);
     }
 
+    @Override
+    public synchronized void saveJobs(Collection<String> jobClasses) {
+        jobs.addAll(jobClasses);
+    }
+
     @Override
     public synchronized List<String> loadJobs() {
         return new ArrayList<>(jobs);
     }
+
+    @Override
+    public void loadJobs(int pageSize, Consumer<List<StoredJob>> consumer) {
+        List<StoredJob> snapshot = new ArrayList<>();
+        synchronized (this) {
+            for (String jobClass : jobs) {
+                snapshot.add(new StoredJob(jobClass));
+            }
+        }
+        for (int i = 0; i < snapshot.size(); i += pageSize) {
+            consumer.accept(snapshot.subList(i, Math.min(snapshot.size(), i + pageSize)));
+        }
+    }
+
+    @Override
+    public synchronized void saveNextFireTimes(Map<String, Long> times) {
+        times.forEach((trigger, next) -> {
+            if (next > 0) {
+                nextFireTimes.put(trigger, next);
+            } else {
+                nextFireTimes.remove(trigger);
+            }
+        });
+    }
+
+    @Override
+    public synchronized Map<String, Long> loadNextFireTimes() {
+        return new HashMap<>(nextFireTimes);
+    }
 }
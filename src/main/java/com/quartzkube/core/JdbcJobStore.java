@@ -3,7 +3,11 @@ package com.quartzkube.core;
 import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * JobStore backed by a JDBC DataSource. Stores job class names in a simple table
@@ -22,18 +26,47 @@ public class JdbcJobStore implements JobStore {
         try (Connection c = dataSource.getConnection();
              Statement s = c.createStatement()) {
             s.executeUpdate("CREATE TABLE IF NOT EXISTS scheduled_jobs (job_class VARCHAR(255) PRIMARY KEY)");
+            s.executeUpdate("CREATE TABLE IF NOT EXISTS trigger_checkpoints "
+                    + "(trigger_key VARCHAR(255) PRIMARY KEY, next_fire_time BIGINT NOT NULL)");
         }
     }
 
+    private static final String MERGE_SQL = "MERGE INTO scheduled_jobs (job_class) KEY(job_class) VALUES (?)";
+
     @Override
     public void saveJob(String jobClass) throws Exception {
         try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement("MERGE INTO scheduled_jobs (job_class) KEY(job_class) VALUES (?)")) {
+             PreparedStatement ps = c.prepareStatement(MERGE_SQL)) {
             ps.setString(1, jobClass);
             ps.executeUpdate();
         }
     }
 
+    /** Saves all job classes with one JDBC batch inside a single transaction. */
+    @Override
+    public void saveJobs(Collection<String> jobClasses) throws Exception {
+        if (jobClasses.isEmpty()) {
+            return;
+        }
+        try (Connection c = dataSource.getConnection()) {
+            boolean autoCommit = c.getAutoCommit();
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement(MERGE_SQL)) {
+                for (String jobClass : jobClasses) {
+                    ps.setString(1, jobClass);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
     @Override
     public List<String> loadJobs() throws Exception {
         List<String> list = new ArrayList<>();
@@ -46,4 +79,82 @@ public class JdbcJobStore implements JobStore {
         }
         return list;
     }
+
+    /**
+     * Pages through the table with keyset pagination on the primary key so
+     * each query stays cheap no matter how far into the table it reads.
+     */
+    @Override
+    public void loadJobs(int pageSize, Consumer<List<StoredJob>> consumer) throws Exception {
+        String after = "";
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "SELECT job_class FROM scheduled_jobs WHERE job_class > ? ORDER BY job_class LIMIT ?")) {
+            while (true) {
+                ps.setString(1, after);
+                ps.setInt(2, pageSize);
+                List<StoredJob> page = new ArrayList<>(pageSize);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        page.add(new StoredJob(rs.getString(1)));
+                    }
+                }
+                if (page.isEmpty()) {
+                    return;
+                }
+                consumer.accept(page);
+                if (page.size() < pageSize) {
+                    return;
+                }
+                after = page.get(page.size() - 1).jobClass();
+            }
+        }
+    }
+
+    /** Upserts or deletes the trigger checkpoints in one transaction. */
+    @Override
+    public void saveNextFireTimes(Map<String, Long> nextFireTimes) throws Exception {
+        if (nextFireTimes.isEmpty()) {
+            return;
+        }
+        try (Connection c = dataSource.getConnection()) {
+            boolean autoCommit = c.getAutoCommit();
+            c.setAutoCommit(false);
+            try (PreparedStatement merge = c.prepareStatement(
+                         "MERGE INTO trigger_checkpoints (trigger_key, next_fire_time) KEY(trigger_key) VALUES (?, ?)");
+                 PreparedStatement delete = c.prepareStatement("DELETE FROM trigger_checkpoints WHERE trigger_key = ?")) {
+                for (Map.Entry<String, Long> e : nextFireTimes.entrySet()) {
+                    if (e.getValue() > 0) {
+                        merge.setString(1, e.getKey());
+                        merge.setLong(2, e.getValue());
+                        merge.addBatch();
+                    } else {
+                        delete.setString(1, e.getKey());
+                        delete.addBatch();
+                    }
+                }
+                merge.executeBatch();
+                delete.executeBatch();
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Long> loadNextFireTimes() throws Exception {
+        Map<String, Long> times = new HashMap<>();
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT trigger_key, next_fire_time FROM trigger_checkpoints");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                times.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+        return times;
+    }
 }
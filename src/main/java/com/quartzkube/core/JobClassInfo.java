@@ -0,0 +1,125 @@
+package com.quartzkube.core;
+
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+
+/**
+ * Per-class metadata computed once and cached in a {@link ClassValue}: the job
+ * kind, whether concurrent execution is disallowed, a constructor
+ * {@link Supplier} generated with {@link LambdaMetafactory} and the shared
+ * {@link JobDetail} used for fires scheduled by class alone.
+ */
+final class JobClassInfo {
+    enum Kind { RUNNABLE, QUARTZ_JOB, INVALID }
+
+    private static final ClassValue<JobClassInfo> CACHE = new ClassValue<>() {
+        @Override
+        protected JobClassInfo computeValue(Class<?> type) {
+            return new JobClassInfo(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final Kind kind;
+    private final boolean disallowConcurrent;
+    private final Supplier<Object> constructor;
+    private final Exception constructorError;
+    private volatile JobDetail detail;
+
+    private JobClassInfo(Class<?> type) {
+        this.type = type;
+        if (org.quartz.Job.class.isAssignableFrom(type)) {
+            kind = Kind.QUARTZ_JOB;
+        } else if (Runnable.class.isAssignableFrom(type)) {
+            kind = Kind.RUNNABLE;
+        } else {
+            kind = Kind.INVALID;
+        }
+        disallowConcurrent = type.isAnnotationPresent(DisallowConcurrentExecution.class)
+                || type.isAnnotationPresent(org.quartz.DisallowConcurrentExecution.class);
+        Supplier<Object> ctor = null;
+        Exception error = null;
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            error = new InstantiationException(type.getName() + " is not a concrete class");
+        } else {
+            try {
+                ctor = constructorSupplier(type);
+            } catch (ReflectiveOperationException e) {
+                error = e;
+            }
+        }
+        constructor = ctor;
+        constructorError = error;
+    }
+
+    static JobClassInfo of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    boolean isDisallowConcurrent() {
+        return disallowConcurrent;
+    }
+
+    /**
+     * Detail keyed by the class name, built once and shared by every fire of
+     * a Quartz job scheduled without its own {@link JobDetail}. Null for
+     * Runnable jobs, which Quartz cannot describe.
+     */
+    JobDetail jobDetail() {
+        JobDetail d = detail;
+        if (d == null && kind == Kind.QUARTZ_JOB) {
+            d = JobBuilder.newJob(type.asSubclass(org.quartz.Job.class)).withIdentity(type.getName()).build();
+            detail = d;
+        }
+        return d;
+    }
+
+    /** Creates a new instance through the cached no-arg constructor. */
+    Object newInstance() throws Exception {
+        if (constructor == null) {
+            throw constructorError;
+        }
+        return constructor.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> constructorSupplier(Class<?> type) throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            lookup = MethodHandles.publicLookup();
+        }
+        MethodHandle ctor = lookup.findConstructor(type, MethodType.methodType(void.class));
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class), MethodType.methodType(Object.class),
+                    ctor, MethodType.methodType(type));
+            return (Supplier<Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            // lookup lacks the access needed to spin a lambda; invoke the handle directly
+            MethodHandle generic = ctor.asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return generic.invokeExact();
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.quartzkube.core;
+
+/**
+ * Creates job instances for in-process executions. Modeled after Quartz's
+ * {@code org.quartz.spi.JobFactory} so dependency injection containers can
+ * supply fully wired jobs. The returned object must implement
+ * {@link Runnable} or {@link org.quartz.Job}.
+ */
+public interface JobFactory {
+    /**
+     * Returns a job instance for the given class.
+     *
+     * @param jobClass job class being fired
+     * @return a new or container managed instance
+     */
+    Object newJob(Class<?> jobClass) throws Exception;
+}
@@ -0,0 +1,117 @@
+package com.quartzkube.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serializes the executions of one job key. Pending fires are held according
+ * to a {@link NonConcurrentPolicy} and the running flag is only flipped with
+ * atomic transitions, so no locks are taken on the fire path. When a run
+ * finishes the worker thread that executed it immediately picks up the next
+ * pending fire.
+ */
+final class JobMailbox {
+    private final NonConcurrentPolicy policy;
+    private final int limit;
+    private final Executor executor;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Runnable> latest = new AtomicReference<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    JobMailbox(NonConcurrentPolicy policy, int limit, Executor executor) {
+        this.policy = policy;
+        this.limit = Math.max(1, limit);
+        this.executor = executor;
+    }
+
+    /** Offers a fire to the mailbox, starting it right away if the job is idle. */
+    void offer(Runnable fire) {
+        switch (policy) {
+            case DROP -> {
+                if (!running.compareAndSet(false, true)) {
+                    Metrics.getInstance().recordDroppedFire();
+                    return;
+                }
+                try {
+                    executor.execute(() -> {
+                        try {
+                            fire.run();
+                        } finally {
+                            running.set(false);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    // a rejected fire must not leave the job marked running forever
+                    running.set(false);
+                    throw e;
+                }
+                return;
+            }
+            case LATEST -> {
+                depth.incrementAndGet();
+                if (latest.getAndSet(fire) != null) {
+                    depth.decrementAndGet();
+                    Metrics.getInstance().recordCoalescedFire();
+                } else {
+                    Metrics.getInstance().adjustPendingFires(1);
+                }
+            }
+            default -> {
+                if (depth.incrementAndGet() > limit) {
+                    depth.decrementAndGet();
+                    Metrics.getInstance().recordDroppedFire();
+                    return;
+                }
+                Metrics.getInstance().adjustPendingFires(1);
+                queue.add(fire);
+            }
+        }
+        if (running.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                // the fire stays queued and the next offer tries again
+                running.set(false);
+                throw e;
+            }
+        }
+    }
+
+    /** Number of fires waiting for the current run to finish. */
+    int depth() {
+        return depth.get();
+    }
+
+    private Runnable take() {
+        Runnable r = policy == NonConcurrentPolicy.LATEST ? latest.getAndSet(null) : queue.poll();
+        if (r != null) {
+            depth.decrementAndGet();
+            Metrics.getInstance().adjustPendingFires(-1);
+        }
+        return r;
+    }
+
+    private void drain() {
+        while (true) {
+            Runnable next = take();
+            if (next == null) {
+                running.set(false);
+                // a fire may have been offered between the empty take and the release
+                if (depth.get() <= 0 || !running.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                next.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.quartzkube.core;
+
+/**
+ * Kubernetes object names for dispatched jobs. An execution name is derived
+ * from the job class, the fire instance id and the fire time, so it is
+ * unique per execution yet the same on every attempt to create that
+ * execution, and it always fits the 63 characters allowed for the
+ * {@code job-name} label the Job controller puts on the Job's pods.
+ */
+public final class JobNames {
+    /** Longest name usable as a label value. */
+    static final int MAX_NAME = 63;
+    /** Longest CronJob name; the controller appends an 11 character suffix per Job. */
+    static final int MAX_CRON_NAME = 52;
+
+    private JobNames() {
+    }
+
+    /**
+     * Name of the Job for one execution of {@code jobClass}: the end of the
+     * class name, the fire time in base 36 and a hash of the class and fire
+     * instance id.
+     */
+    public static String executionName(String jobClass, String fireInstanceId, long fireTimeMillis) {
+        String suffix = "-" + Long.toString(Math.max(0, fireTimeMillis), 36)
+                + "-" + hash(jobClass + '/' + fireInstanceId);
+        return prefix(jobClass, MAX_NAME - suffix.length()) + suffix;
+    }
+
+    /** Name of the CronJob created for {@code jobClass}. */
+    public static String cronJobName(String jobClass) {
+        return prefix(jobClass, MAX_CRON_NAME - "-cron".length()) + "-cron";
+    }
+
+    /**
+     * Lower-cases the class name, replaces characters Kubernetes does not
+     * allow with '-' and keeps at most {@code max} characters from the end,
+     * where the simple class name is.
+     */
+    static String prefix(String jobClass, int max) {
+        StringBuilder sb = new StringBuilder(jobClass.length());
+        for (int i = 0; i < jobClass.length(); i++) {
+            char c = Character.toLowerCase(jobClass.charAt(i));
+            sb.append((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '.' || c == '-' ? c : '-');
+        }
+        String s = sb.length() > max ? sb.substring(sb.length() - max) : sb.toString();
+        int start = 0;
+        while (start < s.length() && !Character.isLetterOrDigit(s.charAt(start))) {
+            start++;
+        }
+        int end = s.length();
+        while (end > start && !Character.isLetterOrDigit(s.charAt(end - 1))) {
+            end--;
+        }
+        return start == end ? "job" : s.substring(start, end);
+    }
+
+    /** 32-bit FNV-1a hash as 8 hex digits. */
+    private static String hash(String s) {
+        int h = 0x811c9dc5;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x01000193;
+        }
+        return String.format("%08x", h);
+    }
+}
@@ -11,4 +11,16 @@ public interface JobResultListener {
      * @param success  true if job succeeded
      */
     void jobFinished(String jobClass, boolean success);
+
+    /**
+     * Invoked after one index of an Indexed Job completes. The default
+     * reports it like a separate job through {@link #jobFinished}.
+     *
+     * @param jobClass fully qualified job class name
+     * @param index    completion index that finished
+     * @param success  true if the index succeeded
+     */
+    default void jobIndexFinished(String jobClass, int index, boolean success) {
+        jobFinished(jobClass, success);
+    }
 }
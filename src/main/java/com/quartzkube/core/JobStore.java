@@ -1,6 +1,10 @@
 package com.quartzkube.core;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Simple interface for persisting scheduled jobs.
@@ -9,6 +13,47 @@ public interface JobStore {
     /** Persist a job class name for execution. */
     void saveJob(String jobClass) throws Exception;
 
+    /**
+     * Persist several job class names in one operation. Stores should
+     * override this to use a single round trip or transaction; the default
+     * simply saves each entry in turn.
+     */
+    default void saveJobs(Collection<String> jobClasses) throws Exception {
+        for (String jobClass : jobClasses) {
+            saveJob(jobClass);
+        }
+    }
+
     /** Load all persisted job class names. */
     List<String> loadJobs() throws Exception;
+
+    /**
+     * Stream persisted jobs to the consumer in pages of at most
+     * {@code pageSize} entries. Stores should override this to avoid
+     * materializing every entry; the default pages over {@link #loadJobs()}.
+     */
+    default void loadJobs(int pageSize, Consumer<List<StoredJob>> consumer) throws Exception {
+        List<String> all = loadJobs();
+        for (int i = 0; i < all.size(); i += pageSize) {
+            List<StoredJob> page = new ArrayList<>();
+            for (String jobClass : all.subList(i, Math.min(all.size(), i + pageSize))) {
+                page.add(new StoredJob(jobClass));
+            }
+            consumer.accept(page);
+        }
+    }
+
+    /**
+     * Record the next fire time of triggers, keyed by trigger key
+     * ({@code group.name}), so a trigger registered again under the same key
+     * after a restart continues where it left off. A value of {@code 0}
+     * removes the entry. Stores that cannot keep them may ignore the call.
+     */
+    default void saveNextFireTimes(Map<String, Long> nextFireTimes) throws Exception {
+    }
+
+    /** Load the next fire times recorded with {@link #saveNextFireTimes}, keyed by trigger key. */
+    default Map<String, Long> loadNextFireTimes() throws Exception {
+        return Map.of();
+    }
 }
@@ -21,6 +21,7 @@ public class JobTemplateBuilder {
     }
 
     private String renderTemplate(String template,
+                                  String jobName,
                                   String jobClass,
                                   String schedule,
                                   String image,
@@ -59,12 +60,13 @@ public class JobTemplateBuilder {
         }
 
         template = template.replace("${JOB_CLASS}", "\"" + jobClass + "\"")
-                .replace("${JOB_NAME}", jobClass.toLowerCase())
+                .replace("${JOB_NAME}", jobName)
                 .replace("${NAMESPACE}", namespace)
                 .replace("${IMAGE}", image)
                 .replace("${ENV}", envLines)
                 .replace("${LABELS}", labelLines)
                 .replace("${ANNOTATIONS}", annotationLines)
+                .replace("${MANAGED_BY_LABEL}", PodInformer.MANAGED_BY_LABEL + ": \"" + PodInformer.MANAGED_BY + "\"")
                 .replace("${AFFINITY}", affinity != null ? affinity : "")
                 .replace("${SERVICE_ACCOUNT}", serviceAccount != null ? serviceAccount : "")
                 .replace("${EXTRA_CONTAINERS}", extraContainers != null ? extraContainers : "")
@@ -200,7 +202,8 @@ public class JobTemplateBuilder {
      * Builds a Job manifest from an external YAML template file using simple variable substitution.
      * Supported variables include ${JOB_CLASS}, ${JOB_NAME}, ${NAMESPACE}, ${IMAGE}, ${ENV},
      * ${CPU_LIMIT}, ${MEMORY_LIMIT}, ${BACKOFF_LIMIT}, ${TTL_SECONDS}, ${RUN_AS_USER},
-     * ${RUN_AS_GROUP}, ${FS_GROUP}, ${LABELS}, ${ANNOTATIONS}.
+     * ${RUN_AS_GROUP}, ${FS_GROUP}, ${LABELS}, ${ANNOTATIONS} and ${MANAGED_BY_LABEL}, the label the
+     * default pod watch selects on, which belongs in the pod template's labels.
      */
     public String buildTemplateFromFile(String jobClass, String templateFile, String imageOverride,
                                         String cpuOverride, String memoryOverride, Integer backoffOverride,
@@ -217,7 +220,7 @@ public class JobTemplateBuilder {
             String cpu = cpuOverride != null ? cpuOverride : cpuLimit;
             String mem = memoryOverride != null ? memoryOverride : memoryLimit;
             String sa = serviceAccountOverride != null ? serviceAccountOverride : serviceAccount;
-            return renderTemplate(template, jobClass, null, img, cpu, mem, backoffOverride, null,
+            return renderTemplate(template, jobClass.toLowerCase(), jobClass, null, img, cpu, mem, backoffOverride, null,
                     extraEnv, labels, annotations, affinity, sa, extraContainers, volumes);
         } catch (java.io.IOException e) {
             throw new RuntimeException("Failed to read template file", e);
@@ -244,7 +247,7 @@ public class JobTemplateBuilder {
             String mem = memoryOverride != null ? memoryOverride : memoryLimit;
             String tz = timeZoneOverride != null ? timeZoneOverride : cronTimeZone;
             String sa = serviceAccountOverride != null ? serviceAccountOverride : serviceAccount;
-            template = renderTemplate(template, jobClass, schedule, img, cpu, mem, backoffOverride, tz,
+            template = renderTemplate(template, jobClass.toLowerCase(), jobClass, schedule, img, cpu, mem, backoffOverride, tz,
                     extraEnv, labels, annotations, affinity, sa, extraContainers, volumes);
             return template;
         } catch (java.io.IOException e) {
@@ -284,7 +287,66 @@ public class JobTemplateBuilder {
                                Integer backoffOverride, java.util.Map<String, String> extraEnv,
                                java.util.Map<String, String> labels, java.util.Map<String, String> annotations,
                                String affinity, String serviceAccountOverride) {
-        String jobName = jobClass.toLowerCase();
+        return buildJobManifest(jobClass.toLowerCase(), jobClass, imageOverride, cpuOverride, memoryOverride,
+                backoffOverride, extraEnv, labels, annotations, affinity, serviceAccountOverride, 0, 0);
+    }
+
+    /**
+     * Builds the manifest of the Job named {@code jobName} from compiled
+     * dispatch options, using the options' template file if they name one.
+     * The name should come from {@link JobNames#executionName} so that
+     * executions of the same class do not collide.
+     */
+    public String buildJob(String jobName, String jobClass, DispatchSpec spec) {
+        if (spec.templateFile != null) {
+            try {
+                String template = readFile(spec.templateFile);
+                return renderTemplate(template, jobName, jobClass, null,
+                        spec.image != null ? spec.image : image,
+                        spec.cpu != null ? spec.cpu : cpuLimit,
+                        spec.memory != null ? spec.memory : memoryLimit,
+                        spec.backoffLimit, null, spec.env, spec.labels, spec.annotations, spec.affinity,
+                        spec.serviceAccount != null ? spec.serviceAccount : serviceAccount,
+                        spec.extraContainers, spec.volumes);
+            } catch (java.io.IOException e) {
+                throw new RuntimeException("Failed to read template file", e);
+            }
+        }
+        return buildJobManifest(jobName, jobClass, spec.image, spec.cpu, spec.memory, spec.backoffLimit, spec.env,
+                spec.labels, spec.annotations, spec.affinity, spec.serviceAccount, 0, 0);
+    }
+
+    /**
+     * Builds an Indexed Job that runs {@code completions} pods, indexed
+     * {@code 0..completions-1}, at most {@code parallelism} at a time. Each
+     * pod gets its index in {@code JOB_COMPLETION_INDEX} and the total in
+     * {@code JOB_COMPLETIONS}, see {@link CompletionIndex}. The backoff limit
+     * applies to each index separately. Template files are not supported.
+     */
+    public String buildIndexedJob(String jobName, String jobClass, DispatchSpec spec, int completions,
+                                  int parallelism) {
+        if (completions < 1) {
+            throw new IllegalArgumentException("completions must be positive: " + completions);
+        }
+        if (spec.templateFile != null) {
+            throw new IllegalArgumentException("templateFile is not supported for indexed jobs");
+        }
+        return buildJobManifest(jobName, jobClass, spec.image, spec.cpu, spec.memory, spec.backoffLimit, spec.env,
+                spec.labels, spec.annotations, spec.affinity, spec.serviceAccount, completions,
+                parallelism > 0 ? Math.min(parallelism, completions) : completions);
+    }
+
+    /** Failed pods an index of an Indexed Job built from {@code spec} may replace. */
+    int retriesPerIndex(DispatchSpec spec) {
+        Integer bo = spec.backoffLimit != null ? spec.backoffLimit : backoffLimit;
+        return bo != null ? bo : 0;
+    }
+
+    private String buildJobManifest(String jobName, String jobClass, String imageOverride, String cpuOverride,
+                                    String memoryOverride, Integer backoffOverride,
+                                    java.util.Map<String, String> extraEnv, java.util.Map<String, String> labels,
+                                    java.util.Map<String, String> annotations, String affinity,
+                                    String serviceAccountOverride, int completions, int parallelism) {
         String img = imageOverride != null ? imageOverride : image;
         String ttlLine = "";
         if (ttlSeconds != null) {
@@ -292,7 +354,10 @@ public class JobTemplateBuilder {
         }
         String backoffLine = "";
         Integer bo = backoffOverride != null ? backoffOverride : backoffLimit;
-        if (bo != null) {
+        if (completions > 0) {
+            backoffLine = "  completionMode: Indexed\n  completions: " + completions + "\n  parallelism: "
+                    + parallelism + "\n  backoffLimitPerIndex: " + (bo != null ? bo : 0) + "\n";
+        } else if (bo != null) {
             backoffLine = "  backoffLimit: " + bo + "\n";
         }
         String cpu = cpuOverride != null ? cpuOverride : cpuLimit;
@@ -334,6 +399,12 @@ public class JobTemplateBuilder {
         }
 
         String envLines = "        - name: JOB_CLASS\n          value: \"" + jobClass + "\"";
+        if (completions > 0) {
+            envLines += "\n        - name: " + CompletionIndex.INDEX_ENV
+                    + "\n          valueFrom:\n            fieldRef:\n              fieldPath: metadata.annotations['"
+                    + CompletionIndex.INDEX_ANNOTATION + "']"
+                    + "\n        - name: " + CompletionIndex.COMPLETIONS_ENV + "\n          value: \"" + completions + "\"";
+        }
         if (extraEnv != null) {
             for (java.util.Map.Entry<String, String> e : extraEnv.entrySet()) {
                 envLines += "\n        - name: " + e.getKey() + "\n          value: \"" + e.getValue() + "\"";
@@ -362,7 +433,11 @@ kind: Job
 metadata:
   name: %s
   namespace: %s
-%s%s%s  template:
+%s%sspec:
+%s  template:
+    metadata:
+      labels:
+        %s: "%s"
     spec:
       restartPolicy: Never
 %s%s%s      containers:
@@ -370,7 +445,8 @@ metadata:
         image: %s
 %s        env:
 %s
-""", jobName, namespace, labelLines, annotationLines, backoffLine + ttlLine, securityLines, saLine, affinityLines, img, resourceLines, envLines);
+""", jobName, namespace, labelLines, annotationLines, backoffLine + ttlLine,
+                PodInformer.MANAGED_BY_LABEL, PodInformer.MANAGED_BY, securityLines, saLine, affinityLines, img, resourceLines, envLines);
     }
 
     /**
@@ -399,7 +475,6 @@ metadata:
                                        String timeZoneOverride, java.util.Map<String, String> labels,
                                        java.util.Map<String, String> annotations,
                                        String affinity, String serviceAccountOverride) {
-        String jobName = jobClass.toLowerCase();
         String img = imageOverride != null ? imageOverride : image;
         String ttlLine = "";
         if (ttlSeconds != null) {
@@ -471,7 +546,7 @@ metadata:
         sb.append("apiVersion: batch/v1\n");
         sb.append("kind: CronJob\n");
         sb.append("metadata:\n");
-        sb.append("  name: ").append(jobName).append("-cron\n");
+        sb.append("  name: ").append(JobNames.cronJobName(jobClass)).append("\n");
         sb.append("  namespace: ").append(namespace).append("\n");
         sb.append("spec:\n");
         sb.append("  schedule: \"").append(schedule).append("\"\n");
@@ -483,6 +558,10 @@ metadata:
         if (!backoffLine.isEmpty()) sb.append(backoffLine);
         if (!ttlLine.isEmpty()) sb.append(ttlLine);
         sb.append("      template:\n");
+        sb.append("        metadata:\n");
+        sb.append("          labels:\n");
+        sb.append("            ").append(PodInformer.MANAGED_BY_LABEL).append(": \"")
+                .append(PodInformer.MANAGED_BY).append("\"\n");
         sb.append("        spec:\n");
         sb.append("          restartPolicy: Never\n");
         String sa = serviceAccountOverride != null ? serviceAccountOverride : serviceAccount;
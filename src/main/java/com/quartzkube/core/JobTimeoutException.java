@@ -0,0 +1,20 @@
+package com.quartzkube.core;
+
+import org.quartz.JobExecutionException;
+
+/**
+ * Reported to job listeners when an in-process job ran past its execution
+ * timeout. The job was interrupted and its result, if any, is discarded.
+ */
+public class JobTimeoutException extends JobExecutionException {
+    private final long timeoutMillis;
+
+    public JobTimeoutException(String jobName, long timeoutMillis) {
+        super("Job " + jobName + " exceeded its timeout of " + timeoutMillis + " ms");
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
@@ -13,9 +13,31 @@ public class KubeJobDispatcher {
     private final KubernetesApiService apiService;
     private final boolean useWatch;
     private final boolean streamLogs;
-    private final java.util.concurrent.Semaphore dispatchLimiter;
-    private final java.util.List<JobResultListener> listeners = new java.util.ArrayList<>();
+    private final PodInformer podInformer;
+    private final WarmRunnerPool warmPool;
+    private final DispatchLimiter dispatchLimiter;
+    private final DispatchRetryQueue retries = new DispatchRetryQueue(
+            parseOrDefault(getConfig("DISPATCH_RETRY_CAPACITY", null), 1000),
+            parseOrDefault(getConfig("DISPATCH_MAX_RETRIES", null), 5),
+            parseOrDefault(getConfig("DISPATCH_RETRY_BASE_MILLIS", null), 500),
+            parseOrDefault(getConfig("DISPATCH_RETRY_MAX_MILLIS", null), 30000));
+    private final java.util.List<JobResultListener> listeners = new java.util.concurrent.CopyOnWriteArrayList<>();
+    private final ListenerEventBus events = new ListenerEventBus("quartzkube-dispatch-events",
+            parseOrDefault(getConfig("EVENT_BUS_CAPACITY", null), 8192),
+            parseOrDefault(getConfig("EVENT_LAG_THRESHOLD_MILLIS", null), 1000));
     private PodLogHandler logHandler = new StdoutLogHandler();
+    private final java.util.Map<String, Class<?>> localClasses = new java.util.concurrent.ConcurrentHashMap<>();
+    private volatile JobFactory jobFactory = new CachingJobFactory();
+    private final java.util.concurrent.ThreadPoolExecutor logFollowers = logFollowerPool(
+            parseOrDefault(getConfig("LOG_FOLLOW_THREADS", null), 16),
+            parseOrDefault(getConfig("LOG_FOLLOW_QUEUE", null), 256));
+    private final DispatchPipeline pipeline = new DispatchPipeline(
+            parseOrDefault(getConfig("DISPATCH_RENDER_THREADS", null), 1),
+            parseOrDefault(getConfig("DISPATCH_SUBMIT_THREADS", null), 4),
+            parseOrDefault(getConfig("DISPATCH_QUEUE_CAPACITY", null), 1024));
+    /** Distinguishes executions fired by this dispatcher from those of other scheduler instances. */
+    private final String instanceId = Long.toString(java.util.concurrent.ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final java.util.concurrent.atomic.AtomicLong executions = new java.util.concurrent.atomic.AtomicLong();
 
     private static String getConfig(String key, String def) {
         String v = System.getProperty(key);
@@ -54,6 +76,7 @@ public class KubeJobDispatcher {
         this.useWatch = Boolean.parseBoolean(getConfig("USE_WATCH", "true"));
         this.streamLogs = Boolean.parseBoolean(getConfig("STREAM_LOGS", "true"));
         String impl = getConfig("K8S_CLIENT_IMPL", "fabric8");
+        KubernetesApiService api;
         if ("official".equalsIgnoreCase(impl)) {
             io.kubernetes.client.openapi.ApiClient client;
             try {
@@ -64,7 +87,7 @@ public class KubeJobDispatcher {
                 throw new RuntimeException(e);
             }
             client.setVerifyingSsl(false);
-            this.apiService = new OfficialKubernetesApiService(client, namespace);
+            api = new OfficialKubernetesApiService(client, namespace);
         } else {
             io.fabric8.kubernetes.client.Config cfg = new io.fabric8.kubernetes.client.ConfigBuilder()
                     .withMasterUrl(apiUrl)
@@ -73,8 +96,12 @@ public class KubeJobDispatcher {
                     .build();
             io.fabric8.kubernetes.client.KubernetesClient client =
                     new io.fabric8.kubernetes.client.DefaultKubernetesClient(cfg);
-            this.apiService = new Fabric8KubernetesApiService(client, namespace);
+            api = new Fabric8KubernetesApiService(client, namespace);
         }
+        int qps = parseOrDefault(getConfig("API_QPS", null), 50);
+        this.apiService = qps > 0
+                ? new RateLimitedKubernetesApiService(api, new TokenBucket(qps, parseOrDefault(getConfig("API_BURST", null), 100)))
+                : api;
         this.templateBuilder = new JobTemplateBuilder(
             getConfig("JOB_IMAGE", "quartz-job-runner:latest"),
             parseInt(getConfig("JOB_TTL_SECONDS", null)),
@@ -88,8 +115,52 @@ public class KubeJobDispatcher {
             getConfig("CRON_TIME_ZONE", null),
             getConfig("SERVICE_ACCOUNT", null)
         );
-        int l = limit <= 0 ? Integer.MAX_VALUE : limit;
-        this.dispatchLimiter = new java.util.concurrent.Semaphore(l);
+        this.podInformer = new PodInformer(apiService, getConfig("WATCH_LABEL_SELECTOR", PodInformer.DEFAULT_SELECTOR));
+        if ("adaptive".equalsIgnoreCase(getConfig("DISPATCH_LIMITER", "fixed"))) {
+            int max = parseOrDefault(getConfig("DISPATCH_MAX_CONCURRENCY", null), limit > 0 ? limit : 64);
+            int min = parseOrDefault(getConfig("DISPATCH_MIN_CONCURRENCY", null), 1);
+            this.dispatchLimiter = DispatchLimiter.adaptive(min, max,
+                    parseOrDefault(getConfig("DISPATCH_INITIAL_CONCURRENCY", null), Math.min(max, 8)),
+                    parseOrDefault(getConfig("DISPATCH_TARGET_LATENCY_MILLIS", null), 1000));
+        } else {
+            this.dispatchLimiter = DispatchLimiter.fixed(limit);
+        }
+        int warmSize = parseOrDefault(getConfig("WARM_POOL_SIZE", null), 0);
+        this.warmPool = warmSize > 0 && !localMode ? startWarmPool(warmSize) : null;
+    }
+
+    /**
+     * Opens the warm runner port. Without {@code WARM_POOL_TOKEN} a random
+     * token is generated, which only local runners learn. If the port cannot
+     * be bound, e.g. because another dispatcher in this JVM holds it, the
+     * warm pool is disabled and jobs run as regular Jobs.
+     */
+    private static WarmRunnerPool startWarmPool(int warmSize) {
+        String bindAddress = getConfig("WARM_POOL_BIND_ADDRESS", "127.0.0.1");
+        int port = parseOrDefault(getConfig("WARM_POOL_PORT", null), 7070);
+        boolean local = Boolean.parseBoolean(getConfig("WARM_POOL_LOCAL", "false"));
+        String token = getConfig("WARM_POOL_TOKEN", null);
+        if (token == null || token.isEmpty()) {
+            if (!local) {
+                System.err.println("WARM_POOL_TOKEN not set; only local warm runners can connect");
+            }
+            token = java.util.UUID.randomUUID().toString();
+        }
+        WarmRunnerPool pool;
+        try {
+            pool = new WarmRunnerPool(bindAddress, port, token, warmSize,
+                    parseOrDefault(getConfig("WARM_POOL_MAX_RUNS", null), 100),
+                    parseOrDefault(getConfig("WARM_POOL_HEALTH_INTERVAL_MILLIS", null), 5000),
+                    parseOrDefault(getConfig("WARM_POOL_HEALTH_TIMEOUT_MILLIS", null), 1000));
+        } catch (java.io.IOException e) {
+            System.err.println("Warm pool disabled, cannot listen on " + bindAddress + ":" + port + ": "
+                    + e.getMessage());
+            return null;
+        }
+        if (local) {
+            pool.startLocalRunners(warmSize);
+        }
+        return pool;
     }
 
     /** Register a listener for job completion events. */
@@ -104,6 +175,33 @@ public class KubeJobDispatcher {
         }
     }
 
+    /** Set the factory used to create job instances in local mode. */
+    public void setJobFactory(JobFactory factory) {
+        if (factory != null) {
+            this.jobFactory = factory;
+        }
+    }
+
+    /**
+     * Pool of {@code threads} log followers, each following one pod log for
+     * the lifetime of its container. At most {@code queue} follows
+     * wait for a free thread; further ones are rejected rather than piling
+     * up behind long-running streams.
+     */
+    private static java.util.concurrent.ThreadPoolExecutor logFollowerPool(int threads, int queue) {
+        java.util.concurrent.atomic.AtomicInteger n = new java.util.concurrent.atomic.AtomicInteger();
+        int size = Math.max(1, threads);
+        java.util.concurrent.ThreadPoolExecutor pool = new java.util.concurrent.ThreadPoolExecutor(size, size,
+                30, java.util.concurrent.TimeUnit.SECONDS,
+                new java.util.concurrent.ArrayBlockingQueue<>(Math.max(1, queue)), r -> {
+                    Thread t = new Thread(r, "quartzkube-log-follow-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
     private static int parseLimit(String v) {
         if (v == null || v.isEmpty()) return 0;
         try {
@@ -113,6 +211,11 @@ public class KubeJobDispatcher {
         }
     }
 
+    private static int parseOrDefault(String v, int def) {
+        Integer parsed = parseInt(v);
+        return parsed == null ? def : parsed;
+    }
+
     private static Integer parseInt(String v) {
         if (v == null || v.isEmpty()) return null;
         try {
@@ -137,146 +240,40 @@ public class KubeJobDispatcher {
             return;
         }
 
-        try {
-            dispatchLimiter.acquire();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return;
-        }
+        String manifest = renderCronJob(jobClass, schedule, DispatchSpec.of(jobData));
+        submitWithRetry(manifest, new java.util.concurrent.CompletableFuture<>(), 0, () -> { },
+                Throwable::printStackTrace);
+    }
 
-        String imageOverride = null;
-        String cpuOverride = null;
-        String memOverride = null;
-        Integer backoffOverride = null;
-        String templateFile = null;
-        String affinity = null;
-        String timeZoneOverride = null;
-        String extraContainers = null;
-        String volumes = null;
-        java.util.Map<String, String> env = null;
-        java.util.Map<String, String> labels = null;
-        java.util.Map<String, String> annotations = null;
-        String saOverride = null;
-        if (jobData != null) {
-            if (jobData.containsKey("k8sImage")) {
-                Object v = jobData.get("k8sImage");
-                if (v != null) {
-                    imageOverride = v.toString();
-                }
-            }
-            if (jobData.containsKey("cpu")) {
-                Object v = jobData.get("cpu");
-                if (v != null) {
-                    cpuOverride = v.toString();
-                }
-            }
-            if (jobData.containsKey("memory")) {
-                Object v = jobData.get("memory");
-                if (v != null) {
-                    memOverride = v.toString();
-                }
-            }
-            if (jobData.containsKey("backoffLimit")) {
-                Object v = jobData.get("backoffLimit");
-                if (v != null) {
-                    try {
-                        backoffOverride = Integer.parseInt(v.toString());
-                    } catch (NumberFormatException ignored) { }
-                }
-            }
-            if (jobData.containsKey("env")) {
-                Object obj = jobData.get("env");
-                if (obj instanceof java.util.Map<?, ?> m) {
-                    env = new java.util.HashMap<>();
-                    for (java.util.Map.Entry<?, ?> e : m.entrySet()) {
-                        env.put(e.getKey().toString(), e.getValue().toString());
-                    }
-                }
-            }
-            if (jobData.containsKey("labels")) {
-                Object obj = jobData.get("labels");
-                if (obj instanceof java.util.Map<?, ?> m) {
-                    labels = new java.util.HashMap<>();
-                    for (java.util.Map.Entry<?, ?> e : m.entrySet()) {
-                        labels.put(e.getKey().toString(), e.getValue().toString());
-                    }
-                }
-            }
-            if (jobData.containsKey("annotations")) {
-                Object obj = jobData.get("annotations");
-                if (obj instanceof java.util.Map<?, ?> m) {
-                    annotations = new java.util.HashMap<>();
-                    for (java.util.Map.Entry<?, ?> e : m.entrySet()) {
-                        annotations.put(e.getKey().toString(), e.getValue().toString());
-                    }
-                }
-            }
-            if (jobData.containsKey("serviceAccount")) {
-                Object v = jobData.get("serviceAccount");
-                if (v != null) {
-                    saOverride = v.toString();
-                }
-            }
-            if (jobData.containsKey("timeZone")) {
-                Object v = jobData.get("timeZone");
-                if (v != null) {
-                    timeZoneOverride = v.toString();
-                }
-            }
-            if (jobData.containsKey("cronTemplateFile")) {
-                Object v = jobData.get("cronTemplateFile");
-                if (v != null) {
-                    templateFile = v.toString();
-                }
-            }
-            if (jobData.containsKey("affinity")) {
-                Object v = jobData.get("affinity");
-                if (v != null) {
-                    affinity = v.toString();
-                }
-            }
-            if (jobData.containsKey("extraContainers")) {
-                Object v = jobData.get("extraContainers");
-                if (v != null) {
-                    extraContainers = v.toString();
-                }
-            }
-            if (jobData.containsKey("volumes")) {
-                Object v = jobData.get("volumes");
-                if (v != null) {
-                    volumes = v.toString();
-                }
-            }
-            if (jobData.containsKey("extraContainers")) {
-                Object v = jobData.get("extraContainers");
-                if (v != null) {
-                    extraContainers = v.toString();
-                }
-            }
-            if (jobData.containsKey("volumes")) {
-                Object v = jobData.get("volumes");
-                if (v != null) {
-                    volumes = v.toString();
-                }
-            }
-        }
+    /**
+     * Asynchronous variant of {@link #dispatchCronJob}. The returned handle
+     * completes once the API server accepted the CronJob, or once the job ran
+     * in local mode. Submission failures, including a full dispatch queue,
+     * complete it exceptionally; cancelling it before submission skips the
+     * dispatch.
+     */
+    public java.util.concurrent.CompletableFuture<Void> dispatchCronJobAsync(String jobClass, String schedule,
+            java.util.Map<String, Object> jobData) {
+        return dispatchCronJobAsync(jobClass, schedule, DispatchSpec.of(jobData));
+    }
 
-        String manifest;
-        if (templateFile != null) {
-            manifest = templateBuilder.buildCronJobTemplateFromFile(jobClass, schedule, templateFile, imageOverride, cpuOverride, memOverride, backoffOverride, env, timeZoneOverride, labels, annotations, affinity, saOverride, extraContainers, volumes);
-        } else {
-            manifest = templateBuilder.buildCronJobTemplate(jobClass, schedule, imageOverride, cpuOverride, memOverride, backoffOverride, env, timeZoneOverride, labels, annotations, affinity, saOverride);
-        }
-        try {
-            apiService.create(manifest);
-            Metrics.getInstance().recordSuccess();
-        } catch (Exception e) {
-            Metrics.getInstance().recordFailure();
-            e.printStackTrace();
+    /**
+     * Asynchronous CronJob dispatch with options compiled ahead of time, e.g.
+     * once per trigger, so the dispatch does no job data parsing.
+     */
+    public java.util.concurrent.CompletableFuture<Void> dispatchCronJobAsync(String jobClass, String schedule,
+            DispatchSpec spec) {
+        java.util.concurrent.CompletableFuture<Void> handle = new java.util.concurrent.CompletableFuture<>();
+        if (localMode) {
+            pipeline.execute(handle, () -> jobClass, ignored -> {
+                runLocalWithPermit(jobClass);
+                handle.complete(null);
+            });
+            return handle;
         }
-        streamLogs(jobClass);
-        monitorJob(jobClass);
-        dispatchLimiter.release();
+        pipeline.execute(handle, () -> renderCronJob(jobClass, schedule, spec), manifest ->
+                submitWithRetry(manifest, handle, 0, () -> handle.complete(null), handle::completeExceptionally));
+        return handle;
     }
 
     /**
@@ -292,207 +289,481 @@ public class KubeJobDispatcher {
      */
     public void dispatchJob(String jobClass, java.util.Map<String, Object> jobData) {
         if (localMode) {
-            boolean success = false;
             try {
-                dispatchLimiter.acquire();
+                runLocalWithPermit(jobClass);
             } catch (InterruptedException ie) {
                 Thread.currentThread().interrupt();
-                return;
-            }
-            try {
-                Class<?> clazz = Class.forName(jobClass);
-                Runnable job = (Runnable) clazz.getDeclaredConstructor().newInstance();
-                job.run();
-                Metrics.getInstance().recordSuccess();
-                success = true;
-            } catch (Exception e) {
-                Metrics.getInstance().recordFailure();
-                e.printStackTrace();
-            } finally {
-                streamLogs(jobClass);
-                notifyResult(jobClass, success);
-                dispatchLimiter.release();
             }
             return;
         }
 
-        try {
-            dispatchLimiter.acquire();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        DispatchSpec spec = DispatchSpec.of(jobData);
+        if (runWarm(jobClass, spec, new java.util.concurrent.CompletableFuture<>())) {
             return;
         }
-        String imageOverride = null;
-        String cpuOverride = null;
-        String memOverride = null;
-        Integer backoffOverride = null;
-        String templateFile = null;
-        String affinity = null;
-        String saOverride = null;
-        String extraContainers = null;
-        String volumes = null;
-        java.util.Map<String, String> env = null;
-        java.util.Map<String, String> labels = null;
-        java.util.Map<String, String> annotations = null;
-        if (jobData != null) {
-            if (jobData.containsKey("k8sImage")) {
-                Object v = jobData.get("k8sImage");
-                if (v != null) {
-                    imageOverride = v.toString();
-                }
-            }
-            if (jobData.containsKey("cpu")) {
-                Object v = jobData.get("cpu");
-                if (v != null) {
-                    cpuOverride = v.toString();
-                }
-            }
-            if (jobData.containsKey("memory")) {
-                Object v = jobData.get("memory");
-                if (v != null) {
-                    memOverride = v.toString();
-                }
-            }
-            if (jobData.containsKey("backoffLimit")) {
-                Object v = jobData.get("backoffLimit");
-                if (v != null) {
-                    try {
-                        backoffOverride = Integer.parseInt(v.toString());
-                    } catch (NumberFormatException ignored) { }
-                }
-            }
-            if (jobData.containsKey("env")) {
-                Object obj = jobData.get("env");
-                if (obj instanceof java.util.Map<?, ?> m) {
-                    env = new java.util.HashMap<>();
-                    for (java.util.Map.Entry<?, ?> e : m.entrySet()) {
-                        env.put(e.getKey().toString(), e.getValue().toString());
-                    }
-                }
-            }
-            if (jobData.containsKey("labels")) {
-                Object obj = jobData.get("labels");
-                if (obj instanceof java.util.Map<?, ?> m) {
-                    labels = new java.util.HashMap<>();
-                    for (java.util.Map.Entry<?, ?> e : m.entrySet()) {
-                        labels.put(e.getKey().toString(), e.getValue().toString());
+        String jobName = nextExecutionName(jobClass);
+        String manifest = templateBuilder.buildJob(jobName, jobClass, spec);
+        submitWithRetry(manifest, new java.util.concurrent.CompletableFuture<>(), 0, () -> {
+            followLogs(jobClass, jobName);
+            monitorJob(jobClass, jobName);
+        }, e -> {
+            e.printStackTrace();
+            notifyResult(jobClass, false);
+        });
+    }
+
+    /** Asynchronous variant of {@link #dispatchJob(String)}. */
+    public java.util.concurrent.CompletableFuture<Boolean> dispatchJobAsync(String jobClass) {
+        return dispatchJobAsync(jobClass, DispatchSpec.EMPTY);
+    }
+
+    /**
+     * Dispatches a job without blocking the caller. Rendering, API submission
+     * and completion tracking run on the dispatch pipeline, bounded by
+     * {@code DISPATCH_QUEUE_CAPACITY}. The returned handle completes with the
+     * job's outcome once its pod succeeded or failed; with watching disabled
+     * it completes with {@code true} as soon as the API server accepted the
+     * Job. Submission failures, including a full dispatch queue, complete it
+     * exceptionally. Cancelling the handle before submission skips the
+     * dispatch; afterwards it only stops completion tracking.
+     */
+    public java.util.concurrent.CompletableFuture<Boolean> dispatchJobAsync(String jobClass,
+            java.util.Map<String, Object> jobData) {
+        return dispatchJobAsync(jobClass, DispatchSpec.of(jobData));
+    }
+
+    /**
+     * Asynchronous Job dispatch with options compiled ahead of time, e.g.
+     * once per trigger, so the dispatch does no job data parsing.
+     */
+    public java.util.concurrent.CompletableFuture<Boolean> dispatchJobAsync(String jobClass, DispatchSpec spec) {
+        return dispatchJobAsync(jobClass, spec, nextFireInstanceId(), System.currentTimeMillis());
+    }
+
+    /**
+     * Asynchronous Job dispatch of one specific execution. The Job is named
+     * by {@link JobNames#executionName} from the class, {@code fireInstanceId}
+     * and {@code fireTimeMillis}, so executions of the same class run side by
+     * side, while submitting the same execution twice is rejected by the API
+     * server instead of starting a second Job.
+     */
+    public java.util.concurrent.CompletableFuture<Boolean> dispatchJobAsync(String jobClass, DispatchSpec spec,
+            String fireInstanceId, long fireTimeMillis) {
+        java.util.concurrent.CompletableFuture<Boolean> handle = new java.util.concurrent.CompletableFuture<>();
+        if (localMode) {
+            pipeline.execute(handle, () -> jobClass, ignored -> handle.complete(runLocalWithPermit(jobClass)));
+            return handle;
+        }
+        if (runWarm(jobClass, spec, handle)) {
+            return handle;
+        }
+        String jobName = JobNames.executionName(jobClass, fireInstanceId, fireTimeMillis);
+        pipeline.execute(handle, () -> templateBuilder.buildJob(jobName, jobClass, spec), manifest ->
+                submitWithRetry(manifest, handle, 0, () -> {
+                    followLogs(jobClass, jobName);
+                    if (useWatch) {
+                        watchCompletion(jobClass, jobName, handle);
+                    } else {
+                        handle.complete(true);
                     }
+                }, e -> {
+                    notifyResult(jobClass, false);
+                    handle.completeExceptionally(e);
+                }));
+        return handle;
+    }
+
+    /**
+     * Dispatches {@code completions} runs of a job as one Indexed Job instead
+     * of one Job per run: a single API object whose pods get indexes
+     * {@code 0..completions-1} (see {@link CompletionIndex}) and run at most
+     * {@code parallelism} at a time, or all at once when it is not positive.
+     * Listeners receive {@link JobResultListener#jobIndexFinished} per index.
+     * The handle completes with {@code true} once every index succeeded and
+     * {@code false} once all finished and any failed; with watching disabled
+     * it completes with {@code true} when the Job was accepted. In local mode
+     * the indexes run one after another in-process.
+     */
+    public java.util.concurrent.CompletableFuture<Boolean> dispatchIndexedJobAsync(String jobClass,
+            int completions, int parallelism, java.util.Map<String, Object> jobData) {
+        return dispatchIndexedJobAsync(jobClass, completions, parallelism, DispatchSpec.of(jobData));
+    }
+
+    /** Indexed Job dispatch with options compiled ahead of time. */
+    public java.util.concurrent.CompletableFuture<Boolean> dispatchIndexedJobAsync(String jobClass,
+            int completions, int parallelism, DispatchSpec spec) {
+        if (completions < 1) {
+            throw new IllegalArgumentException("completions must be positive: " + completions);
+        }
+        java.util.concurrent.CompletableFuture<Boolean> handle = new java.util.concurrent.CompletableFuture<>();
+        if (localMode) {
+            pipeline.execute(handle, () -> jobClass, ignored -> {
+                boolean success = true;
+                for (int i = 0; i < completions && !handle.isDone(); i++) {
+                    success &= runLocalWithPermit(jobClass, i, completions);
                 }
+                handle.complete(success);
+            });
+            return handle;
+        }
+        String jobName = nextExecutionName(jobClass);
+        pipeline.execute(handle, () -> templateBuilder.buildIndexedJob(jobName, jobClass, spec, completions,
+                parallelism), manifest -> {
+            if (useWatch) {
+                // registered before the create so no pod event is missed
+                podInformer.awaitIndexes(jobName, completions, templateBuilder.retriesPerIndex(spec),
+                        new PodInformer.IndexObserver() {
+                            @Override
+                            public void podStarted(String podName) {
+                                if (streamLogs) {
+                                    followPodLog(jobClass, podName);
+                                }
+                            }
+
+                            @Override
+                            public void indexFinished(int index, boolean success) {
+                                notifyIndexResult(jobClass, index, success);
+                            }
+                        }, handle);
             }
-            if (jobData.containsKey("annotations")) {
-                Object obj = jobData.get("annotations");
-                if (obj instanceof java.util.Map<?, ?> m) {
-                    annotations = new java.util.HashMap<>();
-                    for (java.util.Map.Entry<?, ?> e : m.entrySet()) {
-                        annotations.put(e.getKey().toString(), e.getValue().toString());
-                    }
+            submitWithRetry(manifest, handle, 0, () -> {
+                if (!useWatch) {
+                    handle.complete(true);
                 }
+            }, e -> {
+                notifyIndexResults(jobClass, completions, false);
+                handle.completeExceptionally(e);
+            });
+        });
+        return handle;
+    }
+
+    /** Dispatches accepted by the asynchronous API that have not been submitted yet. */
+    public int getDispatchBacklog() {
+        return pipeline.backlog();
+    }
+
+    /**
+     * Runs the job on an idle warm runner when the warm pool is enabled and
+     * the dispatch does not need a pod of its own. Returns {@code false} if
+     * the job must be dispatched as a Job instead.
+     */
+    private boolean runWarm(String jobClass, DispatchSpec spec, java.util.concurrent.CompletableFuture<Boolean> handle) {
+        if (warmPool == null || !WarmRunnerPool.accepts(spec)) {
+            return false;
+        }
+        java.util.concurrent.CompletableFuture<Boolean> run = new java.util.concurrent.CompletableFuture<>();
+        if (!warmPool.tryRun(jobClass, spec.env != null ? spec.env.get("JOB_DATA") : null,
+                streamLogs ? logHandler : null, run)) {
+            return false;
+        }
+        Metrics.getInstance().recordDispatch();
+        run.whenComplete((success, error) -> {
+            boolean ok = error == null && success;
+            if (ok) {
+                Metrics.getInstance().recordSuccess();
+            } else {
+                Metrics.getInstance().recordFailure();
             }
-            if (jobData.containsKey("serviceAccount")) {
-                Object v = jobData.get("serviceAccount");
-                if (v != null) {
-                    saOverride = v.toString();
-                }
+            notifyResult(jobClass, ok);
+            if (error != null) {
+                handle.completeExceptionally(error);
+            } else {
+                handle.complete(success);
             }
-            if (jobData.containsKey("templateFile")) {
-                Object v = jobData.get("templateFile");
-                if (v != null) {
-                    templateFile = v.toString();
-                }
+        });
+        return true;
+    }
+
+    private String nextFireInstanceId() {
+        return instanceId + "-" + executions.incrementAndGet();
+    }
+
+    private String nextExecutionName(String jobClass) {
+        return JobNames.executionName(jobClass, nextFireInstanceId(), System.currentTimeMillis());
+    }
+
+    /**
+     * Submits a rendered manifest, running {@code onSubmitted} once the API
+     * server accepted it. A transient failure (429, 5xx or an I/O error) is
+     * handed to the retry queue and the next attempt runs on a pipeline I/O
+     * thread, so a throttled dispatch is delayed rather than lost and the
+     * caller is not held up. A retry answered with 409 means an earlier
+     * attempt did create the object, since its name is fixed per execution,
+     * and counts as submitted. {@code onFailed} runs once the dispatch is
+     * given up. Nothing happens if {@code handle} completed or was cancelled
+     * meanwhile.
+     */
+    private void submitWithRetry(String manifest, java.util.concurrent.CompletableFuture<?> handle, int attempt,
+            Runnable onSubmitted, java.util.function.Consumer<Exception> onFailed) {
+        if (handle.isDone()) {
+            return;
+        }
+        if (attempt == 0) {
+            Metrics.getInstance().recordDispatch();
+        }
+        try {
+            submit(manifest);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handle.completeExceptionally(e);
+            return;
+        } catch (Exception e) {
+            if (attempt > 0 && ApiErrors.statusCode(e) == 409) {
+                onSubmitted.run();
+                return;
             }
-            if (jobData.containsKey("affinity")) {
-                Object v = jobData.get("affinity");
-                if (v != null) {
-                    affinity = v.toString();
+            boolean scheduled = retries.schedule(attempt, e, () -> {
+                try {
+                    pipeline.io().execute(() -> submitWithRetry(manifest, handle, attempt + 1, onSubmitted, onFailed));
+                } catch (java.util.concurrent.RejectedExecutionException rejected) {
+                    Metrics.getInstance().recordFailure();
+                    onFailed.accept(rejected);
                 }
+            });
+            if (!scheduled) {
+                Metrics.getInstance().recordFailure();
+                onFailed.accept(e);
             }
+            return;
         }
+        onSubmitted.run();
+    }
 
-        String manifest;
-        if (templateFile != null) {
-            manifest = templateBuilder.buildTemplateFromFile(jobClass, templateFile, imageOverride, cpuOverride, memOverride, backoffOverride, env, labels, annotations, affinity, saOverride, extraContainers, volumes);
-        } else {
-            manifest = templateBuilder.buildTemplate(jobClass, imageOverride, cpuOverride, memOverride, backoffOverride, env, labels, annotations, affinity, saOverride);
-        }
-        boolean submitted = false;
+    /**
+     * Submits a rendered manifest while holding a dispatch slot, and reports
+     * the create's latency and any 429 or 5xx response back to the limiter.
+     * Asynchronous dispatches call this on a pipeline I/O thread, so the
+     * limit bounds them as well.
+     */
+    private void submit(String manifest) throws Exception {
+        dispatchLimiter.acquire();
+        long start = System.nanoTime();
+        boolean overloaded = false;
         try {
             apiService.create(manifest);
             Metrics.getInstance().recordSuccess();
-            submitted = true;
+        } catch (Exception e) {
+            overloaded = ApiErrors.isOverload(e);
+            throw e;
+        } finally {
+            dispatchLimiter.release(System.nanoTime() - start, overloaded);
+        }
+    }
+
+    /** Builds the CronJob manifest for a dispatch from its compiled options. */
+    private String renderCronJob(String jobClass, String schedule, DispatchSpec spec) {
+        if (spec.cronTemplateFile != null) {
+            return templateBuilder.buildCronJobTemplateFromFile(jobClass, schedule, spec.cronTemplateFile, spec.image,
+                    spec.cpu, spec.memory, spec.backoffLimit, spec.env, spec.timeZone, spec.labels, spec.annotations,
+                    spec.affinity, spec.serviceAccount, spec.extraContainers, spec.volumes);
+        }
+        return templateBuilder.buildCronJobTemplate(jobClass, schedule, spec.image, spec.cpu, spec.memory,
+                spec.backoffLimit, spec.env, spec.timeZone, spec.labels, spec.annotations, spec.affinity,
+                spec.serviceAccount);
+    }
+
+    /** Runs a local mode job while holding a dispatch permit. */
+    private boolean runLocalWithPermit(String jobClass) throws InterruptedException {
+        return runLocalWithPermit(jobClass, -1, -1);
+    }
+
+    /** Runs one index of a local mode job, or the job itself for index -1. */
+    private boolean runLocalWithPermit(String jobClass, int index, int completions) throws InterruptedException {
+        dispatchLimiter.acquire();
+        try {
+            return runLocal(jobClass, index, completions);
+        } finally {
+            dispatchLimiter.release();
+        }
+    }
+
+    /** Runs a job in-process for local mode and returns whether it succeeded. */
+    private boolean runLocal(String jobClass, int index, int completions) {
+        Metrics.getInstance().recordDispatch();
+        boolean success = false;
+        if (index >= 0) {
+            CompletionIndex.set(index, completions);
+        }
+        try {
+            Class<?> clazz = localClasses.get(jobClass);
+            if (clazz == null) {
+                clazz = Class.forName(jobClass);
+                localClasses.put(jobClass, clazz);
+            }
+            Object job = jobFactory.newJob(clazz);
+            if (job instanceof Runnable runnable) {
+                runnable.run();
+            } else if (job instanceof org.quartz.Job qjob) {
+                qjob.execute(null);
+            } else {
+                throw new IllegalArgumentException("Job class does not implement Runnable or Job");
+            }
+            Metrics.getInstance().recordSuccess();
+            success = true;
         } catch (Exception e) {
             Metrics.getInstance().recordFailure();
             e.printStackTrace();
-        }
-        if (submitted) {
+        } finally {
+            CompletionIndex.clear();
             streamLogs(jobClass);
-            monitorJob(jobClass);
-        } else {
-            notifyResult(jobClass, false);
+            if (index >= 0) {
+                notifyIndexResult(jobClass, index, success);
+            } else {
+                notifyResult(jobClass, success);
+            }
         }
-        dispatchLimiter.release();
+        return success;
     }
 
     /**
-     * Stream logs for the pod created by the given job class. This makes a
-     * simple GET request to the Kubernetes API and prints the response body.
+     * Reads the log the local pod of the given job class has written so far
+     * and passes it to the log handler line by line.
      */
     private void streamLogs(String jobClass) {
         if (!streamLogs) {
             return;
         }
         String podName = jobClass.toLowerCase();
+        try (java.io.InputStream in = apiService.streamPodLog(podName, false)) {
+            PodLogReader.pump(in, jobClass, logHandler);
+        } catch (Exception e) {
+            logHandler.handle(jobClass, "Failed to stream logs: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Follows the log of the submitted Job {@code jobName}. With watching
+     * enabled the stream is opened on a log follower thread once the pod
+     * informer reports the container running, so output is read as it is
+     * written; otherwise the Job's pods are looked up by their
+     * {@code job-name} label and the log written so far is read immediately.
+     */
+    private void followLogs(String jobClass, String jobName) {
+        if (!streamLogs) {
+            return;
+        }
+        if (!useWatch) {
+            try {
+                for (String podName : apiService.listPodNames(PodInformer.JOB_NAME_LABEL + "=" + jobName)) {
+                    try (java.io.InputStream in = apiService.streamPodLog(podName, false)) {
+                        PodLogReader.pump(in, jobClass, logHandler);
+                    }
+                }
+            } catch (Exception e) {
+                logHandler.handle(jobClass, "Failed to stream logs: " + e.getMessage());
+            }
+            return;
+        }
+        podInformer.whenStarted(jobName, podName -> followPodLog(jobClass, podName));
+    }
+
+    /**
+     * Follows a started pod's log on a log follower thread, or drops the
+     * follow and counts it when every thread is busy and the queue is full.
+     */
+    private void followPodLog(String jobClass, String podName) {
         try {
-            String logs = apiService.readPodLog(podName);
-            for (String line : logs.split("\r?\n")) {
-                if (!line.isEmpty()) logHandler.handle(jobClass, line);
+            logFollowers.execute(() -> followLog(jobClass, podName));
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            if (logFollowers.isShutdown()) {
+                return;
             }
+            Metrics.getInstance().recordDroppedLogFollow();
+            logHandler.handle(jobClass, "Not streaming logs of " + podName + ": too many logs followed at once");
+        }
+    }
+
+    private void followLog(String jobClass, String podName) {
+        try (java.io.InputStream in = apiService.streamPodLog(podName, true)) {
+            PodLogReader.pump(in, jobClass, logHandler);
         } catch (Exception e) {
             logHandler.handle(jobClass, "Failed to stream logs: " + e.getMessage());
         }
     }
 
-    /** Watch the pod for completion and notify listeners. */
-    private void monitorJob(String jobClass) {
+    /** Watch the Job's pod for completion and notify listeners. */
+    private void monitorJob(String jobClass, String jobName) {
         if (!useWatch || localMode) {
             return;
         }
-        String podName = jobClass.toLowerCase();
-        Thread t = new Thread(() -> {
-            java.util.concurrent.CountDownLatch latch = new java.util.concurrent.CountDownLatch(1);
-            final io.fabric8.kubernetes.client.Watch watch = apiService.watchPod(
-                    podName,
-                    new io.fabric8.kubernetes.client.Watcher<io.fabric8.kubernetes.api.model.Pod>() {
-                        @Override
-                        public void eventReceived(Action action, io.fabric8.kubernetes.api.model.Pod pod) {
-                            String phase = pod.getStatus() != null ? pod.getStatus().getPhase() : null;
-                            if ("Succeeded".equals(phase)) {
-                                notifyResult(jobClass, true);
-                                latch.countDown();
-                            } else if ("Failed".equals(phase)) {
-                                notifyResult(jobClass, false);
-                                latch.countDown();
-                            }
-                        }
+        watchCompletion(jobClass, jobName, new java.util.concurrent.CompletableFuture<>());
+    }
 
-                        @Override
-                        public void onClose(io.fabric8.kubernetes.client.WatcherException e) {
-                            latch.countDown();
-                        }
-                    });
-            try {
-                latch.await();
-            } catch (InterruptedException ignored) {}
-            watch.close();
-        });
-        t.setDaemon(true);
-        t.start();
+    /**
+     * Completes {@code handle} with the pod's outcome through the shared pod
+     * informer and notifies listeners. Cancelling the handle only removes it
+     * from the informer's routing table.
+     */
+    private void watchCompletion(String jobClass, String jobName,
+            java.util.concurrent.CompletableFuture<Boolean> handle) {
+        handle.thenAccept(success -> notifyResult(jobClass, success));
+        podInformer.await(jobName, handle);
     }
 
     private void notifyResult(String jobClass, boolean success) {
-        for (JobResultListener l : listeners) {
-            try {
-                l.jobFinished(jobClass, success);
-            } catch (Exception ignore) {}
+        if (listeners.isEmpty()) {
+            return;
+        }
+        events.publish(() -> {
+            for (JobResultListener l : listeners) {
+                try {
+                    l.jobFinished(jobClass, success);
+                } catch (Exception ignore) {}
+            }
+        });
+    }
+
+    private void notifyIndexResult(String jobClass, int index, boolean success) {
+        if (listeners.isEmpty()) {
+            return;
         }
+        events.publish(() -> {
+            for (JobResultListener l : listeners) {
+                try {
+                    l.jobIndexFinished(jobClass, index, success);
+                } catch (Exception ignore) {}
+            }
+        });
+    }
+
+    /** Reports every index of an Indexed Job with one event, e.g. when it could not be created. */
+    private void notifyIndexResults(String jobClass, int completions, boolean success) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        events.publish(() -> {
+            for (int i = 0; i < completions; i++) {
+                for (JobResultListener l : listeners) {
+                    try {
+                        l.jobIndexFinished(jobClass, i, success);
+                    } catch (Exception ignore) {}
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops the dispatcher's threads: the dispatch pipeline, pending retries,
+     * the pod watch, log followers and listener delivery. Dispatches not
+     * submitted yet are abandoned.
+     */
+    public void close() {
+        pipeline.shutdown();
+        retries.shutdown();
+        podInformer.close();
+        logFollowers.shutdownNow();
+        if (warmPool != null) {
+            warmPool.close();
+        }
+        events.shutdown();
+    }
+
+    /**
+     * Waits until job result notifications published so far have reached the
+     * listeners. Returns false if the timeout elapsed first.
+     */
+    public boolean awaitListenerDelivery(long timeoutMillis) {
+        return events.awaitDelivery(timeoutMillis);
     }
 }
@@ -15,6 +15,23 @@ public interface KubernetesApiService {
     /** Fetch logs for the given pod in the configured namespace. */
     String readPodLog(String podName) throws Exception;
 
+    /**
+     * Open the log of the given pod as a stream. With {@code follow} the
+     * stream stays open and delivers new output until the container exits;
+     * closing it stops following.
+     */
+    java.io.InputStream streamPodLog(String podName, boolean follow) throws Exception;
+
     /** Watch the specified pod and forward events to the given watcher. */
     Watch watchPod(String podName, Watcher<Pod> watcher);
+
+    /**
+     * Watch every pod in the configured namespace matching the label selector,
+     * e.g. {@code job-name} or {@code app=demo}, and forward events to the
+     * given watcher.
+     */
+    Watch watchPods(String labelSelector, Watcher<Pod> watcher);
+
+    /** Names of the pods in the configured namespace matching the label selector. */
+    java.util.List<String> listPodNames(String labelSelector) throws Exception;
 }
@@ -0,0 +1,83 @@
+package com.quartzkube.core;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram in milliseconds. Recording only touches
+ * striped adders so it is cheap to call from many worker threads; bucket
+ * bounds follow the Prometheus convention of cumulative upper limits.
+ */
+public final class LatencyHistogram {
+    private static final double[] BOUNDS = {
+            0.5, 1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /** Records one observation in milliseconds. */
+    public void record(double millis) {
+        int i = 0;
+        while (i < BOUNDS.length && millis > BOUNDS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        count.increment();
+        sum.add(millis);
+    }
+
+    /** Upper bounds of the finite buckets in milliseconds. */
+    public static double[] bounds() {
+        return BOUNDS.clone();
+    }
+
+    /**
+     * Cumulative counts per bucket; the last element is the +Inf bucket and
+     * equals the total count at the time of the snapshot.
+     */
+    public long[] cumulativeCounts() {
+        long[] out = new long[buckets.length];
+        long running = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            running += buckets[i].sum();
+            out[i] = running;
+        }
+        return out;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSumMillis() {
+        return sum.sum();
+    }
+
+    /**
+     * Estimates the given quantile (0-1) as the upper bound of the bucket
+     * containing it. Returns 0 when nothing was recorded and
+     * {@code Double.POSITIVE_INFINITY} when it falls past the last bound.
+     */
+    public double quantile(double q) {
+        long[] counts = cumulativeCounts();
+        long total = counts[counts.length - 1];
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(q * total);
+        for (int i = 0; i < BOUNDS.length; i++) {
+            if (counts[i] >= rank) {
+                return BOUNDS[i];
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,126 @@
+package com.quartzkube.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded ring buffer that delivers listener callbacks on a single consumer
+ * thread. Publishers claim a slot with one CAS and never block: when the ring
+ * is full the event is dropped and counted. Only the consumer thread advances
+ * the read index and invokes listeners, draining events in batches so a slow
+ * listener delays other listeners but never the publishing job threads.
+ */
+final class ListenerEventBus {
+    private static final int BATCH_SIZE = 256;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Runnable> buffer;
+    private final AtomicLongArray publishedAt;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final long lagThresholdNanos;
+    private final Thread consumer;
+    private volatile long consumerIndex;
+    private volatile boolean parked;
+    private volatile boolean running = true;
+
+    ListenerEventBus(String name, int capacity, long lagThresholdMillis) {
+        int cap = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.capacity = cap;
+        this.mask = cap - 1;
+        this.buffer = new AtomicReferenceArray<>(cap);
+        this.publishedAt = new AtomicLongArray(cap);
+        this.lagThresholdNanos = TimeUnit.MILLISECONDS.toNanos(lagThresholdMillis);
+        this.consumer = new Thread(this::consume, name);
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /** Queues an event for delivery. Returns false if it was dropped. */
+    boolean publish(Runnable event) {
+        long p;
+        do {
+            p = producerIndex.get();
+            if (p - consumerIndex >= capacity || !running) {
+                Metrics.getInstance().recordDroppedEvent();
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(p, p + 1));
+        int slot = (int) (p & mask);
+        publishedAt.set(slot, System.nanoTime());
+        buffer.set(slot, event);
+        Metrics.getInstance().adjustEventBacklog(1);
+        if (parked) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /** Number of events published but not yet delivered. */
+    long backlog() {
+        return producerIndex.get() - consumerIndex;
+    }
+
+    /** Waits until every event published so far has been delivered. */
+    boolean awaitDelivery(long timeoutMillis) {
+        long target = producerIndex.get();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (consumerIndex < target) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    /** Stops the consumer after delivering what is already queued. */
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(consumer);
+    }
+
+    private void consume() {
+        while (true) {
+            long c = consumerIndex;
+            int delivered = 0;
+            while (delivered < BATCH_SIZE) {
+                int slot = (int) (c & mask);
+                Runnable event = buffer.get(slot);
+                if (event == null) {
+                    break;
+                }
+                long lag = System.nanoTime() - publishedAt.get(slot);
+                buffer.set(slot, null);
+                if (lag > lagThresholdNanos) {
+                    Metrics.getInstance().recordLaggingEvent();
+                }
+                try {
+                    event.run();
+                } catch (Exception ignore) {}
+                consumerIndex = ++c;
+                delivered++;
+            }
+            if (delivered > 0) {
+                Metrics.getInstance().adjustEventBacklog(-delivered);
+                continue;
+            }
+            if (producerIndex.get() != c) {
+                // a slot was claimed but its event is not visible yet
+                Thread.onSpinWait();
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+            parked = true;
+            if (producerIndex.get() == c) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            }
+            parked = false;
+        }
+    }
+}
@@ -13,8 +13,38 @@ public final class Metrics implements MetricsMBean {
 
     private final AtomicInteger successCount = new AtomicInteger();
     private final AtomicInteger failureCount = new AtomicInteger();
+    private final AtomicInteger timeoutCount = new AtomicInteger();
     private final java.util.concurrent.atomic.AtomicLong totalDuration = new java.util.concurrent.atomic.AtomicLong();
     private final AtomicInteger durationSamples = new AtomicInteger();
+    private final AtomicInteger pendingFires = new AtomicInteger();
+    private final AtomicInteger droppedFires = new AtomicInteger();
+    private final AtomicInteger coalescedFires = new AtomicInteger();
+    private final java.util.concurrent.atomic.AtomicLong eventBacklog = new java.util.concurrent.atomic.AtomicLong();
+    private final java.util.concurrent.atomic.AtomicLong droppedEvents = new java.util.concurrent.atomic.AtomicLong();
+    private final java.util.concurrent.atomic.AtomicLong laggingEvents = new java.util.concurrent.atomic.AtomicLong();
+    private final java.util.concurrent.atomic.AtomicLong recoveryMillis = new java.util.concurrent.atomic.AtomicLong();
+    private final java.util.concurrent.atomic.AtomicLong recoveredJobs = new java.util.concurrent.atomic.AtomicLong();
+    private final AtomicInteger workerPoolSize = new AtomicInteger();
+    private final java.util.concurrent.atomic.AtomicLong workerPoolGrows = new java.util.concurrent.atomic.AtomicLong();
+    private final java.util.concurrent.atomic.AtomicLong workerPoolShrinks = new java.util.concurrent.atomic.AtomicLong();
+    private final AtomicInteger dispatchLimit = new AtomicInteger();
+    private final AtomicInteger dispatchesInFlight = new AtomicInteger();
+    private final AtomicInteger dispatchWaiters = new AtomicInteger();
+    private final java.util.concurrent.atomic.AtomicLong apiThrottles = new java.util.concurrent.atomic.AtomicLong();
+    private final java.util.concurrent.atomic.AtomicLong apiThrottleMillis = new java.util.concurrent.atomic.AtomicLong();
+    private final java.util.concurrent.atomic.AtomicLong dispatchRetries = new java.util.concurrent.atomic.AtomicLong();
+    private final java.util.concurrent.atomic.AtomicLong dispatchRetryDelayMillis = new java.util.concurrent.atomic.AtomicLong();
+    private final java.util.concurrent.atomic.AtomicLong dispatchRetriesExhausted = new java.util.concurrent.atomic.AtomicLong();
+    private final AtomicInteger dispatchRetryQueue = new AtomicInteger();
+    private final java.util.concurrent.atomic.AtomicLong warmRuns = new java.util.concurrent.atomic.AtomicLong();
+    private final java.util.concurrent.atomic.AtomicLong warmFallbacks = new java.util.concurrent.atomic.AtomicLong();
+    private final java.util.concurrent.atomic.AtomicLong warmRecycles = new java.util.concurrent.atomic.AtomicLong();
+    private final AtomicInteger warmIdle = new AtomicInteger();
+    private final java.util.concurrent.atomic.AtomicLong droppedLogFollows = new java.util.concurrent.atomic.AtomicLong();
+    private final RateMeter triggerFires = new RateMeter();
+    private final RateMeter dispatches = new RateMeter();
+    private final java.util.concurrent.ConcurrentHashMap<String, LatencyHistogram> queueWait = new java.util.concurrent.ConcurrentHashMap<>();
+    private final java.util.concurrent.ConcurrentHashMap<String, LatencyHistogram> fireLag = new java.util.concurrent.ConcurrentHashMap<>();
 
     private Metrics() {}
 
@@ -50,12 +80,166 @@ public final class Metrics implements MetricsMBean {
         failureCount.incrementAndGet();
     }
 
+    /** Record an in-process job execution that overran its timeout. */
+    public void recordTimeout() {
+        timeoutCount.incrementAndGet();
+    }
+
     /** Record the duration of a job execution in milliseconds. */
     public void recordDuration(long millis) {
         totalDuration.addAndGet(millis);
         durationSamples.incrementAndGet();
     }
 
+    /** Adjust the number of fires waiting behind a running non-concurrent job. */
+    public void adjustPendingFires(int delta) {
+        pendingFires.addAndGet(delta);
+    }
+
+    /** Record a fire discarded by a non-concurrent job's policy or queue limit. */
+    public void recordDroppedFire() {
+        droppedFires.incrementAndGet();
+    }
+
+    /** Record a pending fire replaced by a newer one. */
+    public void recordCoalescedFire() {
+        coalescedFires.incrementAndGet();
+    }
+
+    /** Adjust the number of listener events waiting for delivery. */
+    public void adjustEventBacklog(long delta) {
+        eventBacklog.addAndGet(delta);
+    }
+
+    /** Record a listener event dropped because the event bus was full. */
+    public void recordDroppedEvent() {
+        droppedEvents.incrementAndGet();
+    }
+
+    /** Record a listener event delivered later than the lag threshold. */
+    public void recordLaggingEvent() {
+        laggingEvents.incrementAndGet();
+    }
+
+    /** Record a trigger fire handed to the worker pool. */
+    public void recordTriggerFire() {
+        triggerFires.record();
+    }
+
+    /** Record a job dispatch issued by {@link KubeJobDispatcher}. */
+    public void recordDispatch() {
+        dispatches.record();
+    }
+
+    /** Record how long the last scheduler start took to become ready and how many jobs it recovered. */
+    public void recordRecovery(long millis, long jobs) {
+        recoveryMillis.set(millis);
+        recoveredJobs.set(jobs);
+    }
+
+    /** Update the number of worker threads an {@link AdaptiveWorkerPool} is sized to. */
+    public void setWorkerPoolSize(int size) {
+        workerPoolSize.set(size);
+    }
+
+    /** Record a resize decision of an {@link AdaptiveWorkerPool}. */
+    public void recordWorkerPoolResize(boolean grow) {
+        (grow ? workerPoolGrows : workerPoolShrinks).incrementAndGet();
+    }
+
+    /** Update the number of API creates the dispatcher lets run at once; 0 means unlimited. */
+    public void setDispatchLimit(int limit) {
+        dispatchLimit.set(limit);
+    }
+
+    /** Adjust the number of API creates currently in flight. */
+    public void adjustDispatchInFlight(int delta) {
+        dispatchesInFlight.addAndGet(delta);
+    }
+
+    /** Adjust the number of dispatches waiting for the concurrency limiter. */
+    public void adjustDispatchWaiters(int delta) {
+        dispatchWaiters.addAndGet(delta);
+    }
+
+    /** Record an API call held back by the client-side rate limiter for the given time. */
+    public void recordApiThrottle(long millis) {
+        apiThrottles.incrementAndGet();
+        apiThrottleMillis.addAndGet(millis);
+    }
+
+    /** Record a failed submission scheduled for retry after the given delay. */
+    public void recordDispatchRetry(long delayMillis) {
+        dispatchRetries.incrementAndGet();
+        dispatchRetryDelayMillis.addAndGet(delayMillis);
+    }
+
+    /** Record a transient submission failure given up because retries ran out or the retry queue was full. */
+    public void recordDispatchRetryExhausted() {
+        dispatchRetriesExhausted.incrementAndGet();
+    }
+
+    /** Adjust the number of submissions waiting in the retry queue. */
+    public void adjustDispatchRetryQueue(int delta) {
+        dispatchRetryQueue.addAndGet(delta);
+    }
+
+    /** Record a job handed to a warm runner instead of a new pod. */
+    public void recordWarmRun() {
+        warmRuns.incrementAndGet();
+    }
+
+    /** Record a job dispatched as a Job because no warm runner was idle. */
+    public void recordWarmFallback() {
+        warmFallbacks.incrementAndGet();
+    }
+
+    /** Record a warm runner retired after its last allowed run or a failed health check. */
+    public void recordWarmRecycle() {
+        warmRecycles.incrementAndGet();
+    }
+
+    /** Adjust the number of idle warm runners. */
+    public void adjustWarmIdle(int delta) {
+        warmIdle.addAndGet(delta);
+    }
+
+    /** Record a pod log not followed because the log follower queue was full. */
+    public void recordDroppedLogFollow() {
+        droppedLogFollows.incrementAndGet();
+    }
+
+    /** Record how long a ready fire of the given job group waited for a worker. */
+    public void recordQueueWait(String group, double millis) {
+        LatencyHistogram h = queueWait.get(group);
+        if (h == null) {
+            h = queueWait.computeIfAbsent(group, g -> new LatencyHistogram());
+        }
+        h.record(millis);
+    }
+
+    /**
+     * Record how late a timed fire of the given job group started running
+     * compared with the time its trigger was due.
+     */
+    public void recordFireLag(String group, double millis) {
+        LatencyHistogram h = fireLag.get(group);
+        if (h == null) {
+            h = fireLag.computeIfAbsent(group, g -> new LatencyHistogram());
+        }
+        h.record(millis);
+    }
+
+    /** Per job group histograms of the delay between a trigger's due time and its job starting. */
+    public java.util.Map<String, LatencyHistogram> getFireLagHistograms() {
+        return java.util.Collections.unmodifiableMap(fireLag);
+    }
+
+    /** Per job group histograms of the time ready fires waited for a worker. */
+    public java.util.Map<String, LatencyHistogram> getQueueWaitHistograms() {
+        return java.util.Collections.unmodifiableMap(queueWait);
+    }
+
     @Override
     public int getSuccessCount() {
         return successCount.get();
@@ -66,6 +250,11 @@ public final class Metrics implements MetricsMBean {
         return failureCount.get();
     }
 
+    @Override
+    public int getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
     @Override
     public long getTotalDurationMillis() {
         return totalDuration.get();
@@ -80,10 +269,188 @@ public final class Metrics implements MetricsMBean {
         return totalDuration.get() / (double) samples;
     }
 
+    @Override
+    public int getPendingFires() {
+        return pendingFires.get();
+    }
+
+    @Override
+    public int getDroppedFires() {
+        return droppedFires.get();
+    }
+
+    @Override
+    public int getCoalescedFires() {
+        return coalescedFires.get();
+    }
+
+    @Override
+    public long getEventBacklog() {
+        return eventBacklog.get();
+    }
+
+    @Override
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    @Override
+    public long getLaggingEvents() {
+        return laggingEvents.get();
+    }
+
+    @Override
+    public long getRecoveryMillis() {
+        return recoveryMillis.get();
+    }
+
+    @Override
+    public long getRecoveredJobs() {
+        return recoveredJobs.get();
+    }
+
+    @Override
+    public long getTriggerFires() {
+        return triggerFires.total();
+    }
+
+    @Override
+    public long getTriggerFireRate() {
+        return triggerFires.lastSecond();
+    }
+
+    @Override
+    public long getPeakTriggerFireRate() {
+        return triggerFires.peak();
+    }
+
+    @Override
+    public long getDispatches() {
+        return dispatches.total();
+    }
+
+    @Override
+    public long getDispatchRate() {
+        return dispatches.lastSecond();
+    }
+
+    @Override
+    public long getPeakDispatchRate() {
+        return dispatches.peak();
+    }
+
+    @Override
+    public int getWorkerPoolSize() {
+        return workerPoolSize.get();
+    }
+
+    @Override
+    public long getWorkerPoolGrows() {
+        return workerPoolGrows.get();
+    }
+
+    @Override
+    public long getWorkerPoolShrinks() {
+        return workerPoolShrinks.get();
+    }
+
+    @Override
+    public int getDispatchLimit() {
+        return dispatchLimit.get();
+    }
+
+    @Override
+    public int getDispatchesInFlight() {
+        return dispatchesInFlight.get();
+    }
+
+    @Override
+    public int getDispatchWaiters() {
+        return dispatchWaiters.get();
+    }
+
+    @Override
+    public long getApiThrottles() {
+        return apiThrottles.get();
+    }
+
+    @Override
+    public long getApiThrottleMillis() {
+        return apiThrottleMillis.get();
+    }
+
+    @Override
+    public long getDispatchRetries() {
+        return dispatchRetries.get();
+    }
+
+    @Override
+    public long getDispatchRetryDelayMillis() {
+        return dispatchRetryDelayMillis.get();
+    }
+
+    @Override
+    public long getDispatchRetriesExhausted() {
+        return dispatchRetriesExhausted.get();
+    }
+
+    @Override
+    public int getDispatchRetryQueue() {
+        return dispatchRetryQueue.get();
+    }
+
+    @Override
+    public long getWarmRuns() {
+        return warmRuns.get();
+    }
+
+    @Override
+    public long getWarmFallbacks() {
+        return warmFallbacks.get();
+    }
+
+    @Override
+    public long getWarmRecycles() {
+        return warmRecycles.get();
+    }
+
+    @Override
+    public int getWarmIdle() {
+        return warmIdle.get();
+    }
+
+    @Override
+    public long getDroppedLogFollows() {
+        return droppedLogFollows.get();
+    }
+
     static void reset() {
         INSTANCE.successCount.set(0);
         INSTANCE.failureCount.set(0);
+        INSTANCE.timeoutCount.set(0);
         INSTANCE.totalDuration.set(0);
         INSTANCE.durationSamples.set(0);
+        INSTANCE.pendingFires.set(0);
+        INSTANCE.droppedFires.set(0);
+        INSTANCE.coalescedFires.set(0);
+        INSTANCE.droppedEvents.set(0);
+        INSTANCE.laggingEvents.set(0);
+        INSTANCE.recoveryMillis.set(0);
+        INSTANCE.recoveredJobs.set(0);
+        INSTANCE.workerPoolGrows.set(0);
+        INSTANCE.workerPoolShrinks.set(0);
+        INSTANCE.apiThrottles.set(0);
+        INSTANCE.apiThrottleMillis.set(0);
+        INSTANCE.dispatchRetries.set(0);
+        INSTANCE.dispatchRetryDelayMillis.set(0);
+        INSTANCE.dispatchRetriesExhausted.set(0);
+        INSTANCE.warmRuns.set(0);
+        INSTANCE.warmFallbacks.set(0);
+        INSTANCE.warmRecycles.set(0);
+        INSTANCE.droppedLogFollows.set(0);
+        INSTANCE.triggerFires.reset();
+        INSTANCE.dispatches.reset();
+        INSTANCE.queueWait.clear();
+        INSTANCE.fireLag.clear();
     }
 }
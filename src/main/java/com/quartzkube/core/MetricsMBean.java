@@ -6,6 +6,38 @@ package com.quartzkube.core;
 public interface MetricsMBean {
     int getSuccessCount();
     int getFailureCount();
+    int getTimeoutCount();
     long getTotalDurationMillis();
     double getAverageDurationMillis();
+    int getPendingFires();
+    int getDroppedFires();
+    int getCoalescedFires();
+    long getEventBacklog();
+    long getDroppedEvents();
+    long getLaggingEvents();
+    long getRecoveryMillis();
+    long getRecoveredJobs();
+    long getTriggerFires();
+    long getTriggerFireRate();
+    long getPeakTriggerFireRate();
+    long getDispatches();
+    long getDispatchRate();
+    long getPeakDispatchRate();
+    int getWorkerPoolSize();
+    long getWorkerPoolGrows();
+    long getWorkerPoolShrinks();
+    int getDispatchLimit();
+    int getDispatchesInFlight();
+    int getDispatchWaiters();
+    long getApiThrottles();
+    long getApiThrottleMillis();
+    long getDispatchRetries();
+    long getDispatchRetryDelayMillis();
+    long getDispatchRetriesExhausted();
+    int getDispatchRetryQueue();
+    long getWarmRuns();
+    long getWarmFallbacks();
+    long getWarmRecycles();
+    int getWarmIdle();
+    long getDroppedLogFollows();
 }
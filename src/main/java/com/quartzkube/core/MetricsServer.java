@@ -72,12 +72,126 @@ public final class MetricsServer {
         sb.append("# HELP quartzkube_job_failure_total Number of failed job executions\n");
         sb.append("# TYPE quartzkube_job_failure_total counter\n");
         sb.append("quartzkube_job_failure_total ").append(m.getFailureCount()).append('\n');
+        sb.append("# HELP quartzkube_job_timeout_total Number of in-process job executions interrupted by their timeout\n");
+        sb.append("# TYPE quartzkube_job_timeout_total counter\n");
+        sb.append("quartzkube_job_timeout_total ").append(m.getTimeoutCount()).append('\n');
         sb.append("# HELP quartzkube_job_duration_millis_total Total time spent running jobs in milliseconds\n");
         sb.append("# TYPE quartzkube_job_duration_millis_total counter\n");
         sb.append("quartzkube_job_duration_millis_total ").append(m.getTotalDurationMillis()).append('\n');
         sb.append("# HELP quartzkube_job_duration_millis_avg Average job execution time in milliseconds\n");
         sb.append("# TYPE quartzkube_job_duration_millis_avg gauge\n");
         sb.append("quartzkube_job_duration_millis_avg ").append(m.getAverageDurationMillis()).append('\n');
+        sb.append("# HELP quartzkube_pending_fires Fires queued behind running non-concurrent jobs\n");
+        sb.append("# TYPE quartzkube_pending_fires gauge\n");
+        sb.append("quartzkube_pending_fires ").append(m.getPendingFires()).append('\n');
+        sb.append("# HELP quartzkube_dropped_fires_total Fires discarded by non-concurrent policies or queue limits\n");
+        sb.append("# TYPE quartzkube_dropped_fires_total counter\n");
+        sb.append("quartzkube_dropped_fires_total ").append(m.getDroppedFires()).append('\n');
+        sb.append("# HELP quartzkube_coalesced_fires_total Pending fires replaced by a newer fire\n");
+        sb.append("# TYPE quartzkube_coalesced_fires_total counter\n");
+        sb.append("quartzkube_coalesced_fires_total ").append(m.getCoalescedFires()).append('\n');
+        sb.append("# HELP quartzkube_listener_event_backlog Listener events waiting for delivery\n");
+        sb.append("# TYPE quartzkube_listener_event_backlog gauge\n");
+        sb.append("quartzkube_listener_event_backlog ").append(m.getEventBacklog()).append('\n');
+        sb.append("# HELP quartzkube_listener_events_dropped_total Listener events dropped because the event bus was full\n");
+        sb.append("# TYPE quartzkube_listener_events_dropped_total counter\n");
+        sb.append("quartzkube_listener_events_dropped_total ").append(m.getDroppedEvents()).append('\n');
+        sb.append("# HELP quartzkube_listener_events_lagging_total Listener events delivered later than the lag threshold\n");
+        sb.append("# TYPE quartzkube_listener_events_lagging_total counter\n");
+        sb.append("quartzkube_listener_events_lagging_total ").append(m.getLaggingEvents()).append('\n');
+        sb.append("# HELP quartzkube_recovery_duration_millis Time the last scheduler start took to recover persisted jobs and become ready\n");
+        sb.append("# TYPE quartzkube_recovery_duration_millis gauge\n");
+        sb.append("quartzkube_recovery_duration_millis ").append(m.getRecoveryMillis()).append('\n');
+        sb.append("# HELP quartzkube_recovered_jobs Persisted jobs re-armed by the last scheduler start\n");
+        sb.append("# TYPE quartzkube_recovered_jobs gauge\n");
+        sb.append("quartzkube_recovered_jobs ").append(m.getRecoveredJobs()).append('\n');
+        sb.append("# HELP quartzkube_trigger_fires_total Trigger fires handed to the worker pool\n");
+        sb.append("# TYPE quartzkube_trigger_fires_total counter\n");
+        sb.append("quartzkube_trigger_fires_total ").append(m.getTriggerFires()).append('\n');
+        sb.append("# HELP quartzkube_trigger_fires_peak_per_second Most trigger fires seen within one second\n");
+        sb.append("# TYPE quartzkube_trigger_fires_peak_per_second gauge\n");
+        sb.append("quartzkube_trigger_fires_peak_per_second ").append(m.getPeakTriggerFireRate()).append('\n');
+        sb.append("# HELP quartzkube_dispatches_total Jobs dispatched by KubeJobDispatcher\n");
+        sb.append("# TYPE quartzkube_dispatches_total counter\n");
+        sb.append("quartzkube_dispatches_total ").append(m.getDispatches()).append('\n');
+        sb.append("# HELP quartzkube_dispatches_peak_per_second Most dispatches seen within one second\n");
+        sb.append("# TYPE quartzkube_dispatches_peak_per_second gauge\n");
+        sb.append("quartzkube_dispatches_peak_per_second ").append(m.getPeakDispatchRate()).append('\n');
+        sb.append("# HELP quartzkube_worker_pool_size Worker threads the adaptive pool is currently sized to\n");
+        sb.append("# TYPE quartzkube_worker_pool_size gauge\n");
+        sb.append("quartzkube_worker_pool_size ").append(m.getWorkerPoolSize()).append('\n');
+        sb.append("# HELP quartzkube_worker_pool_resizes_total Resize decisions taken by the adaptive worker pool\n");
+        sb.append("# TYPE quartzkube_worker_pool_resizes_total counter\n");
+        sb.append("quartzkube_worker_pool_resizes_total{direction=\"grow\"} ").append(m.getWorkerPoolGrows()).append('\n');
+        sb.append("quartzkube_worker_pool_resizes_total{direction=\"shrink\"} ").append(m.getWorkerPoolShrinks()).append('\n');
+        sb.append("# HELP quartzkube_dispatch_limit API creates the dispatcher lets run at once, 0 if unlimited\n");
+        sb.append("# TYPE quartzkube_dispatch_limit gauge\n");
+        sb.append("quartzkube_dispatch_limit ").append(m.getDispatchLimit()).append('\n');
+        sb.append("# HELP quartzkube_dispatches_in_flight API creates currently in flight\n");
+        sb.append("# TYPE quartzkube_dispatches_in_flight gauge\n");
+        sb.append("quartzkube_dispatches_in_flight ").append(m.getDispatchesInFlight()).append('\n');
+        sb.append("# HELP quartzkube_dispatch_waiters Dispatches waiting for the concurrency limiter\n");
+        sb.append("# TYPE quartzkube_dispatch_waiters gauge\n");
+        sb.append("quartzkube_dispatch_waiters ").append(m.getDispatchWaiters()).append('\n');
+        sb.append("# HELP quartzkube_api_throttled_total API calls delayed by the client-side rate limiter\n");
+        sb.append("# TYPE quartzkube_api_throttled_total counter\n");
+        sb.append("quartzkube_api_throttled_total ").append(m.getApiThrottles()).append('\n');
+        sb.append("# HELP quartzkube_api_throttle_delay_millis_total Time API calls waited for the client-side rate limiter\n");
+        sb.append("# TYPE quartzkube_api_throttle_delay_millis_total counter\n");
+        sb.append("quartzkube_api_throttle_delay_millis_total ").append(m.getApiThrottleMillis()).append('\n');
+        sb.append("# HELP quartzkube_dispatch_retries_total Failed submissions scheduled for another attempt\n");
+        sb.append("# TYPE quartzkube_dispatch_retries_total counter\n");
+        sb.append("quartzkube_dispatch_retries_total ").append(m.getDispatchRetries()).append('\n');
+        sb.append("# HELP quartzkube_dispatch_retry_delay_millis_total Time submissions were delayed before a retry, including Retry-After\n");
+        sb.append("# TYPE quartzkube_dispatch_retry_delay_millis_total counter\n");
+        sb.append("quartzkube_dispatch_retry_delay_millis_total ").append(m.getDispatchRetryDelayMillis()).append('\n');
+        sb.append("# HELP quartzkube_dispatch_retries_exhausted_total Transient submission failures given up after the last attempt or with a full retry queue\n");
+        sb.append("# TYPE quartzkube_dispatch_retries_exhausted_total counter\n");
+        sb.append("quartzkube_dispatch_retries_exhausted_total ").append(m.getDispatchRetriesExhausted()).append('\n');
+        sb.append("# HELP quartzkube_dispatch_retry_queue Submissions waiting to be retried\n");
+        sb.append("# TYPE quartzkube_dispatch_retry_queue gauge\n");
+        sb.append("quartzkube_dispatch_retry_queue ").append(m.getDispatchRetryQueue()).append('\n');
+        sb.append("# HELP quartzkube_warm_runs_total Jobs run by a warm runner instead of a new pod\n");
+        sb.append("# TYPE quartzkube_warm_runs_total counter\n");
+        sb.append("quartzkube_warm_runs_total ").append(m.getWarmRuns()).append('\n');
+        sb.append("# HELP quartzkube_warm_fallbacks_total Jobs dispatched as a Job because no warm runner was idle\n");
+        sb.append("# TYPE quartzkube_warm_fallbacks_total counter\n");
+        sb.append("quartzkube_warm_fallbacks_total ").append(m.getWarmFallbacks()).append('\n');
+        sb.append("# HELP quartzkube_warm_recycles_total Warm runners retired after their last run or a failed health check\n");
+        sb.append("# TYPE quartzkube_warm_recycles_total counter\n");
+        sb.append("quartzkube_warm_recycles_total ").append(m.getWarmRecycles()).append('\n');
+        sb.append("# HELP quartzkube_warm_idle Warm runners waiting for work\n");
+        sb.append("# TYPE quartzkube_warm_idle gauge\n");
+        sb.append("quartzkube_warm_idle ").append(m.getWarmIdle()).append('\n');
+        sb.append("# HELP quartzkube_log_follows_dropped_total Pod logs not followed because the log follower queue was full\n");
+        sb.append("# TYPE quartzkube_log_follows_dropped_total counter\n");
+        sb.append("quartzkube_log_follows_dropped_total ").append(m.getDroppedLogFollows()).append('\n');
+        appendHistograms(sb, "quartzkube_queue_wait_millis",
+                "Time ready fires waited for a worker thread in milliseconds", m.getQueueWaitHistograms());
+        appendHistograms(sb, "quartzkube_fire_lag_millis",
+                "Delay between a trigger's scheduled fire time and its job starting in milliseconds",
+                m.getFireLagHistograms());
         return sb.toString();
     }
+
+    private static void appendHistograms(StringBuilder sb, String name, String help,
+                                         java.util.Map<String, LatencyHistogram> byGroup) {
+        if (byGroup.isEmpty()) {
+            return;
+        }
+        double[] bounds = LatencyHistogram.bounds();
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" histogram\n");
+        for (java.util.Map.Entry<String, LatencyHistogram> e : new java.util.TreeMap<>(byGroup).entrySet()) {
+            String group = e.getKey().replace("\\", "\\\\").replace("\"", "\\\"");
+            long[] counts = e.getValue().cumulativeCounts();
+            for (int i = 0; i < counts.length; i++) {
+                String le = i < bounds.length ? Double.toString(bounds[i]) : "+Inf";
+                sb.append(name).append("_bucket{group=\"").append(group).append("\",le=\"").append(le).append("\"} ")
+                        .append(counts[i]).append('\n');
+            }
+            sb.append(name).append("_sum{group=\"").append(group).append("\"} ").append(e.getValue().getSumMillis()).append('\n');
+            sb.append(name).append("_count{group=\"").append(group).append("\"} ").append(counts[counts.length - 1]).append('\n');
+        }
+    }
 }
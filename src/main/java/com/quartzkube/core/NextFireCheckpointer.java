@@ -0,0 +1,119 @@
+package com.quartzkube.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects trigger next fire times, keyed by trigger key, and writes them to
+ * the {@link JobStore} in batches on a background thread so the trigger path
+ * never waits on store I/O.
+ *
+ * <p>Only schedule changes are written promptly: arming, rescheduling,
+ * resuming and removing a trigger. A trigger that merely advanced by its
+ * own period after a fire is written again only once {@code refreshMillis}
+ * have passed since its last write, so a busy trigger does not cost a store
+ * write per fire. Shutdown writes every trigger's latest value.</p>
+ */
+final class NextFireCheckpointer {
+    private final JobStore store;
+    private final long refreshMillis;
+    private final Map<String, Long> latest = new ConcurrentHashMap<>();
+    private final Map<String, Long> dirty = new ConcurrentHashMap<>();
+    private final Map<String, Long> writtenAt = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "quartzkube-checkpoint");
+        t.setDaemon(true);
+        return t;
+    });
+
+    NextFireCheckpointer(JobStore store, long refreshMillis) {
+        this.store = store;
+        this.refreshMillis = refreshMillis;
+    }
+
+    /** Records a changed next fire time of a trigger for the next flush. */
+    void record(String triggerKey, long nextFireTime) {
+        latest.put(triggerKey, nextFireTime);
+        dirty.put(triggerKey, nextFireTime);
+    }
+
+    /**
+     * Records a next fire time reached by the trigger's normal progression.
+     * It is written only if the trigger has not been written within the
+     * refresh interval.
+     */
+    void advance(String triggerKey, long nextFireTime) {
+        latest.put(triggerKey, nextFireTime);
+        Long at = writtenAt.get(triggerKey);
+        if (at == null || System.currentTimeMillis() - at >= refreshMillis) {
+            dirty.put(triggerKey, nextFireTime);
+        }
+    }
+
+    /** Clears the checkpoint of a trigger that was removed. */
+    void remove(String triggerKey) {
+        latest.remove(triggerKey);
+        writtenAt.remove(triggerKey);
+        dirty.put(triggerKey, 0L);
+    }
+
+    /** Starts a background flush unless one is already running. */
+    void flushAsync() {
+        if (dirty.isEmpty() || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            io.execute(() -> {
+                try {
+                    flush();
+                } finally {
+                    flushing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            flushing.set(false);
+        }
+    }
+
+    /** Writes the latest value of every trigger and stops the background thread. */
+    void shutdown() {
+        io.shutdown();
+        try {
+            io.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dirty.putAll(latest);
+        flush();
+    }
+
+    private void flush() {
+        Map<String, Long> batch = new HashMap<>();
+        for (Map.Entry<String, Long> e : dirty.entrySet()) {
+            if (dirty.remove(e.getKey(), e.getValue())) {
+                batch.put(e.getKey(), e.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            store.saveNextFireTimes(batch);
+            long now = System.currentTimeMillis();
+            batch.forEach((key, next) -> {
+                if (next > 0) {
+                    writtenAt.put(key, now);
+                }
+            });
+        } catch (Exception e) {
+            // keep the values for the next attempt unless newer ones arrived
+            batch.forEach(dirty::putIfAbsent);
+        }
+    }
+}
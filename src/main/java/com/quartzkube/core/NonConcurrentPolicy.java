@@ -0,0 +1,26 @@
+package com.quartzkube.core;
+
+/**
+ * How fires of a job that disallows concurrent execution are handled while a
+ * previous run of the same job is still executing.
+ */
+public enum NonConcurrentPolicy {
+    /** Queue every fire and run them one after another. */
+    QUEUE,
+    /** Keep only the most recent pending fire. */
+    LATEST,
+    /** Discard fires that arrive while the job is running. */
+    DROP;
+
+    /** Parses a policy name, returning the default for unknown values. */
+    public static NonConcurrentPolicy parse(Object value, NonConcurrentPolicy def) {
+        if (value == null) {
+            return def;
+        }
+        try {
+            return valueOf(value.toString().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return def;
+        }
+    }
+}
@@ -17,11 +17,13 @@ import io.kubernetes.client.util.Yaml;
  * official Kubernetes Java client.
  */
 public class OfficialKubernetesApiService implements KubernetesApiService {
+    private final ApiClient client;
     private final BatchV1Api batchApi;
     private final CoreV1Api coreApi;
     private final String namespace;
 
     public OfficialKubernetesApiService(ApiClient client, String namespace) {
+        this.client = client;
         this.batchApi = new BatchV1Api(client);
         this.coreApi = new CoreV1Api(client);
         this.namespace = namespace;
@@ -44,6 +46,15 @@ public class OfficialKubernetesApiService implements KubernetesApiService {
         return coreApi.readNamespacedPodLog(podName, namespace).execute();
     }
 
+    @Override
+    public java.io.InputStream streamPodLog(String podName, boolean follow) throws Exception {
+        if (!follow) {
+            // the generated API only returns whole logs; PodLogs always follows
+            return new java.io.ByteArrayInputStream(readPodLog(podName).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        }
+        return new io.kubernetes.client.PodLogs(client).streamNamespacedPodLog(namespace, podName, "job");
+    }
+
     @Override
     public Watch watchPod(String podName, Watcher<Pod> watcher) {
         final java.util.concurrent.atomic.AtomicBoolean running = new java.util.concurrent.atomic.AtomicBoolean(true);
@@ -70,4 +81,45 @@ public class OfficialKubernetesApiService implements KubernetesApiService {
         t.start();
         return () -> running.set(false);
     }
+
+    @Override
+    public Watch watchPods(String labelSelector, Watcher<Pod> watcher) {
+        final java.util.concurrent.atomic.AtomicBoolean running = new java.util.concurrent.atomic.AtomicBoolean(true);
+        Thread t = new Thread(() -> {
+            // one poller for the whole selector; only phase changes are forwarded
+            java.util.Map<String, String> phases = new java.util.HashMap<>();
+            try {
+                while (running.get()) {
+                    java.util.Set<String> seen = new java.util.HashSet<>();
+                    for (V1Pod v1pod : coreApi.listNamespacedPod(namespace).labelSelector(labelSelector).execute().getItems()) {
+                        String name = v1pod.getMetadata().getName();
+                        String phase = v1pod.getStatus() != null ? v1pod.getStatus().getPhase() : null;
+                        seen.add(name);
+                        if (phase != null && !phase.equals(phases.put(name, phase))) {
+                            Pod pod = io.fabric8.kubernetes.client.utils.Serialization.unmarshal(Yaml.dump(v1pod), Pod.class);
+                            watcher.eventReceived(Watcher.Action.MODIFIED, pod);
+                        }
+                    }
+                    phases.keySet().retainAll(seen);
+                    Thread.sleep(1000);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                watcher.onClose(new WatcherException(e.getMessage(), e));
+            }
+        }, "quartzkube-pod-poller");
+        t.setDaemon(true);
+        t.start();
+        return () -> running.set(false);
+    }
+
+    @Override
+    public java.util.List<String> listPodNames(String labelSelector) throws Exception {
+        java.util.List<String> names = new java.util.ArrayList<>();
+        for (V1Pod v1pod : coreApi.listNamespacedPod(namespace).labelSelector(labelSelector).execute().getItems()) {
+            names.add(v1pod.getMetadata().getName());
+        }
+        return names;
+    }
 }
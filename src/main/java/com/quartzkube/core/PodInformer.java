@@ -0,0 +1,339 @@
+package com.quartzkube.core;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.WatcherException;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One label-selector watch over the pods of a namespace, shared by every
+ * dispatch waiting for its job to finish. Pods are indexed by the Job that
+ * owns them (the {@code job-name} label the Job controller sets, or the pod
+ * name for pods without it) and phase changes are routed to the handles
+ * registered for that Job. Completion tracking therefore costs one
+ * connection and no threads however many jobs are in flight; the index only
+ * holds pods that have not finished or have not been claimed yet, and drops
+ * them when they are deleted. The same events tell log followers when a
+ * pod's container has started. Pods of an Indexed Job share its name and
+ * are tracked per completion index instead, see {@link #awaitIndexes}.
+ */
+final class PodInformer {
+    static final String JOB_NAME_LABEL = "job-name";
+    /** Label put on the pod template of every Job the builder renders. */
+    static final String MANAGED_BY_LABEL = "app.kubernetes.io/managed-by";
+    static final String MANAGED_BY = "quartzkube";
+    /** Default watch selector: only pods of Jobs this scheduler created. */
+    static final String DEFAULT_SELECTOR = MANAGED_BY_LABEL + "=" + MANAGED_BY;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final KubernetesApiService api;
+    private final String labelSelector;
+    private final Map<String, String> phases = new ConcurrentHashMap<>();
+    private final Map<String, Queue<CompletableFuture<Boolean>>> waiting = new ConcurrentHashMap<>();
+    private final Map<String, String> podNames = new ConcurrentHashMap<>();
+    private final Map<String, Queue<Consumer<String>>> starting = new ConcurrentHashMap<>();
+    private final Map<String, IndexedRun> indexed = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reconnect = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "quartzkube-pod-informer");
+        t.setDaemon(true);
+        return t;
+    });
+    private Watch watch;
+    private boolean closed;
+
+    PodInformer(KubernetesApiService api, String labelSelector) {
+        this.api = api;
+        this.labelSelector = labelSelector;
+    }
+
+    /**
+     * Completes {@code handle} with {@code true} or {@code false} once a pod
+     * of {@code jobName} succeeds or fails. The handle is forgotten as soon
+     * as it completes by any means, including cancellation.
+     */
+    void await(String jobName, CompletableFuture<Boolean> handle) {
+        try {
+            ensureWatching();
+        } catch (RuntimeException e) {
+            handle.completeExceptionally(e);
+            return;
+        }
+        Queue<CompletableFuture<Boolean>> queue = waiting.computeIfAbsent(jobName, k -> new ConcurrentLinkedQueue<>());
+        queue.add(handle);
+        handle.whenComplete((success, error) -> {
+            queue.remove(handle);
+            waiting.computeIfPresent(jobName, (k, q) -> q.isEmpty() ? null : q);
+        });
+        // the pod may have finished before the handle was registered
+        route(jobName, phases.get(jobName));
+    }
+
+    /**
+     * Runs {@code action} with the pod name once a pod of {@code jobName} is
+     * running or has already finished, i.e. once its log can be read. The
+     * action runs on the watch thread and must hand off any blocking work.
+     * It is dropped if the pod is deleted first.
+     */
+    void whenStarted(String jobName, Consumer<String> action) {
+        try {
+            ensureWatching();
+        } catch (RuntimeException e) {
+            return;
+        }
+        starting.computeIfAbsent(jobName, k -> new ConcurrentLinkedQueue<>()).add(action);
+        start(jobName, phases.get(jobName));
+    }
+
+    /** Receives the progress of an Indexed Job; called on the watch thread. */
+    interface IndexObserver {
+        /** A pod's container started, so its log can be read. */
+        void podStarted(String podName);
+
+        /** An index succeeded, or failed more often than it may be retried. */
+        void indexFinished(int index, boolean success);
+    }
+
+    /**
+     * Tracks the Indexed Job {@code jobName} with indexes
+     * {@code 0..completions-1}. An index succeeds with its first successful
+     * pod and fails once {@code retriesPerIndex + 1} of its pods failed.
+     * {@code handle} completes with {@code true} when every index succeeded
+     * and {@code false} once all are decided and any failed. Register before
+     * creating the Job so no pod event is missed; the run is forgotten as
+     * soon as the handle completes by any means.
+     */
+    void awaitIndexes(String jobName, int completions, int retriesPerIndex, IndexObserver observer,
+                      CompletableFuture<Boolean> handle) {
+        try {
+            ensureWatching();
+        } catch (RuntimeException e) {
+            handle.completeExceptionally(e);
+            return;
+        }
+        IndexedRun run = new IndexedRun(completions, retriesPerIndex, observer, handle);
+        indexed.put(jobName, run);
+        handle.whenComplete((success, error) -> indexed.remove(jobName, run));
+    }
+
+    /** Jobs with at least one dispatch waiting for them. */
+    int waitingJobs() {
+        return waiting.size() + indexed.size();
+    }
+
+    /** Closes the watch and fails handles still waiting. */
+    void close() {
+        synchronized (this) {
+            closed = true;
+            if (watch != null) {
+                watch.close();
+                watch = null;
+            }
+        }
+        reconnect.shutdownNow();
+        IllegalStateException e = new IllegalStateException("Pod informer closed");
+        for (Queue<CompletableFuture<Boolean>> queue : waiting.values()) {
+            for (CompletableFuture<Boolean> handle : queue) {
+                handle.completeExceptionally(e);
+            }
+        }
+        for (IndexedRun run : indexed.values()) {
+            run.handle.completeExceptionally(e);
+        }
+    }
+
+    private synchronized void ensureWatching() {
+        if (closed) {
+            throw new IllegalStateException("Pod informer closed");
+        }
+        if (watch == null) {
+            watch = api.watchPods(labelSelector, new Watcher<Pod>() {
+                @Override
+                public void eventReceived(Action action, Pod pod) {
+                    onEvent(action, pod);
+                }
+
+                @Override
+                public void onClose(WatcherException e) {
+                    onWatchClosed();
+                }
+            });
+        }
+    }
+
+    private void onEvent(Watcher.Action action, Pod pod) {
+        if (pod == null || pod.getMetadata() == null) {
+            return;
+        }
+        String jobName = null;
+        if (pod.getMetadata().getLabels() != null) {
+            jobName = pod.getMetadata().getLabels().get(JOB_NAME_LABEL);
+        }
+        if (jobName == null) {
+            jobName = pod.getMetadata().getName();
+        }
+        if (jobName == null) {
+            return;
+        }
+        IndexedRun run = indexed.get(jobName);
+        if (run != null) {
+            if (action != Watcher.Action.DELETED) {
+                run.onPod(pod);
+            }
+            return;
+        }
+        if (action == Watcher.Action.DELETED) {
+            phases.remove(jobName);
+            podNames.remove(jobName);
+            starting.remove(jobName);
+            return;
+        }
+        String phase = pod.getStatus() != null ? pod.getStatus().getPhase() : null;
+        if (phase == null) {
+            return;
+        }
+        if (pod.getMetadata().getName() != null) {
+            podNames.put(jobName, pod.getMetadata().getName());
+        }
+        phases.put(jobName, phase);
+        start(jobName, phase);
+        route(jobName, phase);
+    }
+
+    /** Runs the start actions of a job whose container has started. */
+    private void start(String jobName, String phase) {
+        if (!"Running".equals(phase) && !"Succeeded".equals(phase) && !"Failed".equals(phase)) {
+            return;
+        }
+        String podName = podNames.get(jobName);
+        Queue<Consumer<String>> queue = podName == null ? null : starting.get(jobName);
+        if (queue == null) {
+            return;
+        }
+        Consumer<String> action;
+        while ((action = queue.poll()) != null) {
+            try {
+                action.accept(podName);
+            } catch (RuntimeException ignored) {
+                // a failing action must not stall routing for other jobs
+            }
+        }
+        starting.computeIfPresent(jobName, (k, q) -> q.isEmpty() ? null : q);
+    }
+
+    /** Hands a terminal phase to the dispatches waiting for the job. */
+    private void route(String jobName, String phase) {
+        boolean success;
+        if ("Succeeded".equals(phase)) {
+            success = true;
+        } else if ("Failed".equals(phase)) {
+            success = false;
+        } else {
+            return;
+        }
+        Queue<CompletableFuture<Boolean>> queue = waiting.get(jobName);
+        if (queue == null) {
+            return;
+        }
+        boolean claimed = false;
+        CompletableFuture<Boolean> handle;
+        while ((handle = queue.poll()) != null) {
+            claimed |= handle.complete(success);
+        }
+        if (claimed) {
+            phases.remove(jobName, phase);
+            podNames.remove(jobName);
+        }
+    }
+
+    /** Outcome of every index of one Indexed Job. */
+    private static final class IndexedRun {
+        private final int retriesPerIndex;
+        private final IndexObserver observer;
+        private final CompletableFuture<Boolean> handle;
+        private final Boolean[] outcomes;
+        private final int[] failures;
+        private final java.util.Set<String> started = new java.util.HashSet<>();
+        private final java.util.Set<String> finished = new java.util.HashSet<>();
+        private int remaining;
+        private boolean failed;
+
+        IndexedRun(int completions, int retriesPerIndex, IndexObserver observer, CompletableFuture<Boolean> handle) {
+            this.retriesPerIndex = retriesPerIndex;
+            this.observer = observer;
+            this.handle = handle;
+            this.outcomes = new Boolean[completions];
+            this.failures = new int[completions];
+            this.remaining = completions;
+        }
+
+        synchronized void onPod(Pod pod) {
+            String podName = pod.getMetadata().getName();
+            String phase = pod.getStatus() != null ? pod.getStatus().getPhase() : null;
+            int index = CompletionIndex.of(pod.getMetadata().getAnnotations());
+            if (podName == null || phase == null || index < 0 || index >= outcomes.length) {
+                return;
+            }
+            boolean terminal = "Succeeded".equals(phase) || "Failed".equals(phase);
+            if ((terminal || "Running".equals(phase)) && started.add(podName)) {
+                notify(() -> observer.podStarted(podName));
+            }
+            // the same pod is reported again on every later update
+            if (!terminal || !finished.add(podName) || outcomes[index] != null) {
+                return;
+            }
+            if ("Succeeded".equals(phase)) {
+                finish(index, true);
+            } else if (++failures[index] > retriesPerIndex) {
+                finish(index, false);
+            }
+        }
+
+        private void finish(int index, boolean success) {
+            outcomes[index] = success;
+            failed |= !success;
+            notify(() -> observer.indexFinished(index, success));
+            if (--remaining == 0) {
+                handle.complete(!failed);
+            }
+        }
+
+        private static void notify(Runnable callback) {
+            try {
+                callback.run();
+            } catch (RuntimeException ignored) {
+                // a failing observer must not stall routing for other jobs
+            }
+        }
+    }
+
+    /** Reopens a watch the server or the network closed. */
+    private void onWatchClosed() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            watch = null;
+        }
+        try {
+            reconnect.schedule(() -> {
+                try {
+                    ensureWatching();
+                } catch (RuntimeException e) {
+                    onWatchClosed();
+                }
+            }, RECONNECT_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException ignored) {
+            // shut down concurrently
+        }
+    }
+}
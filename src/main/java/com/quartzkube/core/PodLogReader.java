@@ -0,0 +1,64 @@
+package com.quartzkube.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits a pod log stream into lines without materializing the log. Bytes
+ * are read through a fixed buffer and cut at {@code '\n'}, so only the
+ * current line is ever decoded; a line longer than {@link #MAX_LINE_BYTES}
+ * is handed over in pieces. Lines are delivered on the reading thread, so a
+ * slow {@link PodLogHandler} stops the reads and the server-side stream
+ * backs up instead of memory growing.
+ */
+final class PodLogReader {
+    static final int BUFFER_SIZE = 8192;
+    static final int MAX_LINE_BYTES = 64 * 1024;
+
+    private PodLogReader() {
+    }
+
+    /**
+     * Reads {@code in} to the end, passing each non-empty line to
+     * {@code handler}. Returns the number of lines delivered.
+     */
+    static long pump(InputStream in, String jobClass, PodLogHandler handler) throws IOException {
+        byte[] buf = new byte[BUFFER_SIZE];
+        byte[] line = new byte[BUFFER_SIZE];
+        int len = 0;
+        long lines = 0;
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            for (int i = 0; i < n; i++) {
+                byte b = buf[i];
+                if (b == '\n') {
+                    lines += emit(line, len, jobClass, handler);
+                    len = 0;
+                    continue;
+                }
+                if (len == line.length) {
+                    if (len == MAX_LINE_BYTES) {
+                        lines += emit(line, len, jobClass, handler);
+                        len = 0;
+                    } else {
+                        line = java.util.Arrays.copyOf(line, Math.min(MAX_LINE_BYTES, len * 2));
+                    }
+                }
+                line[len++] = b;
+            }
+        }
+        return lines + emit(line, len, jobClass, handler);
+    }
+
+    private static int emit(byte[] line, int len, String jobClass, PodLogHandler handler) {
+        if (len > 0 && line[len - 1] == '\r') {
+            len--;
+        }
+        if (len == 0) {
+            return 0;
+        }
+        handler.handle(jobClass, new String(line, 0, len, StandardCharsets.UTF_8));
+        return 1;
+    }
+}
@@ -6,29 +6,54 @@ import java.util.concurrent.*;
 import com.quartzkube.core.LeaderElection;
 import com.quartzkube.core.KubeJobDispatcher;
 import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.ObjectAlreadyExistsException;
+import org.quartz.SchedulerException;
+import org.quartz.TriggerKey;
 import org.quartz.Trigger;
 import org.quartz.TriggerListener;
 import org.quartz.JobListener;
 import org.quartz.Trigger.CompletedExecutionInstruction;
 import org.quartz.CronTrigger;
 import org.quartz.SimpleTrigger;
-import org.quartz.CronExpression;
 
 /**
  * Stub implementation of a Quartz-compatible scheduler.
  * This basic version only supports in-memory scheduling of Runnable jobs.
  */
 public class QuartzKubeScheduler {
-    private final ScheduledExecutorService executor =
-            Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
-    private final Map<Class<?>, Queue<Class<?>>> pending = new ConcurrentHashMap<>();
-    private final Set<Class<?>> running = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+    private final FairShareQueue readyQueue;
+    private final ExecutorService triggerExecutor;
+    private final TimingWheel timer;
+    /** Runs {@code InterruptableJob.interrupt()} of timed-out jobs, away from trigger work. */
+    private final ExecutorService interrupts;
+    private final Map<Object, JobMailbox> mailboxes = new ConcurrentHashMap<>();
+    private final Map<JobKey, JobDetail> jobDetails = new ConcurrentHashMap<>();
+    private final Map<TriggerKey, TriggerHandle> triggers = new ConcurrentHashMap<>();
+    private final Map<JobKey, Set<TriggerKey>> jobTriggers = new ConcurrentHashMap<>();
+    private final Map<String, Set<JobKey>> groupJobs = new ConcurrentHashMap<>();
+    private final Set<String> pausedJobGroups = ConcurrentHashMap.newKeySet();
+    private final NonConcurrentPolicy defaultPolicy;
+    private final int mailboxLimit;
     private final JobStore store;
+    private final NextFireCheckpointer checkpointer;
+    /** Trigger checkpoints loaded at start, consumed when a trigger with the same key is armed. */
+    private final Map<String, Long> recoveredFires = new ConcurrentHashMap<>();
+    private final java.util.concurrent.atomic.AtomicInteger catchUps = new java.util.concurrent.atomic.AtomicInteger();
+    private volatile long catchUpBase;
+    private volatile long catchUpRate;
     private final KubeJobDispatcher dispatcher;
     private final boolean cronOffload;
+    private final long smoothingWindow;
+    private final long defaultTimeout;
     private LeaderElection leaderElection;
+    private volatile ShardedLeaderElection shardElection;
     private final List<JobListener> jobListeners = new CopyOnWriteArrayList<>();
     private final List<TriggerListener> triggerListeners = new CopyOnWriteArrayList<>();
+    private final ListenerEventBus events;
+    private volatile JobFactory jobFactory = new CachingJobFactory();
+    private final java.util.concurrent.atomic.AtomicLong fireInstances = new java.util.concurrent.atomic.AtomicLong();
     private volatile boolean started = false;
 
     public QuartzKubeScheduler() {
@@ -36,9 +61,77 @@ public class QuartzKubeScheduler {
     }
 
     public QuartzKubeScheduler(JobStore store) {
+        this(store, createWorkerExecutor());
+    }
+
+    /**
+     * Creates a scheduler whose job bodies run on the given executor. Trigger
+     * bookkeeping always runs on a separate small timer pool so slow jobs
+     * cannot delay other triggers.
+     */
+    public QuartzKubeScheduler(JobStore store, ExecutorService workerExecutor) {
         this.store = store;
+        this.checkpointer = new NextFireCheckpointer(store,
+                Math.max(0, parseLong(getConfig("CHECKPOINT_REFRESH_MILLIS", "60000"), 60000)));
+        this.executor = workerExecutor;
+        this.readyQueue = new FairShareQueue(workerExecutor,
+                FairShareQueue.parseWeights(getConfig("GROUP_WEIGHTS", null)),
+                (int) parseLong(getConfig("DEFAULT_GROUP_WEIGHT", "1"), 1));
         this.dispatcher = new KubeJobDispatcher();
         this.cronOffload = Boolean.parseBoolean(getConfig("CRONJOB_OFFLOAD", "false"));
+        this.smoothingWindow = Math.max(0, parseLong(getConfig("FIRE_SMOOTHING_WINDOW_MILLIS", "0"), 0));
+        this.defaultTimeout = Math.max(0, parseLong(getConfig("JOB_TIMEOUT_MILLIS", "0"), 0));
+        this.defaultPolicy = NonConcurrentPolicy.parse(getConfig("NON_CONCURRENT_POLICY", null), NonConcurrentPolicy.QUEUE);
+        this.mailboxLimit = (int) parseLong(getConfig("NON_CONCURRENT_QUEUE_LIMIT", "1000"), 1000);
+        this.events = new ListenerEventBus("quartzkube-listener-events",
+                (int) parseLong(getConfig("EVENT_BUS_CAPACITY", "8192"), 8192),
+                parseLong(getConfig("EVENT_LAG_THRESHOLD_MILLIS", "1000"), 1000));
+        int triggerThreads = (int) parseLong(getConfig("TRIGGER_THREADS", "1"), 1);
+        this.triggerExecutor = Executors.newFixedThreadPool(Math.max(1, triggerThreads), threadFactory("quartzkube-trigger-", true));
+        this.timer = new TimingWheel(parseLong(getConfig("TIMER_TICK_MILLIS", "1"), 1), triggerExecutor);
+        ThreadPoolExecutor interruptPool = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("quartzkube-interrupt-", true));
+        interruptPool.allowCoreThreadTimeOut(true);
+        this.interrupts = interruptPool;
+    }
+
+    /**
+     * Builds the job worker executor from WORKER_MODE and WORKER_THREADS.
+     * Mode "virtual" runs each job on its own virtual thread when the JVM
+     * supports it and falls back to an unbounded cached pool otherwise.
+     * Mode "adaptive" sizes the pool between WORKER_MIN_THREADS and
+     * WORKER_MAX_THREADS from measured queue wait, see {@link AdaptiveWorkerPool}.
+     */
+    static ExecutorService createWorkerExecutor() {
+        String mode = getConfig("WORKER_MODE", "fixed");
+        if ("virtual".equalsIgnoreCase(mode)) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Virtual threads not available, using a cached thread pool for jobs");
+                return Executors.newCachedThreadPool(threadFactory("quartzkube-worker-", false));
+            }
+        }
+        if ("adaptive".equalsIgnoreCase(mode)) {
+            int min = (int) Math.max(1, parseLong(getConfig("WORKER_MIN_THREADS", "1"), 1));
+            int max = (int) Math.max(min, parseLong(getConfig("WORKER_MAX_THREADS", null),
+                    Runtime.getRuntime().availableProcessors() * 16L));
+            return new AdaptiveWorkerPool(min, max,
+                    parseLong(getConfig("WORKER_TARGET_WAIT_MILLIS", "20"), 20),
+                    Math.max(1, parseLong(getConfig("WORKER_ADAPT_INTERVAL_MILLIS", "500"), 500)),
+                    threadFactory("quartzkube-worker-", false));
+        }
+        int threads = (int) parseLong(getConfig("WORKER_THREADS", null), Runtime.getRuntime().availableProcessors());
+        return Executors.newFixedThreadPool(Math.max(1, threads), threadFactory("quartzkube-worker-", false));
+    }
+
+    private static ThreadFactory threadFactory(String prefix, boolean daemon) {
+        java.util.concurrent.atomic.AtomicInteger n = new java.util.concurrent.atomic.AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + n.incrementAndGet());
+            t.setDaemon(daemon);
+            return t;
+        };
     }
 
     private static String getConfig(String key, String def) {
@@ -49,6 +142,14 @@ public class QuartzKubeScheduler {
         return v == null || v.isEmpty() ? def : v;
     }
 
+    private static long parseLong(String v, long def) {
+        try {
+            return Long.parseLong(v);
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
     /** Register a JobListener to receive job events. */
     public void addJobListener(JobListener l) {
         jobListeners.add(l);
@@ -59,6 +160,26 @@ public class QuartzKubeScheduler {
         triggerListeners.add(l);
     }
 
+    /**
+     * Replace the factory used to create in-process job instances, e.g. with
+     * one backed by a dependency injection container.
+     */
+    public void setJobFactory(JobFactory factory) {
+        if (factory != null) {
+            this.jobFactory = factory;
+        }
+    }
+
+    /**
+     * Runs this scheduler in sharded mode: every replica registers all
+     * triggers but only fires jobs whose key falls in a shard it currently
+     * owns. Must be called before {@link #start()}, which starts the
+     * election; ENABLE_SHARDING=true creates one from the environment.
+     */
+    public void setShardedLeaderElection(ShardedLeaderElection election) {
+        this.shardElection = election;
+    }
+
     /** Access the underlying KubeJobDispatcher. */
     public KubeJobDispatcher getDispatcher() {
         return dispatcher;
@@ -69,6 +190,7 @@ public class QuartzKubeScheduler {
      * optional Prometheus endpoint if configured.
      */
     public void start() {
+        long startedAt = System.nanoTime();
         Metrics.init();
         MetricsServer.init();
         String enable = getConfig("ENABLE_LEADER_ELECTION", "false");
@@ -79,19 +201,126 @@ public class QuartzKubeScheduler {
             leaderElection = new LeaderElection(apiUrl, ns, name);
             leaderElection.start();
         }
+        if (shardElection == null && Boolean.parseBoolean(getConfig("ENABLE_SHARDING", "false"))) {
+            shardElection = new ShardedLeaderElection(getConfig("KUBE_API_URL", "http://localhost:8001"),
+                    getConfig("JOB_NAMESPACE", "default"), getConfig("LEASE_NAME", "quartzkube"),
+                    (int) parseLong(getConfig("SHARD_COUNT", "16"), 16));
+        }
+        if (shardElection != null) {
+            shardElection.start();
+            // fires are gated on shard leases, so recovery must not run before the first round
+            try {
+                shardElection.awaitFirstReconcile();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        catchUpRate = parseLong(getConfig("RECOVERY_CATCHUP_RATE", "50"), 50);
+        catchUpBase = System.currentTimeMillis();
+        try {
+            recoveredFires.putAll(store.loadNextFireTimes());
+        } catch (Exception e) {
+            // ignore load errors
+        }
+        // before the timer starts, so the replaced entries cannot fire first
+        int rearmed = recoverTriggers();
+        timer.start();
         started = true;
+        long checkpointInterval = Math.max(1, parseLong(getConfig("CHECKPOINT_INTERVAL_MILLIS", "1000"), 1000));
+        timer.schedule(t -> {
+            checkpointer.flushAsync();
+            t.rearm(System.currentTimeMillis() + checkpointInterval);
+        }, System.currentTimeMillis() + checkpointInterval);
+        int recovered = rearmed + recoverJobs();
+        Metrics.getInstance().recordRecovery(
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), recovered);
+    }
+
+    /**
+     * Re-arms triggers registered before start that have a checkpoint, by
+     * registering them again so they go through the same path as a trigger
+     * scheduled after start. Returns how many were re-armed.
+     */
+    private int recoverTriggers() {
+        int rearmed = 0;
+        for (TriggerHandle handle : new ArrayList<>(triggers.values())) {
+            if (!handle.isPaused() && recoveredFires.containsKey(checkpointKey(handle.trigger))
+                    && triggers.get(handle.trigger.getKey()) == handle) {
+                arm(register(handle.detail, handle.trigger), true);
+                rearmed++;
+            }
+        }
+        return rearmed;
+    }
+
+    /**
+     * Streams persisted jobs from the store a page at a time, resolves each
+     * page's classes in parallel and arms every job on the timing wheel,
+     * releasing them at RECOVERY_CATCHUP_RATE per second instead of all at
+     * once. Triggers are recovered separately from their own checkpoints
+     * when they are scheduled again, see {@link #recoveredFirst}.
+     */
+    private int recoverJobs() {
+        int pageSize = (int) Math.max(1, parseLong(getConfig("RECOVERY_PAGE_SIZE", "500"), 500));
+        int[] counts = new int[1];
         try {
-            for (String cls : store.loadJobs()) {
-                try {
-                    Class<?> c = Class.forName(cls);
-                    scheduleJobInternal(c);
-                } catch (ClassNotFoundException e) {
-                    e.printStackTrace();
+            store.loadJobs(pageSize, page -> {
+                List<Class<?>> classes = page.parallelStream().<Class<?>>map(j -> {
+                    try {
+                        return Class.forName(j.jobClass());
+                    } catch (ClassNotFoundException e) {
+                        e.printStackTrace();
+                        return null;
+                    }
+                }).toList();
+                long now = System.currentTimeMillis();
+                for (int i = 0; i < page.size(); i++) {
+                    Class<?> c = classes.get(i);
+                    if (c == null) {
+                        continue;
+                    }
+                    timer.schedule(t -> scheduleJobInternal(c), catchUpAt(now));
+                    counts[0]++;
                 }
-            }
+            });
         } catch (Exception e) {
             // ignore load errors
         }
+        return counts[0];
+    }
+
+    /** Time to release the next missed fire so they go out at RECOVERY_CATCHUP_RATE per second. */
+    private long catchUpAt(long now) {
+        long rate = catchUpRate;
+        int n = catchUps.getAndIncrement();
+        return rate > 0 ? Math.max(now, catchUpBase + n * 1000L / rate) : now;
+    }
+
+    private static String checkpointKey(Trigger trigger) {
+        return trigger.getKey().toString();
+    }
+
+    /** Removes and returns the checkpointed next fire of a trigger, or 0 if it has none. */
+    private long takeCheckpoint(TriggerHandle handle) {
+        if (recoveredFires.isEmpty()) {
+            return 0;
+        }
+        Long saved = recoveredFires.remove(checkpointKey(handle.trigger));
+        return saved == null ? 0 : saved;
+    }
+
+    /**
+     * First deadline of a trigger scheduled again after a restart: its
+     * checkpoint while that is still ahead, otherwise whatever the
+     * trigger's misfire instruction does on resume, with a missed fire
+     * released at the recovery catch-up rate. Falls back to {@code first}
+     * if the trigger has no fires left from there.
+     */
+    private long recoveredFirst(TriggerHandle handle, long saved, long first, java.util.function.LongUnaryOperator resumeAt) {
+        long now = System.currentTimeMillis();
+        handle.nextFire = saved;
+        long at = resumeAt.applyAsLong(saved >= now ? now : catchUpAt(now));
+        return at < 0 ? first : at;
     }
 
     /**
@@ -114,7 +343,8 @@ public class QuartzKubeScheduler {
     /**
      * Quartz-compatible API accepting JobDetail and Trigger. Supports
      * {@link CronTrigger} and {@link SimpleTrigger}. Other trigger types
-     * result in immediate execution.
+     * result in immediate execution. A trigger registered earlier under the
+     * same key is replaced.
      */
     public void scheduleJob(JobDetail detail, Trigger trigger) {
         if (detail == null || trigger == null) {
@@ -123,61 +353,352 @@ public class QuartzKubeScheduler {
         if (leaderElection != null && !leaderElection.isLeader()) {
             return;
         }
-        Class<?> jobClass = detail.getJobClass();
+        jobDetails.put(detail.getKey(), detail);
+        arm(register(detail, trigger), false);
+    }
+
+    /**
+     * Quartz-compatible bulk variant of {@link #scheduleJob(JobDetail, Trigger)}.
+     * Every job and trigger is validated before anything is stored and all
+     * triggers are then armed in one pass. As with the single variant, only
+     * jobs whose trigger is neither a cron nor a simple trigger, and which
+     * therefore run once right away, are persisted for recovery; their
+     * classes go out in a single {@link JobStore#saveJobs} call. Cron and
+     * simple triggers are recovered from their checkpoints when they are
+     * scheduled again.
+     *
+     * @param replace whether existing jobs and triggers with the same keys
+     *                are replaced; otherwise an {@link ObjectAlreadyExistsException}
+     *                is thrown and nothing is scheduled
+     */
+    public void scheduleJobs(Map<JobDetail, Set<? extends Trigger>> triggersAndJobs, boolean replace)
+            throws SchedulerException {
+        if (triggersAndJobs == null) {
+            throw new IllegalArgumentException("triggersAndJobs required");
+        }
+        if (leaderElection != null && !leaderElection.isLeader()) {
+            return;
+        }
+        Set<JobKey> batchJobs = new HashSet<>();
+        Set<TriggerKey> batchTriggers = new HashSet<>();
+        Set<String> jobClasses = new LinkedHashSet<>();
+        for (Map.Entry<JobDetail, Set<? extends Trigger>> e : triggersAndJobs.entrySet()) {
+            JobDetail detail = e.getKey();
+            if (detail == null || detail.getKey() == null || detail.getJobClass() == null) {
+                throw new SchedulerException("JobDetail with a key and job class required");
+            }
+            if (!batchJobs.add(detail.getKey()) || (!replace && jobDetails.containsKey(detail.getKey()))) {
+                throw new ObjectAlreadyExistsException(detail);
+            }
+            Set<? extends Trigger> set = e.getValue();
+            if ((set == null || set.isEmpty()) && !detail.isDurable()) {
+                throw new SchedulerException("Job " + detail.getKey() + " has no triggers and is not durable");
+            }
+            if (set != null) {
+                for (Trigger t : set) {
+                    if (t == null || t.getKey() == null) {
+                        throw new SchedulerException("Trigger with a key required for job " + detail.getKey());
+                    }
+                    if (t.getJobKey() != null && !t.getJobKey().equals(detail.getKey())) {
+                        throw new SchedulerException("Trigger " + t.getKey() + " references job " + t.getJobKey()
+                                + " but is scheduled with " + detail.getKey());
+                    }
+                    if (!batchTriggers.add(t.getKey()) || (!replace && triggers.containsKey(t.getKey()))) {
+                        throw new ObjectAlreadyExistsException(t);
+                    }
+                    if (!(t instanceof CronTrigger) && !(t instanceof SimpleTrigger)) {
+                        jobClasses.add(detail.getJobClass().getName());
+                    }
+                }
+            }
+        }
+        if (!jobClasses.isEmpty()) {
+            try {
+                store.saveJobs(jobClasses);
+            } catch (Exception e) {
+                throw new SchedulerException("Failed to persist jobs", e);
+            }
+        }
+        List<TriggerHandle> handles = new ArrayList<>(batchTriggers.size());
+        for (Map.Entry<JobDetail, Set<? extends Trigger>> e : triggersAndJobs.entrySet()) {
+            JobDetail detail = e.getKey();
+            jobDetails.put(detail.getKey(), detail);
+            if (e.getValue() != null) {
+                for (Trigger t : e.getValue()) {
+                    handles.add(register(detail, t));
+                }
+            }
+        }
+        for (TriggerHandle h : handles) {
+            arm(h, true);
+        }
+    }
+
+    /**
+     * Removes the trigger with the given key. A non-durable job is deleted
+     * together with its last trigger, as in Quartz.
+     *
+     * @return whether a trigger was found and removed
+     */
+    public boolean unscheduleJob(TriggerKey key) {
+        TriggerHandle handle = key == null ? null : triggers.get(key);
+        return handle != null && unregister(handle);
+    }
+
+    /**
+     * Replaces the trigger stored under {@code key} with {@code newTrigger}
+     * for the same job.
+     *
+     * @return the first fire time of the new trigger, or {@code null} if no
+     *         trigger was stored under the key or it will not fire on a timer
+     */
+    public Date rescheduleJob(TriggerKey key, Trigger newTrigger) {
+        if (key == null || newTrigger == null) {
+            throw new IllegalArgumentException("TriggerKey and Trigger required");
+        }
+        TriggerHandle old = triggers.get(key);
+        if (old == null) {
+            return null;
+        }
+        // register first so the job keeps a trigger and is not deleted in between
+        TriggerHandle handle = register(old.detail, newTrigger);
+        if (!key.equals(newTrigger.getKey())) {
+            unregister(old);
+        }
+        arm(handle, true);
+        return handle.nextFire > 0 ? new Date(handle.nextFire) : null;
+    }
+
+    /** Pauses a trigger. Its timer entry is released until it is resumed. */
+    public void pauseTrigger(TriggerKey key) {
+        TriggerHandle handle = key == null ? null : triggers.get(key);
+        if (handle != null) {
+            handle.pause();
+        }
+    }
+
+    /**
+     * Resumes a paused trigger. A fire missed while paused is handled by the
+     * trigger's misfire instruction: it either fires once right away or
+     * skips to the next scheduled time.
+     */
+    public void resumeTrigger(TriggerKey key) {
+        TriggerHandle handle = key == null ? null : triggers.get(key);
+        if (handle == null) {
+            return;
+        }
+        if (!handle.resume(timer, System.currentTimeMillis())) {
+            unregister(handle);
+        } else if (handle.nextFire > 0) {
+            checkpointer.record(checkpointKey(handle.trigger), handle.nextFire);
+        }
+    }
+
+    /** Pauses every trigger of a job. */
+    public void pauseJob(JobKey key) {
+        for (TriggerKey tk : jobTriggers.getOrDefault(key, Set.of())) {
+            pauseTrigger(tk);
+        }
+    }
+
+    /** Resumes every trigger of a job. */
+    public void resumeJob(JobKey key) {
+        for (TriggerKey tk : jobTriggers.getOrDefault(key, Set.of())) {
+            resumeTrigger(tk);
+        }
+    }
+
+    /**
+     * Pauses all triggers of jobs in the group. Triggers added to the group
+     * later start paused until {@link #resumeJobGroup(String)} is called.
+     */
+    public void pauseJobGroup(String group) {
+        pausedJobGroups.add(group);
+        for (JobKey jk : groupJobs.getOrDefault(group, Set.of())) {
+            pauseJob(jk);
+        }
+    }
+
+    /** Resumes all triggers of jobs in the group. */
+    public void resumeJobGroup(String group) {
+        pausedJobGroups.remove(group);
+        for (JobKey jk : groupJobs.getOrDefault(group, Set.of())) {
+            resumeJob(jk);
+        }
+    }
+
+    /** Returns whether the trigger is active, paused or unknown. */
+    public Trigger.TriggerState getTriggerState(TriggerKey key) {
+        TriggerHandle handle = key == null ? null : triggers.get(key);
+        if (handle == null) {
+            return Trigger.TriggerState.NONE;
+        }
+        return handle.isPaused() ? Trigger.TriggerState.PAUSED : Trigger.TriggerState.NORMAL;
+    }
+
+    /** Registers a trigger, cancelling any trigger previously stored under its key. */
+    private TriggerHandle register(JobDetail detail, Trigger trigger) {
+        JobKey jobKey = detail.getKey();
+        TriggerKey key = trigger.getKey();
+        TriggerHandle handle = new TriggerHandle(detail, trigger);
+        if (pausedJobGroups.contains(jobKey.getGroup())) {
+            handle.pause();
+        }
+        jobDetails.putIfAbsent(jobKey, detail);
+        jobTriggers.compute(jobKey, (k, set) -> {
+            Set<TriggerKey> keys = set != null ? set : ConcurrentHashMap.newKeySet();
+            keys.add(key);
+            return keys;
+        });
+        groupJobs.compute(jobKey.getGroup(), (g, set) -> {
+            Set<JobKey> keys = set != null ? set : ConcurrentHashMap.newKeySet();
+            keys.add(jobKey);
+            return keys;
+        });
+        TriggerHandle previous = triggers.put(key, handle);
+        if (previous != null) {
+            previous.cancel();
+            if (!previous.detail.getKey().equals(jobKey)) {
+                unindex(previous);
+            }
+        }
+        return handle;
+    }
+
+    /** Removes a trigger from the registry and its indexes and stops it firing. */
+    private boolean unregister(TriggerHandle handle) {
+        if (!triggers.remove(handle.trigger.getKey(), handle)) {
+            return false;
+        }
+        handle.cancel();
+        unindex(handle);
+        checkpointer.remove(checkpointKey(handle.trigger));
+        return true;
+    }
+
+    private void unindex(TriggerHandle handle) {
+        JobKey jobKey = handle.detail.getKey();
+        boolean[] last = new boolean[1];
+        jobTriggers.computeIfPresent(jobKey, (k, set) -> {
+            set.remove(handle.trigger.getKey());
+            last[0] = set.isEmpty();
+            return last[0] ? null : set;
+        });
+        if (last[0] && !handle.detail.isDurable()) {
+            jobDetails.remove(jobKey);
+            mailboxes.remove(jobKey);
+            groupJobs.computeIfPresent(jobKey.getGroup(), (g, set) -> {
+                set.remove(jobKey);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private void arm(TriggerHandle handle, boolean persisted) {
+        Trigger trigger = handle.trigger;
         if (trigger instanceof CronTrigger cron) {
-            scheduleCron(jobClass, cron);
+            scheduleCron(handle, cron);
         } else if (trigger instanceof SimpleTrigger st) {
-            scheduleSimple(jobClass, st);
+            scheduleSimple(handle, st);
         } else {
-            scheduleJob(jobClass);
+            unregister(handle);
+            if (persisted) {
+                scheduleJobInternal(handle.detail.getJobClass(), handle, 0, 0);
+            } else {
+                scheduleJob(handle.detail.getJobClass());
+            }
         }
     }
 
-    private void scheduleCron(Class<?> jobClass, CronTrigger cron) {
+    private void scheduleCron(TriggerHandle handle, CronTrigger cron) {
+        JobDetail detail = handle.detail;
+        Class<?> jobClass = detail.getJobClass();
         if (cronOffload) {
-            java.util.Map<String, Object> data = new java.util.HashMap<>();
-            if (cron.getTimeZone() != null) {
-                data.put("timeZone", cron.getTimeZone().getID());
-            }
-            dispatcher.dispatchCronJob(jobClass.getName(), cron.getCronExpression(),
-                    data.isEmpty() ? null : data);
+            dispatcher.dispatchCronJobAsync(jobClass.getName(), cron.getCronExpression(), handle.dispatchSpec())
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            error.printStackTrace();
+                        }
+                    });
             return;
         }
-        CronExpression expr;
+        CompiledCronExpression expr;
         try {
-            expr = new CronExpression(cron.getCronExpression());
+            expr = CompiledCronExpression.compile(cron.getCronExpression(), cron.getTimeZone());
         } catch (Exception e) {
+            unregister(handle);
             scheduleJob(jobClass);
             return;
         }
 
-        Date now = new Date();
-        if (cron.getStartTime() != null && cron.getStartTime().before(now)) {
+        long now = System.currentTimeMillis();
+        long saved = takeCheckpoint(handle);
+        if (saved == 0 && cron.getStartTime() != null && cron.getStartTime().getTime() < now) {
             int instr = cron.getMisfireInstruction();
-            if (instr == CronTrigger.MISFIRE_INSTRUCTION_FIRE_ONCE_NOW) {
-                scheduleJobInternal(jobClass, cron);
+            long missed = expr.nextFireTime(cron.getStartTime().getTime() - 1000);
+            if (instr == CronTrigger.MISFIRE_INSTRUCTION_FIRE_ONCE_NOW && missed >= 0 && missed < now) {
+                scheduleJobInternal(jobClass, handle, missed, 0);
             }
         }
 
-        Runnable task = new Runnable() {
-            @Override public void run() {
-                scheduleJobInternal(jobClass, cron);
-                Date next = expr.getNextValidTimeAfter(new Date());
-                if (next != null) {
-                    long delay = next.getTime() - System.currentTimeMillis();
-                    executor.schedule(this, delay, TimeUnit.MILLISECONDS);
-                }
+        // wheel deadlines are the cron fire times shifted by the smoothing offset
+        long offset = fireOffset(detail, cron);
+        long first = expr.nextFireTime(now);
+        if (first < 0) {
+            unregister(handle);
+            return;
+        }
+        first += offset;
+        boolean skipMissed = cron.getMisfireInstruction() == CronTrigger.MISFIRE_INSTRUCTION_DO_NOTHING;
+        java.util.function.LongUnaryOperator resumeAt = resumedAt -> {
+            long missed = handle.nextFire;
+            if (!skipMissed && missed > 0 && missed < resumedAt) {
+                return resumedAt;
             }
+            long next = expr.nextFireTime(resumedAt - offset);
+            return next < 0 ? next : next + offset;
         };
+        if (saved > 0) {
+            first = recoveredFirst(handle, saved, first, resumeAt);
+        }
+        String checkpoint = checkpointKey(cron);
+        checkpointer.record(checkpoint, first);
+        TimingWheel.Task task = t -> {
+            long next = expr.nextFireTime(System.currentTimeMillis() - offset);
+            scheduleJobInternal(jobClass, handle, t.deadline(), next < 0 ? 0 : next + offset);
+            if (next < 0) {
+                unregister(handle);
+                return;
+            }
+            next += offset;
+            handle.nextFire = next;
+            if (t.rearm(next)) {
+                checkpointer.advance(checkpoint, next);
+            }
+        };
+        handle.arm(timer, task, first, resumeAt);
+    }
 
-        Date first = expr.getNextValidTimeAfter(now);
-        if (first != null) {
-            long delay = first.getTime() - System.currentTimeMillis();
-            executor.schedule(task, Math.max(delay, 0), TimeUnit.MILLISECONDS);
+    /**
+     * Delay added to every timed fire of a job when FIRE_SMOOTHING_WINDOW_MILLIS
+     * is set. It is derived from a hash of the JobKey, so each job keeps the
+     * same slot within the window across fires and restarts while jobs
+     * sharing an expression spread out. Triggers or jobs whose data map sets
+     * {@code exactFireTime=true} are exempt.
+     */
+    long fireOffset(JobDetail detail, Trigger trigger) {
+        if (smoothingWindow <= 0
+                || Boolean.parseBoolean(String.valueOf(trigger.getJobDataMap().get("exactFireTime")))
+                || Boolean.parseBoolean(String.valueOf(detail.getJobDataMap().get("exactFireTime")))) {
+            return 0;
         }
+        long h = detail.getKey().toString().hashCode() * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(h ^ (h >>> 32), smoothingWindow);
     }
 
-    private void scheduleSimple(Class<?> jobClass, SimpleTrigger trig) {
+    private void scheduleSimple(TriggerHandle handle, SimpleTrigger trig) {
+        JobDetail detail = handle.detail;
+        Class<?> jobClass = detail.getJobClass();
         Date start = trig.getStartTime();
         long now = System.currentTimeMillis();
         long delay = 0;
@@ -187,11 +708,12 @@ public class QuartzKubeScheduler {
 
         int repeat = trig.getRepeatCount();
         long interval = trig.getRepeatInterval();
+        long saved = takeCheckpoint(handle);
 
-        if (delay < 0) {
+        if (delay < 0 && saved == 0) {
             int instr = trig.getMisfireInstruction();
             if (instr == SimpleTrigger.MISFIRE_INSTRUCTION_FIRE_NOW) {
-                scheduleJobInternal(jobClass, trig);
+                scheduleJobInternal(jobClass, handle, start.getTime(), 0);
                 if (repeat != SimpleTrigger.REPEAT_INDEFINITELY) {
                     repeat--;
                 }
@@ -208,111 +730,229 @@ public class QuartzKubeScheduler {
         }
 
         final int startRemaining = repeat;
-        Runnable task = new Runnable() {
+        String checkpoint = checkpointKey(trig);
+        TimingWheel.Task task = new TimingWheel.Task() {
             int remaining = startRemaining;
-            @Override public void run() {
-                scheduleJobInternal(jobClass, trig);
-                if (remaining == SimpleTrigger.REPEAT_INDEFINITELY || remaining-- > 0) {
-                    executor.schedule(this, interval, TimeUnit.MILLISECONDS);
+            @Override public void run(TimingWheel.Timeout t) {
+                boolean more = remaining == SimpleTrigger.REPEAT_INDEFINITELY || remaining-- > 0;
+                scheduleJobInternal(jobClass, handle, t.deadline(), more ? t.deadline() + interval : 0);
+                if (!more) {
+                    unregister(handle);
+                    return;
+                }
+                long next = t.deadline() + interval;
+                handle.nextFire = next;
+                if (t.rearm(next)) {
+                    checkpointer.advance(checkpoint, next);
                 }
             }
         };
 
-        executor.schedule(task, Math.max(delay, 0), TimeUnit.MILLISECONDS);
+        long first = now + Math.max(delay, 0) + fireOffset(detail, trig);
+        int instr = trig.getMisfireInstruction();
+        boolean skipMissed = instr == SimpleTrigger.MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_REMAINING_COUNT
+                || instr == SimpleTrigger.MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_EXISTING_COUNT;
+        java.util.function.LongUnaryOperator resumeAt = resumedAt -> {
+            long missed = handle.nextFire;
+            if (missed >= resumedAt) {
+                return missed;
+            }
+            if (!skipMissed || interval <= 0) {
+                return resumedAt;
+            }
+            return missed + ((resumedAt - missed + interval - 1) / interval) * interval;
+        };
+        if (saved > 0) {
+            first = recoveredFirst(handle, saved, first, resumeAt);
+        }
+        checkpointer.record(checkpoint, first);
+        handle.arm(timer, task, first, resumeAt);
     }
 
     private void scheduleJobInternal(Class<?> jobClass) {
-        scheduleJobInternal(jobClass, null);
+        scheduleJobInternal(jobClass, null, 0, 0);
     }
 
-    private void scheduleJobInternal(Class<?> jobClass, Trigger trigger) {
+    /**
+     * Hands a fire to the worker pool. {@code scheduledAt} is the time the
+     * trigger was due, or 0 for fires without one; when set, the delay from
+     * then until the job starts is recorded as fire lag for the job group.
+     * {@code nextAt} is the trigger's following fire, or 0 if none.
+     */
+    private void scheduleJobInternal(Class<?> jobClass, TriggerHandle handle, long scheduledAt, long nextAt) {
         if (leaderElection != null && !leaderElection.isLeader()) {
             return;
         }
-        boolean disallow = jobClass.isAnnotationPresent(DisallowConcurrentExecution.class);
-        if (disallow && running.contains(jobClass)) {
-            pending.computeIfAbsent(jobClass, k -> new ArrayDeque<>()).add(jobClass);
+        JobDetail detail = handle != null ? handle.detail : null;
+        Trigger trigger = handle != null ? handle.trigger : null;
+        ShardedLeaderElection shards = shardElection;
+        Object shardKey = detail != null ? detail.getKey() : jobClass.getName();
+        if (shards != null && !shards.owns(shardKey)) {
+            // the shard is moving here but its lease is not handed over yet: try again next round,
+            // unless the trigger fires again before then anyway
+            long retryAt = System.currentTimeMillis() + shards.getRenewIntervalMillis();
+            if (started && shards.isAssigned(shardKey) && (nextAt <= 0 || nextAt > retryAt)) {
+                timer.schedule(t -> scheduleJobInternal(jobClass, handle, scheduledAt, nextAt), retryAt);
+            }
             return;
         }
-        if (disallow) {
-            running.add(jobClass);
+        Metrics.getInstance().recordTriggerFire();
+        JobClassInfo info = JobClassInfo.of(jobClass);
+        long timeout = timeoutMillis(detail, trigger);
+        String group = detail != null ? detail.getKey().getGroup() : org.quartz.JobKey.DEFAULT_GROUP;
+        long previous = handle != null ? handle.markFired(scheduledAt) : 0;
+        FiredJobExecutionContext context = new FiredJobExecutionContext(
+                detail != null ? detail : info.jobDetail(), trigger, scheduledAt, previous, nextAt,
+                fireInstances.incrementAndGet());
+        Runnable run = () -> {
+            if (scheduledAt > 0) {
+                Metrics.getInstance().recordFireLag(group, Math.max(0, System.currentTimeMillis() - scheduledAt));
+            }
+            executeJob(jobClass, info, context, timeout);
+        };
+        int priority = trigger != null ? trigger.getPriority() : Trigger.DEFAULT_PRIORITY;
+        if (!info.isDisallowConcurrent()) {
+            readyQueue.submit(group, priority, run);
+            return;
         }
+        Object key = detail != null ? detail.getKey() : jobClass;
+        JobMailbox mailbox = mailboxes.get(key);
+        if (mailbox == null) {
+            NonConcurrentPolicy policy = detail != null
+                    ? NonConcurrentPolicy.parse(detail.getJobDataMap().get("nonConcurrentPolicy"), defaultPolicy)
+                    : defaultPolicy;
+            mailbox = mailboxes.computeIfAbsent(key, k -> new JobMailbox(policy, mailboxLimit,
+                    r -> readyQueue.submit(group, priority, r)));
+        }
+        mailbox.offer(run);
+    }
 
-        executor.submit(() -> {
-            for (TriggerListener tl : triggerListeners) {
-                try {
-                    tl.triggerFired(trigger, null);
-                } catch (Exception ignored) {}
-            }
-            boolean veto = false;
-            for (TriggerListener tl : triggerListeners) {
-                try {
-                    if (tl.vetoJobExecution(trigger, null)) {
-                        veto = true;
-                    }
-                } catch (Exception ignored) {}
-            }
-            if (veto) {
-                for (JobListener jl : jobListeners) {
-                    try { jl.jobExecutionVetoed(null); } catch (Exception ignore) {}
-                }
+    /**
+     * Execution timeout of a fire: {@code timeoutMillis} from the trigger's
+     * data map, then the job's, then JOB_TIMEOUT_MILLIS. Zero disables it.
+     */
+    long timeoutMillis(JobDetail detail, Trigger trigger) {
+        Object v = trigger != null ? trigger.getJobDataMap().get("timeoutMillis") : null;
+        if (v == null && detail != null) {
+            v = detail.getJobDataMap().get("timeoutMillis");
+        }
+        return v == null ? defaultTimeout : Math.max(0, parseLong(String.valueOf(v), defaultTimeout));
+    }
+
+    private void executeJob(Class<?> jobClass, JobClassInfo info, FiredJobExecutionContext context, long timeoutMillis) {
+        Trigger trigger = context.getTrigger();
+        boolean notify = !triggerListeners.isEmpty() || !jobListeners.isEmpty();
+        if (notify) {
+            events.publish(() -> {
                 for (TriggerListener tl : triggerListeners) {
-                    try { tl.triggerComplete(trigger, null, CompletedExecutionInstruction.NOOP); } catch (Exception ignore) {}
+                    try {
+                        tl.triggerFired(trigger, context);
+                    } catch (Exception ignored) {}
                 }
-                if (disallow) { finishNonConcurrent(jobClass); }
-                return;
-            }
-            for (JobListener jl : jobListeners) {
-                try { jl.jobToBeExecuted(null); } catch (Exception ignore) {}
-            }
-            Exception err = null;
-            long startTime = System.currentTimeMillis();
+            });
+        }
+        // vetoes decide whether the job runs, so they are the only synchronous callback
+        boolean veto = false;
+        for (TriggerListener tl : triggerListeners) {
             try {
-                Object obj = jobClass.getDeclaredConstructor().newInstance();
-                if (obj instanceof Runnable runnable) {
-                    runnable.run();
-                } else if (obj instanceof org.quartz.Job qjob) {
-                    qjob.execute(null);
-                } else {
-                    throw new IllegalArgumentException("Job class does not implement Runnable or Job");
+                if (tl.vetoJobExecution(trigger, context)) {
+                    veto = true;
                 }
-                Metrics.getInstance().recordSuccess();
-            } catch (Exception e) {
-                Metrics.getInstance().recordFailure();
-                err = e;
-                e.printStackTrace();
-            } finally {
-                Metrics.getInstance().recordDuration(System.currentTimeMillis() - startTime);
+            } catch (Exception ignored) {}
+        }
+        if (veto) {
+            events.publish(() -> {
                 for (JobListener jl : jobListeners) {
-                    try { jl.jobWasExecuted(null, err == null ? null : new org.quartz.JobExecutionException(err)); } catch (Exception ignore) {}
+                    try { jl.jobExecutionVetoed(context); } catch (Exception ignore) {}
                 }
                 for (TriggerListener tl : triggerListeners) {
-                    try { tl.triggerComplete(trigger, null, CompletedExecutionInstruction.NOOP); } catch (Exception ignore) {}
+                    try { tl.triggerComplete(trigger, context, CompletedExecutionInstruction.NOOP); } catch (Exception ignore) {}
                 }
-                if (disallow) {
-                    finishNonConcurrent(jobClass);
+            });
+            return;
+        }
+        if (notify) {
+            events.publish(() -> {
+                for (JobListener jl : jobListeners) {
+                    try { jl.jobToBeExecuted(context); } catch (Exception ignore) {}
                 }
+            });
+        }
+        Exception err = null;
+        ExecutionDeadline deadline = null;
+        boolean completed = false;
+        long startTime = System.currentTimeMillis();
+        try {
+            if (info.kind() == JobClassInfo.Kind.INVALID) {
+                throw new IllegalArgumentException("Job class does not implement Runnable or Job");
             }
-        });
+            Object obj = jobFactory.newJob(jobClass);
+            if (timeoutMillis > 0) {
+                deadline = ExecutionDeadline.start(timer, executor, interrupts, obj, timeoutMillis);
+            }
+            if (obj instanceof Runnable runnable) {
+                runnable.run();
+            } else if (obj instanceof org.quartz.Job qjob) {
+                context.setJobInstance(qjob);
+                qjob.execute(context);
+            } else {
+                throw new IllegalArgumentException("Job class does not implement Runnable or Job");
+            }
+            completed = true;
+        } catch (Exception e) {
+            err = e;
+        } finally {
+            if (deadline != null && deadline.finish()) {
+                // counted as a timeout when the deadline expired, not as a failure
+                err = new JobTimeoutException(jobClass.getName(), timeoutMillis);
+            } else if (completed) {
+                Metrics.getInstance().recordSuccess();
+            } else if (err != null) {
+                Metrics.getInstance().recordFailure();
+                err.printStackTrace();
+            }
+            long runTime = System.currentTimeMillis() - startTime;
+            context.setJobRunTime(runTime);
+            Metrics.getInstance().recordDuration(runTime);
+            if (notify) {
+                org.quartz.JobExecutionException jee = err == null ? null
+                        : err instanceof JobTimeoutException timedOut ? timedOut
+                        : new org.quartz.JobExecutionException(err);
+                events.publish(() -> {
+                    for (JobListener jl : jobListeners) {
+                        try { jl.jobWasExecuted(context, jee); } catch (Exception ignore) {}
+                    }
+                    for (TriggerListener tl : triggerListeners) {
+                        try { tl.triggerComplete(trigger, context, CompletedExecutionInstruction.NOOP); } catch (Exception ignore) {}
+                    }
+                });
+            }
+        }
     }
 
-    private void finishNonConcurrent(Class<?> jobClass) {
-        Queue<Class<?>> q = pending.get(jobClass);
-        Class<?> next;
-        if (q != null && (next = q.poll()) != null) {
-            running.remove(jobClass);
-            executor.schedule(() -> scheduleJobInternal(next), 50, java.util.concurrent.TimeUnit.MILLISECONDS);
-        } else {
-            running.remove(jobClass);
-        }
+    /**
+     * Waits until listener events published so far have been delivered.
+     * Returns false if the timeout elapsed first.
+     */
+    public boolean awaitListenerDelivery(long timeoutMillis) {
+        return events.awaitDelivery(timeoutMillis);
     }
 
-    /** Shuts down the scheduler executor. */
+    /** Shuts down the trigger timer, the job worker executor and the dispatcher. */
     public void shutdown() {
+        timer.stop();
+        checkpointer.shutdown();
+        triggerExecutor.shutdownNow();
+        interrupts.shutdownNow();
         executor.shutdownNow();
+        events.shutdown();
+        dispatcher.close();
         if (leaderElection != null) {
             leaderElection.stop();
         }
+        if (shardElection != null) {
+            shardElection.stop();
+        }
         started = false;
     }
 }
@@ -0,0 +1,72 @@
+package com.quartzkube.core;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+
+/**
+ * {@link KubernetesApiService} decorator that takes a token from a shared
+ * {@link TokenBucket} before every call, so the dispatcher stays under a
+ * client-side request rate however its calls are spread across threads.
+ * Time spent waiting for tokens is recorded in {@link Metrics}.
+ */
+final class RateLimitedKubernetesApiService implements KubernetesApiService {
+    private final KubernetesApiService delegate;
+    private final TokenBucket bucket;
+
+    RateLimitedKubernetesApiService(KubernetesApiService delegate, TokenBucket bucket) {
+        this.delegate = delegate;
+        this.bucket = bucket;
+    }
+
+    @Override
+    public void create(String manifest) throws Exception {
+        throttle();
+        delegate.create(manifest);
+    }
+
+    @Override
+    public String readPodLog(String podName) throws Exception {
+        throttle();
+        return delegate.readPodLog(podName);
+    }
+
+    @Override
+    public java.io.InputStream streamPodLog(String podName, boolean follow) throws Exception {
+        throttle();
+        return delegate.streamPodLog(podName, follow);
+    }
+
+    @Override
+    public Watch watchPod(String podName, Watcher<Pod> watcher) {
+        throttleUninterruptibly();
+        return delegate.watchPod(podName, watcher);
+    }
+
+    @Override
+    public Watch watchPods(String labelSelector, Watcher<Pod> watcher) {
+        throttleUninterruptibly();
+        return delegate.watchPods(labelSelector, watcher);
+    }
+
+    @Override
+    public java.util.List<String> listPodNames(String labelSelector) throws Exception {
+        throttle();
+        return delegate.listPodNames(labelSelector);
+    }
+
+    private void throttle() throws InterruptedException {
+        long waited = bucket.acquire();
+        if (waited > 0) {
+            Metrics.getInstance().recordApiThrottle(java.util.concurrent.TimeUnit.NANOSECONDS.toMillis(waited));
+        }
+    }
+
+    private void throttleUninterruptibly() {
+        try {
+            throttle();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
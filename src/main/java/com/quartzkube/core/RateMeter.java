@@ -0,0 +1,59 @@
+package com.quartzkube.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events per wall-clock second. Besides the running total it keeps
+ * the count of the last completed second and the busiest second seen, which
+ * shows bursts that a scrape-interval rate would average away.
+ */
+final class RateMeter {
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong second = new AtomicLong();
+    private final AtomicLong current = new AtomicLong();
+    private final AtomicLong last = new AtomicLong();
+    private final AtomicLong peak = new AtomicLong();
+
+    void record() {
+        record(System.currentTimeMillis());
+    }
+
+    void record(long nowMillis) {
+        long sec = nowMillis / 1000;
+        long seen = second.get();
+        if (sec > seen && second.compareAndSet(seen, sec)) {
+            long finished = current.getAndSet(0);
+            last.set(sec == seen + 1 ? finished : 0);
+            peak.accumulateAndGet(finished, Math::max);
+        }
+        peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+        total.increment();
+    }
+
+    long total() {
+        return total.sum();
+    }
+
+    /** Events in the last completed second. */
+    long lastSecond() {
+        long sec = System.currentTimeMillis() / 1000;
+        long seen = second.get();
+        if (sec == seen + 1) {
+            return current.get();
+        }
+        return sec == seen ? last.get() : 0;
+    }
+
+    /** Highest number of events recorded within one second. */
+    long peak() {
+        return peak.get();
+    }
+
+    void reset() {
+        total.reset();
+        current.set(0);
+        last.set(0);
+        peak.set(0);
+    }
+}
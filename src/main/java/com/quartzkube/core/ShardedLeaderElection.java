@@ -0,0 +1,336 @@
+package com.quartzkube.core;
+
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseSpec;
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Splits scheduling work across replicas. Job keys map to a fixed number of
+ * shards with jump consistent hashing, every shard is guarded by its own
+ * Kubernetes Lease and each replica renews a member lease so peers can see
+ * who is alive. Shards are assigned to live members by rendezvous hashing:
+ * when a replica joins or leaves only the shards whose highest-scoring member
+ * changed move, and the previous holder releases a shard before the new one
+ * takes it, so a key is never owned by two replicas at once.
+ */
+public class ShardedLeaderElection {
+    static final String GROUP_LABEL = "quartzkube.io/shard-group";
+    static final String ROLE_LABEL = "quartzkube.io/lease-role";
+
+    private final KubernetesClient client;
+    private final String namespace;
+    private final String prefix;
+    private final int shards;
+    private final long leaseDurationMillis;
+    private final String identity = UUID.randomUUID().toString();
+    private final AtomicLongArray ownedUntil;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "quartzkube-shard-election");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile List<String> members = List.of();
+    private final CountDownLatch reconciled = new CountDownLatch(1);
+
+    public ShardedLeaderElection(String apiUrl, String namespace, String prefix, int shards) {
+        this(new KubernetesClientBuilder().withConfig(config(apiUrl, namespace)).build(),
+                namespace, prefix, shards, 10000);
+    }
+
+    /**
+     * @param leaseDurationMillis how long a lease stays valid without renewal;
+     *                            rounded up to whole seconds as required by
+     *                            the Lease API
+     */
+    public ShardedLeaderElection(KubernetesClient client, String namespace, String prefix, int shards,
+                                 long leaseDurationMillis) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be positive");
+        }
+        this.client = client;
+        this.namespace = namespace;
+        this.prefix = prefix;
+        this.shards = shards;
+        this.leaseDurationMillis = Math.max(1000, (leaseDurationMillis + 999) / 1000 * 1000);
+        this.ownedUntil = new AtomicLongArray(shards);
+    }
+
+    private static Config config(String apiUrl, String namespace) {
+        return new ConfigBuilder()
+                .withMasterUrl(apiUrl)
+                .withNamespace(namespace)
+                .withTrustCerts(true)
+                .build();
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::reconcile, 0, getRenewIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits until the first reconciliation round has finished, successfully
+     * or not, so the initial membership and leases are known. Gives up after
+     * one lease duration and returns false.
+     */
+    public boolean awaitFirstReconcile() throws InterruptedException {
+        return reconciled.await(leaseDurationMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Time between reconciliation rounds. */
+    public long getRenewIntervalMillis() {
+        return leaseDurationMillis / 3;
+    }
+
+    /** Stops renewing and hands every owned shard back immediately. */
+    public void stop() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(leaseDurationMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (int shard = 0; shard < shards; shard++) {
+            if (ownedUntil.getAndSet(shard, 0) > 0) {
+                try {
+                    release(client.leases().inNamespace(namespace).withName(shardLeaseName(shard)).get());
+                } catch (KubernetesClientException ignored) {
+                }
+            }
+        }
+        try {
+            client.leases().inNamespace(namespace).withName(memberLeaseName()).delete();
+        } catch (KubernetesClientException ignored) {
+        }
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    public int getShardCount() {
+        return shards;
+    }
+
+    /** Shard a job key belongs to. */
+    public int shardOf(Object key) {
+        return jumpHash(mix(key.toString().hashCode()), shards);
+    }
+
+    /** Whether this replica currently holds the lease of the key's shard. */
+    public boolean owns(Object key) {
+        return ownsShard(shardOf(key));
+    }
+
+    /**
+     * Whether the current membership view assigns the key's shard to this
+     * replica, even if the previous holder has not handed its lease over yet.
+     */
+    public boolean isAssigned(Object key) {
+        return identity.equals(ownerOf(shardOf(key), members));
+    }
+
+    public boolean ownsShard(int shard) {
+        return ownedUntil.get(shard) > System.currentTimeMillis();
+    }
+
+    /** Shards whose lease this replica currently holds. */
+    public Set<Integer> ownedShards() {
+        Set<Integer> out = new TreeSet<>();
+        for (int shard = 0; shard < shards; shard++) {
+            if (ownsShard(shard)) {
+                out.add(shard);
+            }
+        }
+        return out;
+    }
+
+    /** Live members seen in the last reconciliation, sorted by identity. */
+    public List<String> members() {
+        return members;
+    }
+
+    /** Member that rendezvous hashing assigns the shard to. */
+    static String ownerOf(int shard, List<String> members) {
+        String best = null;
+        long bestScore = 0;
+        for (String m : members) {
+            long score = mix(m.hashCode() * 0x9E3779B97F4A7C15L + shard);
+            if (best == null || Long.compareUnsigned(score, bestScore) > 0) {
+                best = m;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /** Jump consistent hash (Lamping and Veach) of a key into {@code buckets}. */
+    static int jumpHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53f74bbL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    void reconcile() {
+        try {
+            reconcileLeases();
+        } finally {
+            reconciled.countDown();
+        }
+    }
+
+    private void reconcileLeases() {
+        try {
+            renewMember();
+            members = liveMembers();
+        } catch (KubernetesClientException e) {
+            // without a membership view keep the current leases until they lapse
+            return;
+        }
+        Map<String, Lease> leases = new HashMap<>();
+        try {
+            // one list call per round; only leases that change are written
+            for (Lease lease : client.leases().inNamespace(namespace)
+                    .withLabel(GROUP_LABEL, prefix).withLabel(ROLE_LABEL, "shard").list().getItems()) {
+                leases.put(lease.getMetadata().getName(), lease);
+            }
+        } catch (KubernetesClientException e) {
+            return;
+        }
+        for (int shard = 0; shard < shards; shard++) {
+            Lease lease = leases.get(shardLeaseName(shard));
+            try {
+                if (identity.equals(ownerOf(shard, members))) {
+                    acquire(shard, lease);
+                } else if (ownedUntil.getAndSet(shard, 0) > 0) {
+                    release(lease);
+                }
+            } catch (KubernetesClientException ignored) {
+                // a conflicting update means another member won this round
+            }
+        }
+    }
+
+    private String memberLeaseName() {
+        return prefix + "-member-" + identity;
+    }
+
+    private String shardLeaseName(int shard) {
+        return prefix + "-shard-" + shard;
+    }
+
+    private Lease newLease(String name, String role, String holder) {
+        return new LeaseBuilder()
+                .withNewMetadata()
+                    .withName(name)
+                    .addToLabels(GROUP_LABEL, prefix)
+                    .addToLabels(ROLE_LABEL, role)
+                .endMetadata()
+                .withNewSpec()
+                    .withHolderIdentity(holder)
+                    .withRenewTime(ZonedDateTime.now())
+                    .withLeaseDurationSeconds((int) (leaseDurationMillis / 1000))
+                .endSpec()
+                .build();
+    }
+
+    private void renewMember() {
+        Lease lease = client.leases().inNamespace(namespace).withName(memberLeaseName()).get();
+        if (lease == null) {
+            client.leases().inNamespace(namespace).resource(newLease(memberLeaseName(), "member", identity)).create();
+        } else {
+            lease.getSpec().setRenewTime(ZonedDateTime.now());
+            client.leases().inNamespace(namespace).resource(lease).update();
+        }
+    }
+
+    private List<String> liveMembers() {
+        long now = System.currentTimeMillis();
+        List<String> live = new ArrayList<>();
+        for (Lease lease : client.leases().inNamespace(namespace)
+                .withLabel(GROUP_LABEL, prefix).withLabel(ROLE_LABEL, "member").list().getItems()) {
+            LeaseSpec spec = lease.getSpec();
+            if (spec != null && spec.getHolderIdentity() != null && expiry(spec) > now) {
+                live.add(spec.getHolderIdentity());
+            }
+        }
+        if (!live.contains(identity)) {
+            live.add(identity);
+        }
+        live.sort(null);
+        return List.copyOf(live);
+    }
+
+    private static long expiry(LeaseSpec spec) {
+        long renew = spec.getRenewTime() != null ? spec.getRenewTime().toInstant().toEpochMilli() : 0;
+        int seconds = spec.getLeaseDurationSeconds() != null ? spec.getLeaseDurationSeconds() : 0;
+        return renew + seconds * 1000L;
+    }
+
+    private void acquire(int shard, Lease lease) {
+        String name = shardLeaseName(shard);
+        long now = System.currentTimeMillis();
+        if (lease == null) {
+            client.leases().inNamespace(namespace).resource(newLease(name, "shard", identity)).create();
+        } else {
+            LeaseSpec spec = lease.getSpec();
+            String holder = spec.getHolderIdentity();
+            if (holder != null && !identity.equals(holder) && expiry(spec) > now) {
+                // the previous owner has not handed the shard over yet
+                return;
+            }
+            if (!identity.equals(holder)) {
+                spec.setLeaseTransitions(spec.getLeaseTransitions() == null ? 1 : spec.getLeaseTransitions() + 1);
+            }
+            spec.setHolderIdentity(identity);
+            spec.setRenewTime(ZonedDateTime.now());
+            spec.setLeaseDurationSeconds((int) (leaseDurationMillis / 1000));
+            client.leases().inNamespace(namespace).resource(lease).update();
+        }
+        // stop acting as owner one renew period before peers may take over
+        ownedUntil.set(shard, now + leaseDurationMillis - leaseDurationMillis / 3);
+    }
+
+    private void release(Lease lease) {
+        try {
+            if (lease != null && identity.equals(lease.getSpec().getHolderIdentity())) {
+                lease.getSpec().setHolderIdentity(null);
+                client.leases().inNamespace(namespace).resource(lease).update();
+            }
+        } catch (KubernetesClientException ignored) {
+            // the lease simply expires
+        }
+    }
+}
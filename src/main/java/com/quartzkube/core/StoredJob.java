@@ -0,0 +1,9 @@
+package com.quartzkube.core;
+
+/**
+ * A persisted job entry as returned by paged {@link JobStore} loads.
+ *
+ * @param jobClass fully qualified job class name
+ */
+public record StoredJob(String jobClass) {
+}
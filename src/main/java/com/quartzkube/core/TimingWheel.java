@@ -0,0 +1,338 @@
+package com.quartzkube.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hierarchical hashed timing wheel driven by a single ticker thread.
+ * Each level holds 256 buckets; a timeout is placed on the lowest level whose
+ * span covers its deadline and is cascaded down as the wheel turns, so
+ * inserting, cancelling and expiring a timeout are all O(1).
+ * Expired timeouts are handed to the dispatch executor in batches.
+ * A {@link Timeout} can be re-armed from its own task, which lets recurring
+ * triggers fire indefinitely without allocating on every fire.
+ */
+public final class TimingWheel {
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 6;
+    private static final long MAX_TICKS = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    /** Work executed when a timeout expires. */
+    public interface Task {
+        void run(Timeout timeout);
+    }
+
+    private final long tickMillis;
+    private final int batchSize;
+    private final Executor dispatchExecutor;
+    private final Bucket[][] wheels = new Bucket[LEVELS][WHEEL_SIZE];
+    private final Queue<Timeout> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> pendingCancels = new ConcurrentLinkedQueue<>();
+    private final List<Timeout> due = new ArrayList<>();
+    private final String name;
+    private volatile Thread ticker;
+    private volatile boolean running;
+    private volatile boolean idle;
+    private long startMillis;
+    private long currentTick;
+    private int count;
+
+    public TimingWheel(long tickMillis, Executor dispatchExecutor) {
+        this("quartzkube-timer", tickMillis, 64, dispatchExecutor);
+    }
+
+    public TimingWheel(String name, long tickMillis, int batchSize, Executor dispatchExecutor) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.name = name;
+        this.tickMillis = tickMillis;
+        this.batchSize = Math.max(1, batchSize);
+        this.dispatchExecutor = dispatchExecutor;
+        for (int l = 0; l < LEVELS; l++) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheels[l][i] = new Bucket();
+            }
+        }
+    }
+
+    /** Starts the ticker thread. Calling start on a running wheel has no effect. */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        startMillis = System.currentTimeMillis();
+        currentTick = 0;
+        Thread t = new Thread(this::runTicker, name);
+        t.setDaemon(true);
+        ticker = t;
+        t.start();
+    }
+
+    /** Stops the ticker thread. Pending timeouts are discarded. */
+    public synchronized void stop() {
+        running = false;
+        Thread t = ticker;
+        if (t != null) {
+            LockSupport.unpark(t);
+            ticker = null;
+        }
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /** Schedules a task to run at the given epoch millisecond deadline. */
+    public Timeout schedule(Task task, long deadlineMillis) {
+        Timeout t = new Timeout(this, task);
+        t.rearm(deadlineMillis);
+        return t;
+    }
+
+    private void enqueue(Timeout t) {
+        pendingAdds.add(t);
+        if (idle) {
+            Thread th = ticker;
+            if (th != null) {
+                LockSupport.unpark(th);
+            }
+        }
+    }
+
+    private void runTicker() {
+        while (running) {
+            long now = System.currentTimeMillis();
+            long target = Math.max(0, (now - startMillis) / tickMillis);
+            if (count == 0 && target > currentTick) {
+                // nothing is waiting, so skip the elapsed ticks in one step
+                currentTick = target;
+            }
+            drainCancels();
+            drainAdds();
+            while (currentTick < target) {
+                currentTick++;
+                cascade(currentTick);
+                expire(wheels[0][(int) (currentTick & WHEEL_MASK)]);
+            }
+            flushDue();
+            if (count == 0) {
+                idle = true;
+                if (pendingAdds.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+            } else {
+                long wake = startMillis + (currentTick + 1) * tickMillis;
+                long sleep = wake - System.currentTimeMillis();
+                if (sleep > 0) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(sleep));
+                }
+            }
+        }
+    }
+
+    private void drainCancels() {
+        Timeout t;
+        while ((t = pendingCancels.poll()) != null) {
+            if (t.bucket != null) {
+                t.bucket.remove(t);
+                count--;
+            }
+        }
+    }
+
+    private void drainAdds() {
+        Timeout t;
+        while ((t = pendingAdds.poll()) != null) {
+            if (t.state.get() == Timeout.PENDING) {
+                place(t);
+            }
+        }
+    }
+
+    private void place(Timeout t) {
+        long deadlineTick = Math.max(0, Math.floorDiv(t.deadline - startMillis + tickMillis - 1, tickMillis));
+        if (deadlineTick <= currentTick) {
+            if (t.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+                due.add(t);
+            }
+            return;
+        }
+        long tick = Math.min(deadlineTick, currentTick + MAX_TICKS);
+        int level = (63 - Long.numberOfLeadingZeros(tick ^ currentTick)) / WHEEL_BITS;
+        int slot = (int) ((tick >>> (level * WHEEL_BITS)) & WHEEL_MASK);
+        wheels[level][slot].add(t);
+        count++;
+    }
+
+    private void cascade(long tick) {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((tick & ((1L << (level * WHEEL_BITS)) - 1)) == 0) {
+                Bucket b = wheels[level][(int) ((tick >>> (level * WHEEL_BITS)) & WHEEL_MASK)];
+                Timeout t;
+                while ((t = b.poll()) != null) {
+                    count--;
+                    if (t.state.get() == Timeout.PENDING) {
+                        place(t);
+                    }
+                }
+            }
+        }
+    }
+
+    private void expire(Bucket b) {
+        Timeout t;
+        while ((t = b.poll()) != null) {
+            count--;
+            if (t.deadline > startMillis + currentTick * tickMillis) {
+                // deadline lay beyond the wheel horizon when it was placed
+                place(t);
+            } else if (t.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+                due.add(t);
+            }
+        }
+    }
+
+    private void flushDue() {
+        int n = due.size();
+        for (int from = 0; from < n; from += batchSize) {
+            Timeout[] batch = due.subList(from, Math.min(n, from + batchSize)).toArray(new Timeout[0]);
+            try {
+                dispatchExecutor.execute(() -> {
+                    for (Timeout t : batch) {
+                        t.runTask();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // executor shut down - nothing left to run
+            }
+        }
+        due.clear();
+    }
+
+    /**
+     * Handle for a scheduled task. Only the ticker thread touches the bucket
+     * links; other threads communicate through the wheel's queues.
+     */
+    public static final class Timeout {
+        static final int INIT = 0;
+        static final int PENDING = 1;
+        static final int EXPIRED = 2;
+        static final int CANCELLED = 3;
+
+        private final TimingWheel wheel;
+        private final Task task;
+        private final AtomicInteger state = new AtomicInteger(INIT);
+        private volatile long deadline;
+        private Timeout prev;
+        private Timeout next;
+        private Bucket bucket;
+
+        private Timeout(TimingWheel wheel, Task task) {
+            this.wheel = wheel;
+            this.task = task;
+        }
+
+        /** Epoch millisecond deadline of the current arming. */
+        public long deadline() {
+            return deadline;
+        }
+
+        /**
+         * Arms this timeout again for a new deadline. Only valid once the
+         * previous deadline has expired; returns false if it was cancelled.
+         */
+        public boolean rearm(long deadlineMillis) {
+            int s = state.get();
+            if ((s != INIT && s != EXPIRED) || !state.compareAndSet(s, PENDING)) {
+                return false;
+            }
+            deadline = deadlineMillis;
+            wheel.enqueue(this);
+            return true;
+        }
+
+        /** Cancels this timeout. Returns false if it was already cancelled. */
+        public boolean cancel() {
+            while (true) {
+                int s = state.get();
+                if (s == CANCELLED) {
+                    return false;
+                }
+                if (state.compareAndSet(s, CANCELLED)) {
+                    if (s == PENDING) {
+                        wheel.pendingCancels.add(this);
+                    }
+                    return true;
+                }
+            }
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private void runTask() {
+            if (state.get() != EXPIRED) {
+                return;
+            }
+            try {
+                task.run(this);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout t) {
+            t.bucket = this;
+            t.prev = tail;
+            t.next = null;
+            if (tail == null) {
+                head = t;
+            } else {
+                tail.next = t;
+            }
+            tail = t;
+        }
+
+        void remove(Timeout t) {
+            if (t.prev == null) {
+                head = t.next;
+            } else {
+                t.prev.next = t.next;
+            }
+            if (t.next == null) {
+                tail = t.prev;
+            } else {
+                t.next.prev = t.prev;
+            }
+            t.prev = null;
+            t.next = null;
+            t.bucket = null;
+        }
+
+        Timeout poll() {
+            Timeout t = head;
+            if (t != null) {
+                remove(t);
+            }
+            return t;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.quartzkube.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket refilled at a fixed rate up to a burst size. A caller that
+ * finds the bucket empty reserves the next token and sleeps until it is due,
+ * so waiting callers are served in arrival order without a queue.
+ */
+final class TokenBucket {
+    private final double tokensPerNano;
+    private final double burst;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double perSecond, int burst) {
+        this.tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /** Takes a token, sleeping until one is available. Returns the nanoseconds waited. */
+    long acquire() throws InterruptedException {
+        long wait = reserve(System.nanoTime());
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        return wait;
+    }
+
+    /** Takes a token at {@code now} and returns how long until it may be used. */
+    synchronized long reserve(long now) {
+        tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+}
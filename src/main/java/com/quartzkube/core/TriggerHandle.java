@@ -0,0 +1,120 @@
+package com.quartzkube.core;
+
+import org.quartz.JobDetail;
+import org.quartz.Trigger;
+
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Registry entry for a trigger scheduled in process: the trigger, the job it
+ * fires and the timing wheel entry currently armed for it, if any. Pausing
+ * cancels the wheel entry outright so a paused trigger holds no timer slot;
+ * resuming arms a fresh entry for the same task at the deadline chosen by
+ * the trigger's resume policy.
+ */
+final class TriggerHandle {
+    final JobDetail detail;
+    final Trigger trigger;
+    volatile TimingWheel.Timeout timeout;
+    /** Deadline of the next fire, or 0 before the trigger is armed. */
+    volatile long nextFire;
+    /** Due time of the last fire handed to the workers, or 0 before the first. */
+    private long lastFire;
+    private TimingWheel.Task task;
+    private LongUnaryOperator resumeAt;
+    private boolean paused;
+    private boolean cancelled;
+    private volatile DispatchSpec dispatchSpec;
+
+    TriggerHandle(JobDetail detail, Trigger trigger) {
+        this.detail = detail;
+        this.trigger = trigger;
+    }
+
+    /**
+     * Arms the trigger on the wheel. {@code resumeAt} maps the resume time to
+     * the next deadline after a pause, or a negative value if the trigger
+     * has no fires left. Does nothing once the trigger was cancelled, so a
+     * fire racing with unscheduling cannot re-arm it.
+     */
+    synchronized void arm(TimingWheel timer, TimingWheel.Task task, long deadline, LongUnaryOperator resumeAt) {
+        if (cancelled) {
+            return;
+        }
+        this.task = task;
+        this.resumeAt = resumeAt;
+        this.nextFire = deadline;
+        if (!paused) {
+            timeout = timer.schedule(task, deadline);
+        }
+    }
+
+    /**
+     * Kubernetes options of this trigger and its job, compiled on first use
+     * and reused by every later dispatch.
+     */
+    DispatchSpec dispatchSpec() {
+        DispatchSpec spec = dispatchSpec;
+        if (spec == null) {
+            spec = DispatchSpec.of(detail, trigger);
+            dispatchSpec = spec;
+        }
+        return spec;
+    }
+
+    /** Records a fire due at {@code at} and returns the previous one, or 0. */
+    synchronized long markFired(long at) {
+        long previous = lastFire;
+        lastFire = at;
+        return previous;
+    }
+
+    /** Cancels the armed timeout for good; later arms and resumes are ignored. */
+    synchronized void cancel() {
+        cancelled = true;
+        cancelTimeout();
+    }
+
+    private void cancelTimeout() {
+        TimingWheel.Timeout t = timeout;
+        if (t != null) {
+            t.cancel();
+        }
+        timeout = null;
+    }
+
+    synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /** Pauses the trigger, releasing its timer entry. Returns false if already paused. */
+    synchronized boolean pause() {
+        if (paused) {
+            return false;
+        }
+        paused = true;
+        cancelTimeout();
+        return true;
+    }
+
+    /**
+     * Resumes a paused trigger. Returns false if the trigger has no fires
+     * left and should be removed.
+     */
+    synchronized boolean resume(TimingWheel timer, long now) {
+        if (!paused) {
+            return true;
+        }
+        paused = false;
+        if (task == null || cancelled) {
+            return true;
+        }
+        long at = resumeAt.applyAsLong(now);
+        if (at < 0) {
+            return false;
+        }
+        nextFire = at;
+        timeout = timer.schedule(task, at);
+        return true;
+    }
+}
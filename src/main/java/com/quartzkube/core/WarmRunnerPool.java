@@ -0,0 +1,422 @@
+package com.quartzkube.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of warm runners ({@code com.quartzkube.runner.WarmRunner}) that keep
+ * a JVM running and pull jobs from the scheduler over a line protocol on a
+ * local TCP port, so a short job starts in milliseconds instead of waiting
+ * for a pod. A runner takes one job at a time; idle runners are pinged
+ * every health interval and dropped when they do not answer in time, and a
+ * runner is told to exit after {@code maxRuns} jobs so leaks in job code do
+ * not accumulate. When no runner is idle {@link #tryRun} declines and the
+ * caller dispatches a regular Job.
+ *
+ * <p>Runners are started outside the scheduler, e.g. as a Deployment, or as
+ * local processes with {@link #startLocalRunners}, which also replaces
+ * runners that exit. At most {@code size} runners are connected at once.</p>
+ *
+ * <p>A runner executes whatever class it is told to, so the port only
+ * accepts runners whose {@code HELLO} carries the pool's shared token, and
+ * it should stay bound to loopback unless runners connect from other
+ * hosts.</p>
+ */
+final class WarmRunnerPool {
+    /** First delay before replacing a local runner that failed. */
+    static final long RESTART_BACKOFF_MILLIS = 1000;
+    static final long MAX_RESTART_BACKOFF_MILLIS = 60_000;
+    /** A local runner that exits sooner than this, or with an error, counts as failed. */
+    static final long MIN_HEALTHY_UPTIME_MILLIS = 10_000;
+    /** Consecutive failed local runners after which no more are started. */
+    static final int MAX_FAILED_RESTARTS = 10;
+
+    private final ServerSocket server;
+    private final byte[] token;
+    private final int size;
+    private final int maxRuns;
+    private final long healthTimeoutMillis;
+    private final BlockingDeque<Runner> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger connected = new AtomicInteger();
+    private final ExecutorService runs = Executors.newCachedThreadPool(daemon("quartzkube-warm-run"));
+    private final ScheduledExecutorService health = Executors.newSingleThreadScheduledExecutor(daemon("quartzkube-warm-health"));
+    private final java.util.List<Process> localRunners = new java.util.concurrent.CopyOnWriteArrayList<>();
+    private final AtomicInteger failedRestarts = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * Listens on {@code bindAddress:port}; port 0 picks a free one. Runners
+     * must present {@code token} in their {@code HELLO}.
+     */
+    WarmRunnerPool(String bindAddress, int port, String token, int size, int maxRuns, long healthIntervalMillis,
+                   long healthTimeoutMillis) throws IOException {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("Warm pool token required");
+        }
+        ServerSocket socket = new ServerSocket();
+        try {
+            socket.setReuseAddress(true);
+            socket.bind(new InetSocketAddress(InetAddress.getByName(bindAddress), port), 50);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        this.server = socket;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        this.size = size;
+        this.maxRuns = Math.max(1, maxRuns);
+        this.healthTimeoutMillis = healthTimeoutMillis;
+        Thread acceptor = new Thread(this::acceptLoop, "quartzkube-warm-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        if (healthIntervalMillis > 0) {
+            health.scheduleWithFixedDelay(this::checkIdle, healthIntervalMillis, healthIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Port runners connect to. */
+    int port() {
+        return server.getLocalPort();
+    }
+
+    /** Runners waiting for a job. */
+    int idleRunners() {
+        return idle.size();
+    }
+
+    /**
+     * Whether a dispatch with these options can run on a warm runner: it may
+     * not change the pod's image, resources, service account or template,
+     * and its only environment entry may be {@code JOB_DATA}. Labels,
+     * annotations and the backoff limit are ignored.
+     */
+    static boolean accepts(DispatchSpec spec) {
+        return spec.image == null && spec.cpu == null && spec.memory == null && spec.serviceAccount == null
+                && spec.templateFile == null && spec.affinity == null && spec.extraContainers == null
+                && spec.volumes == null
+                && (spec.env == null || spec.env.isEmpty()
+                    || (spec.env.size() == 1 && spec.env.containsKey("JOB_DATA")));
+    }
+
+    /**
+     * Hands the job to an idle runner and returns {@code true}, or returns
+     * {@code false} without side effects when none is idle. {@code handle}
+     * completes with whether the job succeeded, or exceptionally if the
+     * runner was lost mid-run. Output lines go to {@code logs} if not null.
+     */
+    boolean tryRun(String jobClass, String jobData, PodLogHandler logs, CompletableFuture<Boolean> handle) {
+        Runner runner = idle.pollFirst();
+        if (runner == null) {
+            Metrics.getInstance().recordWarmFallback();
+            return false;
+        }
+        Metrics.getInstance().adjustWarmIdle(-1);
+        Metrics.getInstance().recordWarmRun();
+        try {
+            runs.execute(() -> run(runner, jobClass, jobData, logs, handle));
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            release(runner);
+            return false;
+        }
+        return true;
+    }
+
+    private void run(Runner runner, String jobClass, String jobData, PodLogHandler logs,
+                     CompletableFuture<Boolean> handle) {
+        try {
+            runner.send("RUN\t" + jobClass + "\t" + URLEncoder.encode(jobData == null ? "" : jobData,
+                    StandardCharsets.UTF_8));
+            String line;
+            while ((line = runner.in.readLine()) != null && !line.startsWith("DONE")) {
+                if (line.startsWith("LOG\t") && logs != null) {
+                    try {
+                        logs.handle(jobClass, line.substring(4));
+                    } catch (RuntimeException ignored) {
+                        // keep reading so the runner's reply is not left in the stream
+                    }
+                }
+            }
+            if (line == null) {
+                throw new IOException("Warm runner disconnected while running " + jobClass);
+            }
+            runner.runs++;
+            release(runner);
+            handle.complete(line.startsWith("DONE\tOK"));
+        } catch (IOException e) {
+            retire(runner, false);
+            handle.completeExceptionally(e);
+        }
+    }
+
+    /** Returns a runner to the pool, or retires it after its last allowed run. */
+    private void release(Runner runner) {
+        if (runner.runs >= maxRuns || closed) {
+            retire(runner, true);
+            return;
+        }
+        // most recently used first keeps the hottest JVMs busy
+        idle.offerFirst(runner);
+        Metrics.getInstance().adjustWarmIdle(1);
+    }
+
+    private void retire(Runner runner, boolean graceful) {
+        if (graceful) {
+            runner.send("EXIT");
+        }
+        runner.close();
+        connected.decrementAndGet();
+        Metrics.getInstance().recordWarmRecycle();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            Runner runner;
+            try {
+                runner = new Runner(socket);
+            } catch (IOException e) {
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                }
+                continue;
+            }
+            // handshakes in progress hold a slot, so at most size of them run at once
+            if (connected.incrementAndGet() > size) {
+                reject(runner);
+                continue;
+            }
+            try {
+                runs.execute(() -> register(runner));
+            } catch (java.util.concurrent.RejectedExecutionException e) {
+                reject(runner);
+            }
+        }
+    }
+
+    /**
+     * Waits for the runner's {@code HELLO} off the accept thread, so a silent
+     * or slow client cannot hold up other runners connecting, and makes the
+     * runner idle once it authenticated.
+     */
+    private void register(Runner runner) {
+        boolean accepted;
+        try {
+            accepted = authenticated(runner.call(null));
+        } catch (IOException e) {
+            accepted = false;
+        }
+        if (!accepted || closed) {
+            reject(runner);
+            return;
+        }
+        idle.offerLast(runner);
+        Metrics.getInstance().adjustWarmIdle(1);
+        if (closed && idle.remove(runner)) {
+            // close() drained the idle runners before this one arrived
+            Metrics.getInstance().adjustWarmIdle(-1);
+            reject(runner);
+        }
+    }
+
+    private void reject(Runner runner) {
+        connected.decrementAndGet();
+        runner.send("EXIT");
+        runner.close();
+    }
+
+    /** Whether {@code hello} is a {@code HELLO} carrying this pool's token. */
+    private boolean authenticated(String hello) {
+        if (hello == null || !hello.startsWith("HELLO\t")) {
+            return false;
+        }
+        return MessageDigest.isEqual(token, hello.substring(6).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Pings every idle runner and drops the ones that do not answer in time. */
+    private void checkIdle() {
+        for (Runner runner : idle.toArray(new Runner[0])) {
+            if (!idle.remove(runner)) {
+                continue; // taken by a job meanwhile
+            }
+            Metrics.getInstance().adjustWarmIdle(-1);
+            boolean healthy;
+            try {
+                healthy = "PONG".equals(runner.call("PING"));
+            } catch (IOException e) {
+                healthy = false;
+            }
+            if (healthy && !closed) {
+                idle.offerLast(runner);
+                Metrics.getInstance().adjustWarmIdle(1);
+            } else {
+                retire(runner, false);
+            }
+        }
+    }
+
+    /**
+     * Starts {@code count} runners as child JVMs on this machine's class path
+     * and starts a new one whenever one exits, e.g. after its last allowed
+     * run. A stand-in for a Deployment of runner pods. The token is passed
+     * in the environment, not on the command line. A runner that exits with
+     * an error or within {@link #MIN_HEALTHY_UPTIME_MILLIS} is replaced after
+     * an exponential backoff, and after {@link #MAX_FAILED_RESTARTS} such
+     * failures in a row no more runners are started.
+     */
+    void startLocalRunners(int count) {
+        for (int i = 0; i < count; i++) {
+            launchLocalRunner();
+        }
+    }
+
+    private void launchLocalRunner() {
+        if (closed) {
+            return;
+        }
+        InetAddress bound = server.getInetAddress();
+        String host = bound.isAnyLocalAddress() ? "127.0.0.1" : bound.getHostAddress();
+        String javaBin = java.nio.file.Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder pb = new ProcessBuilder(javaBin, "-cp", System.getProperty("java.class.path"),
+                "com.quartzkube.runner.WarmRunner", host, Integer.toString(port()));
+        pb.environment().put("WARM_POOL_TOKEN", new String(token, StandardCharsets.UTF_8));
+        pb.inheritIO();
+        long startedAt = System.currentTimeMillis();
+        try {
+            Process p = pb.start();
+            localRunners.add(p);
+            p.onExit().thenAccept(exited -> {
+                localRunners.remove(p);
+                boolean healthy = exited.exitValue() == 0
+                        && System.currentTimeMillis() - startedAt >= MIN_HEALTHY_UPTIME_MILLIS;
+                relaunchLocalRunner(healthy);
+            });
+        } catch (IOException e) {
+            System.err.println("Failed to start warm runner: " + e.getMessage());
+            relaunchLocalRunner(false);
+        }
+    }
+
+    /** Replaces a local runner, immediately after a healthy one and with backoff after a failed one. */
+    private void relaunchLocalRunner(boolean healthy) {
+        if (closed) {
+            return;
+        }
+        if (healthy) {
+            failedRestarts.set(0);
+            launchLocalRunner();
+            return;
+        }
+        int failures = failedRestarts.incrementAndGet();
+        if (failures > MAX_FAILED_RESTARTS) {
+            if (failures == MAX_FAILED_RESTARTS + 1) {
+                System.err.println("Warm runners failed " + MAX_FAILED_RESTARTS + " times in a row; not restarting them");
+            }
+            return;
+        }
+        long delay = Math.min(MAX_RESTART_BACKOFF_MILLIS, RESTART_BACKOFF_MILLIS << Math.min(failures - 1, 16));
+        try {
+            health.schedule(this::launchLocalRunner, delay, TimeUnit.MILLISECONDS);
+        } catch (java.util.concurrent.RejectedExecutionException ignored) {
+            // closed meanwhile
+        }
+    }
+
+    /** Stops accepting runners, tells idle ones to exit and stops local runners. */
+    void close() {
+        closed = true;
+        try {
+            server.close();
+        } catch (IOException ignored) {
+        }
+        health.shutdownNow();
+        Runner runner;
+        while ((runner = idle.pollFirst()) != null) {
+            Metrics.getInstance().adjustWarmIdle(-1);
+            retire(runner, true);
+        }
+        runs.shutdown();
+        for (Process p : localRunners) {
+            p.destroy();
+        }
+    }
+
+    private static java.util.concurrent.ThreadFactory daemon(String name) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /** Connection to one runner; used by one thread at a time. */
+    private final class Runner {
+        final Socket socket;
+        final BufferedReader in;
+        final PrintWriter out;
+        int runs;
+
+        Runner(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.out = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.UTF_8);
+        }
+
+        void send(String message) {
+            out.print(message);
+            out.print('\n');
+            out.flush();
+        }
+
+        /** Sends {@code message} if not null and reads one reply within the health timeout. */
+        String call(String message) throws IOException {
+            if (message != null) {
+                send(message);
+            }
+            socket.setSoTimeout((int) Math.max(1, healthTimeoutMillis));
+            try {
+                return in.readLine();
+            } catch (SocketTimeoutException e) {
+                return null;
+            } finally {
+                socket.setSoTimeout(0);
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
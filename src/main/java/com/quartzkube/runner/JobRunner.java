@@ -2,6 +2,7 @@ package com.quartzkube.runner;
 
 import org.quartz.PersistJobDataAfterExecution;
 import com.quartzkube.core.BasicJobExecutionContext;
+import com.quartzkube.core.CompletionIndex;
 import org.quartz.Job;
 import org.quartz.JobBuilder;
 import org.quartz.JobDataMap;
@@ -13,8 +14,26 @@ import java.util.stream.Collectors;
 /**
  * Simple job runner that loads a job class and invokes it. Supports capturing
  * updated JobDataMap when {@link org.quartz.PersistJobDataAfterExecution} is present.
+ * In a pod of an Indexed Job the completion index and count are added to the
+ * JobDataMap as {@code jobIndex} and {@code jobCompletions}; Runnable jobs
+ * read them from {@link #completionIndex()} and {@link #completions()}.
  */
 public class JobRunner {
+    /** JobDataMap key holding the completion index of an Indexed Job pod. */
+    public static final String INDEX_KEY = "jobIndex";
+    /** JobDataMap key holding the number of indexes of an Indexed Job. */
+    public static final String COMPLETIONS_KEY = "jobCompletions";
+
+    /** Completion index of this pod, or -1 if it does not belong to an Indexed Job. */
+    public static int completionIndex() {
+        return CompletionIndex.current();
+    }
+
+    /** Number of indexes of this pod's Indexed Job, or -1. */
+    public static int completions() {
+        return CompletionIndex.completions();
+    }
+
     public static void main(String[] args) throws Exception {
         String className;
         if (args.length > 0) {
@@ -28,13 +47,25 @@ public class JobRunner {
         }
 
         String dataArg = args.length > 1 ? args[1] : System.getenv("JOB_DATA");
-        Map<String, String> data = parseData(dataArg);
+        run(className, parseData(dataArg));
+    }
+
+    /**
+     * Loads and runs {@code className} once with the given job data. A warm
+     * runner calls this repeatedly in the same JVM.
+     */
+    public static void run(String className, Map<String, String> data) throws Exception {
+        Map<String, String> values = new HashMap<>(data);
+        if (completionIndex() >= 0) {
+            values.put(INDEX_KEY, Integer.toString(completionIndex()));
+            values.put(COMPLETIONS_KEY, Integer.toString(completions()));
+        }
 
         Class<?> clazz = Class.forName(className);
         Object obj = clazz.getDeclaredConstructor().newInstance();
 
         if (obj instanceof Job qjob) {
-            JobDataMap initMap = new JobDataMap(new HashMap<>(data));
+            JobDataMap initMap = new JobDataMap(values);
             var detail = JobBuilder.newJob((Class<? extends Job>) clazz)
                     .withIdentity("job")
                     .usingJobData(initMap)
@@ -54,7 +85,7 @@ public class JobRunner {
         }
     }
 
-    private static Map<String, String> parseData(String str) {
+    static Map<String, String> parseData(String str) {
         Map<String, String> map = new HashMap<>();
         if (str == null || str.isEmpty()) return map;
         for (String pair : str.split(";")) {
@@ -0,0 +1,130 @@
+package com.quartzkube.runner;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Long-lived runner that connects to a scheduler's warm pool and runs job
+ * classes in the same JVM over and over, so a job skips pod scheduling and
+ * JVM start-up. Start it with {@code host port} arguments or a
+ * {@code WARM_POOL_ADDRESS=host:port} environment variable. The pool's
+ * shared token is read from {@code WARM_POOL_TOKEN}.
+ *
+ * <p>The protocol is one tab-separated command per line. The runner sends
+ * {@code HELLO <token>} once connected, then answers {@code PING} with {@code PONG}
+ * and {@code RUN <class> <url-encoded job data>} with any number of
+ * {@code LOG <line>} lines for the job's output followed by
+ * {@code DONE OK} or {@code DONE FAIL <message>}. {@code EXIT} ends the
+ * runner, which its supervisor then replaces with a fresh one.</p>
+ */
+public final class WarmRunner {
+    private WarmRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String address = args.length > 1 ? args[0] + ":" + args[1] : System.getenv("WARM_POOL_ADDRESS");
+        if (address == null || address.lastIndexOf(':') < 0) {
+            System.err.println("No warm pool address specified via args or WARM_POOL_ADDRESS env");
+            return;
+        }
+        String token = System.getenv("WARM_POOL_TOKEN");
+        if (token == null || token.isEmpty()) {
+            System.err.println("No warm pool token specified via WARM_POOL_TOKEN env");
+            System.exit(2);
+        }
+        int colon = address.lastIndexOf(':');
+        connect(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)), token);
+    }
+
+    /** Connects to the warm pool and serves it until told to exit or disconnected. */
+    public static void connect(String host, int port, String token) throws IOException {
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.UTF_8);
+            send(out, "HELLO\t" + token);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split("\t", 3);
+                switch (parts[0]) {
+                    case "PING" -> send(out, "PONG");
+                    case "EXIT" -> {
+                        return;
+                    }
+                    case "RUN" -> send(out, runCaptured(out, parts[1],
+                            parts.length > 2 ? URLDecoder.decode(parts[2], StandardCharsets.UTF_8) : ""));
+                    default -> send(out, "DONE\tFAIL\tunknown command " + parts[0]);
+                }
+            }
+        }
+    }
+
+    /** Runs one job with its standard output and error sent to the pool as log lines. */
+    private static String runCaptured(PrintWriter out, String className, String data) {
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        LineForwarder forwarder = new LineForwarder(out);
+        PrintStream captured = new PrintStream(forwarder, true, StandardCharsets.UTF_8);
+        System.setOut(captured);
+        System.setErr(captured);
+        try {
+            JobRunner.run(className, JobRunner.parseData(data));
+            return "DONE\tOK";
+        } catch (Throwable t) {
+            t.printStackTrace(captured);
+            return "DONE\tFAIL\t" + String.valueOf(t).replaceAll("[\\t\\r\\n]", " ");
+        } finally {
+            captured.flush();
+            forwarder.finish();
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
+    }
+
+    private static void send(PrintWriter out, String message) {
+        synchronized (out) {
+            out.print(message);
+            out.print('\n');
+            out.flush();
+        }
+    }
+
+    /** Turns written bytes into {@code LOG} messages, one per line. */
+    private static final class LineForwarder extends OutputStream {
+        private final PrintWriter out;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        LineForwarder(PrintWriter out) {
+            this.out = out;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            if (b == '\n') {
+                flushLine();
+            } else if (b != '\r') {
+                line.write(b);
+            }
+        }
+
+        /** Sends output not terminated by a newline. */
+        synchronized void finish() {
+            if (line.size() > 0) {
+                flushLine();
+            }
+        }
+
+        private void flushLine() {
+            send(out, "LOG\t" + line.toString(StandardCharsets.UTF_8).replace('\t', ' '));
+            line.reset();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.quartzkube.benchmark;
+
+import com.quartzkube.core.CompiledCronExpression;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.quartz.CronExpression;
+
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of next-fire computation between {@link CronExpression} and
+ * {@link CompiledCronExpression}. The "after" time advances by one second per
+ * invocation so the compiled memo does not hide the search cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CronEvaluationBenchmark {
+    @Param({"* * * * * ?", "0 0/5 14,18 * * ?", "0 15 10 ? * MON-FRI"})
+    public String expression;
+
+    @Param({"UTC", "America/New_York"})
+    public String zone;
+
+    private CronExpression quartz;
+    private CompiledCronExpression compiled;
+    private long after;
+
+    @Setup
+    public void setup() throws Exception {
+        TimeZone tz = TimeZone.getTimeZone(zone);
+        quartz = new CronExpression(expression);
+        quartz.setTimeZone(tz);
+        compiled = CompiledCronExpression.compile(expression, tz);
+        after = 1_700_000_000_000L;
+    }
+
+    @Benchmark
+    public Date quartzCronExpression() {
+        after += 1000;
+        return quartz.getNextValidTimeAfter(new Date(after));
+    }
+
+    @Benchmark
+    public long compiledCronExpression() {
+        after += 1000;
+        return compiled.nextFireTime(after);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(CronEvaluationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
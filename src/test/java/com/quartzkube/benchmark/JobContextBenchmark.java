@@ -0,0 +1,92 @@
+package com.quartzkube.benchmark;
+
+import com.quartzkube.core.BasicJobExecutionContext;
+import com.quartzkube.core.FiredJobExecutionContext;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-fire allocation of the in-process execution context. "eager" builds a
+ * {@link BasicJobExecutionContext} with the data maps merged up front, as a
+ * straightforward implementation would; the other two use
+ * {@link FiredJobExecutionContext} for a job that ignores its context and for
+ * one that reads its merged data map. Each returns the context so escape
+ * analysis cannot remove it, as on the real fire path where it is handed to
+ * a worker thread. Run with the GC profiler and compare
+ * {@code gc.alloc.rate.norm}:
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.quartzkube.benchmark.JobContextBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobContextBenchmark {
+    public static class NoopJob implements Job {
+        @Override
+        public void execute(JobExecutionContext context) {
+        }
+    }
+
+    private JobDetail detail;
+    private Trigger trigger;
+    private long sequence;
+
+    @Setup
+    public void setup() {
+        detail = JobBuilder.newJob(NoopJob.class).withIdentity("report", "batch")
+                .usingJobData("region", "eu").usingJobData("size", "small").build();
+        trigger = TriggerBuilder.newTrigger().withIdentity("report", "batch")
+                .usingJobData("size", "large")
+                .withSchedule(SimpleScheduleBuilder.repeatSecondlyForever()).build();
+    }
+
+    @Benchmark
+    public Object eager() {
+        JobDataMap merged = new JobDataMap(detail.getJobDataMap());
+        merged.putAll(trigger.getJobDataMap());
+        BasicJobExecutionContext ctx = new BasicJobExecutionContext(detail, merged);
+        ctx.setJobRunTime(0);
+        return ctx;
+    }
+
+    @Benchmark
+    public Object lazyUntouched() {
+        long now = System.currentTimeMillis();
+        FiredJobExecutionContext ctx = new FiredJobExecutionContext(detail, trigger, now, now - 1000, now + 1000,
+                ++sequence);
+        return ctx;
+    }
+
+    @Benchmark
+    public Object lazyReadsData() {
+        long now = System.currentTimeMillis();
+        FiredJobExecutionContext ctx = new FiredJobExecutionContext(detail, trigger, now, now - 1000, now + 1000,
+                ++sequence);
+        ctx.getMergedJobDataMap().get("size");
+        return ctx;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JobContextBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
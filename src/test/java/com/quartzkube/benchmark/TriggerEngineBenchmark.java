@@ -0,0 +1,130 @@
+package com.quartzkube.benchmark;
+
+import com.quartzkube.core.TimingWheel;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the timing wheel trigger engine with the previous approach of
+ * re-submitting every fire to a ScheduledThreadPoolExecutor. Registers a large
+ * number of recurring triggers on each engine and reports fires per second and
+ * fire-lag percentiles.
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.quartzkube.benchmark.TriggerEngineBenchmark -Dexec.args="100000 20"
+ * </pre>
+ */
+public class TriggerEngineBenchmark {
+    private static final long INTERVAL_MILLIS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int triggers = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d triggers, %d ms interval, %d s per run, %d threads%n",
+                triggers, INTERVAL_MILLIS, seconds, threads);
+        report("executor", runExecutor(triggers, seconds, threads));
+        report("timing-wheel", runWheel(triggers, seconds, threads));
+    }
+
+    private static LagRecorder runExecutor(int triggers, int seconds, int threads) throws InterruptedException {
+        ScheduledExecutorService pool = Executors.newScheduledThreadPool(threads);
+        LagRecorder rec = new LagRecorder();
+        long base = System.currentTimeMillis() + 1000;
+        for (int i = 0; i < triggers; i++) {
+            long first = base + ThreadLocalRandom.current().nextLong(INTERVAL_MILLIS);
+            Runnable task = new Runnable() {
+                long scheduled = first;
+                @Override public void run() {
+                    rec.record(System.currentTimeMillis() - scheduled);
+                    scheduled += INTERVAL_MILLIS;
+                    pool.schedule(this, scheduled - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                }
+            };
+            pool.schedule(task, first - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+        rec.measure(base, seconds);
+        pool.shutdownNow();
+        return rec;
+    }
+
+    private static LagRecorder runWheel(int triggers, int seconds, int threads) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        TimingWheel wheel = new TimingWheel(1, pool);
+        wheel.start();
+        LagRecorder rec = new LagRecorder();
+        long base = System.currentTimeMillis() + 1000;
+        TimingWheel.Task task = t -> {
+            rec.record(System.currentTimeMillis() - t.deadline());
+            t.rearm(t.deadline() + INTERVAL_MILLIS);
+        };
+        for (int i = 0; i < triggers; i++) {
+            wheel.schedule(task, base + ThreadLocalRandom.current().nextLong(INTERVAL_MILLIS));
+        }
+        rec.measure(base, seconds);
+        wheel.stop();
+        pool.shutdownNow();
+        return rec;
+    }
+
+    private static void report(String name, LagRecorder rec) {
+        System.out.printf("%-13s fires/s=%.0f lag p50=%dms p99=%dms p99.9=%dms max=%dms%n",
+                name, rec.fires / (double) rec.seconds, rec.percentile(0.50), rec.percentile(0.99),
+                rec.percentile(0.999), rec.max());
+    }
+
+    /** Millisecond-resolution lag histogram covering the measurement window only. */
+    private static final class LagRecorder {
+        private static final int MAX_LAG = 10_000;
+        private final AtomicLongArray counts = new AtomicLongArray(MAX_LAG + 1);
+        private final LongAdder total = new LongAdder();
+        private volatile boolean recording;
+        private long fires;
+        private int seconds;
+
+        void record(long lag) {
+            if (recording) {
+                counts.incrementAndGet((int) Math.max(0, Math.min(MAX_LAG, lag)));
+                total.increment();
+            }
+        }
+
+        void measure(long base, int seconds) throws InterruptedException {
+            // skip the first interval so every trigger is armed and warm
+            Thread.sleep(Math.max(0, base + INTERVAL_MILLIS - System.currentTimeMillis()));
+            recording = true;
+            Thread.sleep(seconds * 1000L);
+            recording = false;
+            this.seconds = seconds;
+            this.fires = total.sum();
+        }
+
+        long percentile(double p) {
+            long target = (long) Math.ceil(fires * p);
+            long seen = 0;
+            for (int i = 0; i <= MAX_LAG; i++) {
+                seen += counts.get(i);
+                if (seen >= target && seen > 0) {
+                    return i;
+                }
+            }
+            return MAX_LAG;
+        }
+
+        long max() {
+            for (int i = MAX_LAG; i >= 0; i--) {
+                if (counts.get(i) > 0) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+    }
+}
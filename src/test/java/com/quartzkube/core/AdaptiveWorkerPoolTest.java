@@ -0,0 +1,96 @@
+package com.quartzkube.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveWorkerPoolTest {
+
+    @Test
+    public void testGrowsForBlockedWorkersAndShrinksWhenIdle() throws Exception {
+        Metrics.reset();
+        int max = Runtime.getRuntime().availableProcessors() + 8;
+        AdaptiveWorkerPool pool = new AdaptiveWorkerPool(1, max, 10, 0, Executors.defaultThreadFactory());
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            int initial = pool.targetSize();
+            for (int i = 0; i < max * 2; i++) {
+                pool.execute(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                });
+            }
+            Thread.sleep(50);
+            pool.adapt();
+            assertTrue(pool.targetSize() > initial, "pool did not grow for blocked workers");
+            for (int i = 0; i < 20; i++) {
+                Thread.sleep(20);
+                pool.adapt();
+            }
+            assertEquals(max, pool.targetSize());
+            assertEquals(max, pool.getCorePoolSize());
+            assertEquals(max, Metrics.getInstance().getWorkerPoolSize());
+            assertTrue(Metrics.getInstance().getWorkerPoolGrows() > 0);
+
+            release.countDown();
+            Thread.sleep(100);
+            for (int i = 0; i < AdaptiveWorkerPool.IDLE_ROUNDS; i++) {
+                pool.adapt();
+            }
+            assertEquals(max - 1, pool.targetSize());
+            assertEquals(1, Metrics.getInstance().getWorkerPoolShrinks());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCpuBoundWorkersDoNotGrowPastProcessorCount() throws Exception {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        AdaptiveWorkerPool pool = new AdaptiveWorkerPool(1, cpus * 4, 1, 0, Executors.defaultThreadFactory());
+        AtomicBoolean stop = new AtomicBoolean();
+        try {
+            for (int i = 0; i < cpus * 8; i++) {
+                pool.execute(() -> {
+                    while (!stop.get()) {
+                        Thread.onSpinWait();
+                    }
+                });
+            }
+            for (int i = 0; i < 5; i++) {
+                Thread.sleep(20);
+                pool.adapt();
+            }
+            assertEquals(cpus, pool.targetSize());
+        } finally {
+            stop.set(true);
+            pool.shutdownNow();
+            pool.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testBorrowedThreadsSurviveResizing() throws Exception {
+        AdaptiveWorkerPool pool = new AdaptiveWorkerPool(2, 2, 10, 0, Executors.defaultThreadFactory());
+        try {
+            pool.borrow(1);
+            for (int i = 0; i < AdaptiveWorkerPool.IDLE_ROUNDS; i++) {
+                pool.adapt();
+            }
+            assertEquals(2, pool.targetSize());
+            assertEquals(3, pool.getCorePoolSize());
+            pool.borrow(-1);
+            assertEquals(2, pool.getMaximumPoolSize());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
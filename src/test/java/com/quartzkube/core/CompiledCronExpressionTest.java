@@ -0,0 +1,68 @@
+package com.quartzkube.core;
+
+import org.junit.jupiter.api.Test;
+import org.quartz.CronExpression;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledCronExpressionTest {
+    private static final String[] EXPRESSIONS = {
+            "* * * * * ?",
+            "0 * * * * ?",
+            "0/15 * * * * ?",
+            "30 5/10 * * * ?",
+            "0 0 12 * * ?",
+            "0 15 10 ? * MON-FRI",
+            "0 0/5 14,18 * * ?",
+            "0 0 0 29 2 ?",
+            "0 0 0 31 * ?",
+            "59 59 23 31 12 ? 2030-2035",
+            "0 30 2 * * ?",
+            "0 0 1-3 ? * SUN",
+            "0 15 10 L * ?",
+            "0 15 10 ? * 6#3",
+            "0 0 12 15W * ?",
+            "0 0 0 ? * 2L"
+    };
+    private static final String[] ZONES = {"UTC", "America/New_York", "Europe/Berlin", "Asia/Kolkata", "Australia/Lord_Howe"};
+
+    @Test
+    public void testMatchesQuartzCronExpression() throws Exception {
+        Random rnd = new Random(42);
+        long from = 1_577_836_800_000L; // 2020-01-01
+        long span = 10L * 365 * 24 * 3600 * 1000;
+        for (String zone : ZONES) {
+            TimeZone tz = TimeZone.getTimeZone(zone);
+            for (String expr : EXPRESSIONS) {
+                CronExpression quartz = new CronExpression(expr);
+                quartz.setTimeZone(tz);
+                CompiledCronExpression compiled = CompiledCronExpression.compile(expr, tz);
+                for (int i = 0; i < 300; i++) {
+                    long after = from + (long) (rnd.nextDouble() * span);
+                    Date expected = quartz.getNextValidTimeAfter(new Date(after));
+                    long actual = compiled.nextFireTime(after);
+                    assertEquals(expected == null ? -1 : expected.getTime(), actual,
+                            expr + " in " + zone + " after " + new Date(after));
+                    // chain a few fires to exercise consecutive computation
+                    if (expected != null) {
+                        Date e2 = quartz.getNextValidTimeAfter(expected);
+                        assertEquals(e2 == null ? -1 : e2.getTime(), compiled.nextFireTime(actual));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSpecialCharactersFallBack() throws Exception {
+        TimeZone utc = TimeZone.getTimeZone("UTC");
+        assertTrue(CompiledCronExpression.compile("0 0 12 * * ?", utc).isCompiled());
+        assertFalse(CompiledCronExpression.compile("0 15 10 L * ?", utc).isCompiled());
+        assertSame(CompiledCronExpression.compile("0 0 12 * * ?", utc),
+                CompiledCronExpression.compile("0 0 12 * * ?", utc));
+    }
+}
@@ -40,4 +40,60 @@ public class CrdJobStoreTest {
         assertFalse(bodies.isEmpty());
         assertTrue(bodies.get(0).contains("jobClass: com.example.Job"));
     }
+
+    @Test
+    public void testSaveJobsPostsEachResource() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        List<String> bodies = java.util.Collections.synchronizedList(new ArrayList<>());
+        server.createContext("/apis/quartzkube.com/v1/namespaces/ns/scheduledjobs", ex -> {
+            bodies.add(new String(ex.getRequestBody().readAllBytes()));
+            ex.sendResponseHeaders(201, -1);
+            ex.close();
+        });
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(4);
+        server.setExecutor(pool);
+        server.start();
+        String url = "http://localhost:" + server.getAddress().getPort();
+        try {
+            new CrdJobStore(url, "ns").saveJobs(List.of("com.example.A", "com.example.B", "com.example.C"));
+        } finally {
+            server.stop(0);
+            pool.shutdown();
+        }
+        assertEquals(3, bodies.size());
+        assertTrue(bodies.stream().anyMatch(b -> b.contains("jobClass: com.example.C")));
+    }
+
+    @Test
+    public void testSaveJobsBoundsInFlightRequests() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        java.util.concurrent.atomic.AtomicInteger active = new java.util.concurrent.atomic.AtomicInteger();
+        java.util.concurrent.atomic.AtomicInteger peak = new java.util.concurrent.atomic.AtomicInteger();
+        server.createContext("/apis/quartzkube.com/v1/namespaces/ns/scheduledjobs", ex -> {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ignored) {
+            }
+            ex.getRequestBody().readAllBytes();
+            active.decrementAndGet();
+            ex.sendResponseHeaders(201, -1);
+            ex.close();
+        });
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(64);
+        server.setExecutor(pool);
+        server.start();
+        String url = "http://localhost:" + server.getAddress().getPort();
+        List<String> classes = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            classes.add("com.example.Job" + i);
+        }
+        try {
+            new CrdJobStore(url, "ns").saveJobs(classes);
+        } finally {
+            server.stop(0);
+            pool.shutdown();
+        }
+        assertTrue(peak.get() <= CrdJobStore.MAX_IN_FLIGHT, "peak " + peak.get());
+    }
 }
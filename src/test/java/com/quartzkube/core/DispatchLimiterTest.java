@@ -0,0 +1,66 @@
+package com.quartzkube.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DispatchLimiterTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(5);
+
+    @Test
+    public void testFixedLimitBlocksExtraCreates() throws Exception {
+        DispatchLimiter limiter = DispatchLimiter.fixed(1);
+        limiter.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread t = new Thread(() -> {
+            try {
+                limiter.acquire();
+                acquired.countDown();
+            } catch (InterruptedException ignored) {}
+        });
+        t.start();
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, limiter.waiters());
+        limiter.release(SLOW, true);
+        assertTrue(acquired.await(1, TimeUnit.SECONDS));
+        assertEquals(1, limiter.limit());
+        limiter.release();
+        t.join();
+    }
+
+    @Test
+    public void testAdaptiveGrowsWhenBusyAndFast() throws Exception {
+        DispatchLimiter limiter = DispatchLimiter.adaptive(1, 10, 2, 100);
+        for (int i = 0; i < 200; i++) {
+            int limit = limiter.limit();
+            for (int j = 0; j < limit; j++) {
+                limiter.acquire();
+            }
+            for (int j = 0; j < limit; j++) {
+                limiter.release(FAST, false);
+            }
+        }
+        assertEquals(10, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    public void testAdaptiveBacksOffOnThrottlingAndLatency() throws Exception {
+        DispatchLimiter limiter = DispatchLimiter.adaptive(2, 64, 32, 100);
+        limiter.acquire();
+        limiter.release(FAST, true);
+        assertEquals(16, limiter.limit());
+        limiter.acquire();
+        limiter.release(SLOW, false);
+        assertEquals(14, limiter.limit());
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.release(FAST, true);
+        }
+        assertEquals(2, limiter.limit());
+    }
+}
@@ -0,0 +1,56 @@
+package com.quartzkube.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DispatchRetryQueueTest {
+
+    private static io.fabric8.kubernetes.client.KubernetesClientException throttled(Integer retryAfterSeconds) {
+        io.fabric8.kubernetes.api.model.Status status = new io.fabric8.kubernetes.api.model.StatusBuilder()
+                .withCode(429)
+                .withNewDetails().withRetryAfterSeconds(retryAfterSeconds).endDetails()
+                .build();
+        return new io.fabric8.kubernetes.client.KubernetesClientException(status);
+    }
+
+    @Test
+    public void testRetriesTransientFailures() throws Exception {
+        DispatchRetryQueue queue = new DispatchRetryQueue(10, 3, 10, 100);
+        CountDownLatch ran = new CountDownLatch(1);
+        assertTrue(queue.schedule(0, throttled(null), ran::countDown));
+        assertTrue(ran.await(1, TimeUnit.SECONDS));
+        assertFalse(queue.schedule(0, new IllegalArgumentException("bad manifest"), () -> { }));
+        assertTrue(queue.schedule(0, new RuntimeException(new java.net.ConnectException()), () -> { }));
+        assertFalse(queue.schedule(3, throttled(null), () -> { }));
+    }
+
+    @Test
+    public void testHonorsRetryAfter() {
+        DispatchRetryQueue queue = new DispatchRetryQueue(10, 3, 10, 100);
+        long delay = queue.delayMillis(0, throttled(2));
+        assertTrue(delay >= 2000 && delay < 2010, "delay " + delay);
+    }
+
+    @Test
+    public void testBackoffGrowsWithJitterUpToCap() {
+        DispatchRetryQueue queue = new DispatchRetryQueue(10, 10, 100, 1000);
+        for (int i = 0; i < 50; i++) {
+            long first = queue.delayMillis(0, throttled(null));
+            assertTrue(first >= 50 && first <= 100, "first " + first);
+            long late = queue.delayMillis(8, throttled(null));
+            assertTrue(late >= 500 && late <= 1000, "late " + late);
+        }
+    }
+
+    @Test
+    public void testCapacityIsBounded() {
+        DispatchRetryQueue queue = new DispatchRetryQueue(1, 5, 10_000, 10_000);
+        assertTrue(queue.schedule(0, throttled(null), () -> { }));
+        assertFalse(queue.schedule(0, throttled(null), () -> { }));
+        assertEquals(1, queue.pending());
+    }
+}
@@ -0,0 +1,55 @@
+package com.quartzkube.core;
+
+import org.junit.jupiter.api.Test;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.CronTrigger;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.TriggerBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DispatchSpecTest {
+
+    public static class NoopJob implements org.quartz.Job {
+        @Override
+        public void execute(org.quartz.JobExecutionContext context) {
+        }
+    }
+
+    @Test
+    public void testParsesTypedOptions() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("k8sImage", "custom/image:1");
+        data.put("backoffLimit", "3");
+        data.put("env", Map.of("FOO", 1));
+        data.put("volumes", "- name: scratch");
+        DispatchSpec spec = DispatchSpec.of(data);
+        assertEquals("custom/image:1", spec.image);
+        assertEquals(3, spec.backoffLimit);
+        assertEquals("1", spec.env.get("FOO"));
+        assertEquals("- name: scratch", spec.volumes);
+        assertThrows(UnsupportedOperationException.class, () -> spec.env.put("BAR", "x"));
+
+        data.put("k8sImage", "changed");
+        assertEquals("custom/image:1", spec.image);
+        assertSame(DispatchSpec.EMPTY, DispatchSpec.of(null));
+    }
+
+    @Test
+    public void testTriggerDataOverridesJobData() {
+        JobDetail detail = JobBuilder.newJob(NoopJob.class).withIdentity("spec")
+                .usingJobData("cpu", "250m").usingJobData("memory", "128Mi").build();
+        CronTrigger trigger = TriggerBuilder.newTrigger()
+                .withSchedule(CronScheduleBuilder.cronSchedule("0 0 * * * ?").inTimeZone(TimeZone.getTimeZone("UTC")))
+                .usingJobData("cpu", "500m").build();
+        DispatchSpec spec = DispatchSpec.of(detail, trigger);
+        assertEquals("500m", spec.cpu);
+        assertEquals("128Mi", spec.memory);
+        assertEquals("UTC", spec.timeZone);
+    }
+}
@@ -0,0 +1,75 @@
+package com.quartzkube.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FairShareQueueTest {
+
+    /** Collects drain tokens so the test decides when workers run them. */
+    private static final class ManualExecutor implements java.util.concurrent.Executor {
+        final List<Runnable> tokens = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tokens.add(command);
+        }
+
+        void runAll() {
+            for (Runnable r : tokens) {
+                r.run();
+            }
+            tokens.clear();
+        }
+    }
+
+    @Test
+    public void testChattyGroupDoesNotStarveOthers() {
+        Metrics.reset();
+        ManualExecutor exec = new ManualExecutor();
+        FairShareQueue queue = new FairShareQueue(exec, Map.of(), 1);
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int id = i;
+            queue.submit("batch", 5, () -> order.add("batch" + id));
+        }
+        queue.submit("critical", 5, () -> order.add("critical"));
+        assertEquals(21, queue.size());
+        exec.runAll();
+        assertEquals(21, order.size());
+        // equal weights alternate, so the late critical fire runs second rather than last
+        assertEquals(1, order.indexOf("critical"));
+        assertEquals(0, queue.size());
+        assertEquals(20, Metrics.getInstance().getQueueWaitHistograms().get("batch").getCount());
+        assertEquals(1, Metrics.getInstance().getQueueWaitHistograms().get("critical").getCount());
+    }
+
+    @Test
+    public void testWeightsAndPriority() {
+        ManualExecutor exec = new ManualExecutor();
+        FairShareQueue queue = new FairShareQueue(exec, FairShareQueue.parseWeights("a=3, b=1, bogus"), 1);
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int id = i;
+            queue.submit("a", 5, () -> order.add("a" + id));
+            queue.submit("b", 5, () -> order.add("b" + id));
+        }
+        queue.submit("b", 10, () -> order.add("b-high"));
+        exec.runAll();
+        List<String> firstEight = order.subList(0, 8);
+        long aCount = firstEight.stream().filter(s -> s.startsWith("a")).count();
+        assertEquals(6, aCount, "weight 3 group should get three of every four workers: " + order);
+        // the high priority trigger overtakes older fires of its own group
+        assertEquals("b-high", order.stream().filter(s -> s.startsWith("b")).findFirst().orElseThrow());
+    }
+
+    @Test
+    public void testParseWeights() {
+        assertEquals(Map.of("x", 2, "y", 7), FairShareQueue.parseWeights("x=2,y=7,z=0,w=abc"));
+        assertTrue(FairShareQueue.parseWeights(null).isEmpty());
+    }
+}
@@ -20,4 +20,38 @@ public class JdbcJobStoreTest {
         assertEquals(1, jobs.size());
         assertEquals("com.example.Job", jobs.get(0));
     }
+
+    @Test
+    public void testSaveJobsInOneBatch() throws Exception {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:batch;DB_CLOSE_DELAY=-1");
+        JdbcJobStore store = new JdbcJobStore(ds);
+        store.saveJobs(List.of("com.example.A", "com.example.B", "com.example.A"));
+        List<String> jobs = store.loadJobs();
+        assertEquals(2, jobs.size());
+        assertTrue(jobs.containsAll(List.of("com.example.A", "com.example.B")));
+    }
+
+    @Test
+    public void testPagedLoad() throws Exception {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:paged;DB_CLOSE_DELAY=-1");
+        JdbcJobStore store = new JdbcJobStore(ds);
+        store.saveJobs(List.of("com.example.A", "com.example.B", "com.example.C"));
+        List<List<StoredJob>> pages = new java.util.ArrayList<>();
+        store.loadJobs(2, pages::add);
+        assertEquals(2, pages.size());
+        assertEquals(List.of(new StoredJob("com.example.A"), new StoredJob("com.example.B")), pages.get(0));
+        assertEquals(List.of(new StoredJob("com.example.C")), pages.get(1));
+    }
+
+    @Test
+    public void testTriggerCheckpoints() throws Exception {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:checkpoints;DB_CLOSE_DELAY=-1");
+        JdbcJobStore store = new JdbcJobStore(ds);
+        store.saveNextFireTimes(java.util.Map.of("DEFAULT.a", 1000L, "DEFAULT.b", 2000L));
+        store.saveNextFireTimes(java.util.Map.of("DEFAULT.a", 1500L, "DEFAULT.b", 0L));
+        assertEquals(java.util.Map.of("DEFAULT.a", 1500L), store.loadNextFireTimes());
+    }
 }
@@ -0,0 +1,46 @@
+package com.quartzkube.core;
+
+import org.junit.jupiter.api.Test;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobClassInfoTest {
+
+    @org.quartz.DisallowConcurrentExecution
+    public static class QuartzAnnotatedJob implements Job {
+        @Override
+        public void execute(JobExecutionContext context) {}
+    }
+
+    public static class PlainRunnable implements Runnable {
+        @Override
+        public void run() {}
+    }
+
+    public static class NoDefaultConstructor implements Runnable {
+        public NoDefaultConstructor(String arg) {}
+        @Override
+        public void run() {}
+    }
+
+    @Test
+    public void testMetadataIsCachedPerClass() throws Exception {
+        JobClassInfo info = JobClassInfo.of(QuartzAnnotatedJob.class);
+        assertSame(info, JobClassInfo.of(QuartzAnnotatedJob.class));
+        assertEquals(JobClassInfo.Kind.QUARTZ_JOB, info.kind());
+        assertTrue(info.isDisallowConcurrent());
+
+        JobClassInfo runnable = JobClassInfo.of(PlainRunnable.class);
+        assertEquals(JobClassInfo.Kind.RUNNABLE, runnable.kind());
+        assertFalse(runnable.isDisallowConcurrent());
+        Object a = runnable.newInstance();
+        Object b = runnable.newInstance();
+        assertInstanceOf(PlainRunnable.class, a);
+        assertNotSame(a, b);
+
+        assertEquals(JobClassInfo.Kind.INVALID, JobClassInfo.of(String.class).kind());
+        assertThrows(NoSuchMethodException.class, () -> JobClassInfo.of(NoDefaultConstructor.class).newInstance());
+    }
+}
@@ -0,0 +1,119 @@
+package com.quartzkube.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobMailboxTest {
+
+    @Test
+    public void testQueuedFiresRunSeriallyWithoutDelay() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        JobMailbox mailbox = new JobMailbox(NonConcurrentPolicy.QUEUE, 100, pool);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        List<Long> starts = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(5);
+        for (int i = 0; i < 5; i++) {
+            mailbox.offer(() -> {
+                starts.add(System.nanoTime());
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ignored) {}
+                concurrent.decrementAndGet();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        pool.shutdownNow();
+        assertEquals(1, maxConcurrent.get());
+        for (int i = 1; i < starts.size(); i++) {
+            long gapMillis = TimeUnit.NANOSECONDS.toMillis(starts.get(i) - starts.get(i - 1));
+            assertTrue(gapMillis < 40, "handoff took " + gapMillis + "ms");
+        }
+        assertEquals(0, mailbox.depth());
+    }
+
+    @Test
+    public void testLatestAndDropPolicies() throws Exception {
+        Metrics.reset();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> ran = new CopyOnWriteArrayList<>();
+        JobMailbox latest = new JobMailbox(NonConcurrentPolicy.LATEST, 100, pool);
+        JobMailbox drop = new JobMailbox(NonConcurrentPolicy.DROP, 100, pool);
+        for (JobMailbox box : new JobMailbox[]{latest, drop}) {
+            for (int i = 0; i < 4; i++) {
+                int id = i;
+                box.offer(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) {}
+                    ran.add(id);
+                });
+                if (i == 0) {
+                    Thread.sleep(20); // let the first fire start running
+                }
+            }
+        }
+        assertEquals(1, latest.depth());
+        assertEquals(1, Metrics.getInstance().getPendingFires());
+        release.countDown();
+        Thread.sleep(100);
+        pool.shutdownNow();
+        // LATEST runs the first fire and the newest; DROP runs only the first
+        assertEquals(3, ran.size());
+        assertEquals(2, Metrics.getInstance().getCoalescedFires());
+        assertEquals(3, Metrics.getInstance().getDroppedFires());
+        assertEquals(0, Metrics.getInstance().getPendingFires());
+    }
+
+    @Test
+    public void testQueueLimitDropsExcessFires() throws Exception {
+        Metrics.reset();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        JobMailbox mailbox = new JobMailbox(NonConcurrentPolicy.QUEUE, 2, pool);
+        for (int i = 0; i < 5; i++) {
+            mailbox.offer(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {}
+            });
+            if (i == 0) {
+                Thread.sleep(20); // let the first fire start running
+            }
+        }
+        // one fire is running and two are queued
+        assertEquals(2, mailbox.depth());
+        assertEquals(2, Metrics.getInstance().getDroppedFires());
+        release.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRejectedDropFireDoesNotBlockLaterFires() {
+        AtomicInteger ran = new AtomicInteger();
+        boolean[] reject = {true};
+        JobMailbox drop = new JobMailbox(NonConcurrentPolicy.DROP, 100, r -> {
+            if (reject[0]) {
+                throw new java.util.concurrent.RejectedExecutionException("full");
+            }
+            r.run();
+        });
+        assertThrows(java.util.concurrent.RejectedExecutionException.class, () -> drop.offer(ran::incrementAndGet));
+        reject[0] = false;
+        drop.offer(ran::incrementAndGet);
+        assertEquals(1, ran.get());
+    }
+}
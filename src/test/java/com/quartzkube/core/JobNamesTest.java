@@ -0,0 +1,38 @@
+package com.quartzkube.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobNamesTest {
+    private static final String VALID = "[a-z0-9]([-a-z0-9.]*[a-z0-9])?";
+
+    @Test
+    public void testExecutionNameIsDeterministicAndUnique() {
+        String a = JobNames.executionName("com.example.DummyJob", "fire-1", 1_700_000_000_000L);
+        assertEquals(a, JobNames.executionName("com.example.DummyJob", "fire-1", 1_700_000_000_000L));
+        assertNotEquals(a, JobNames.executionName("com.example.DummyJob", "fire-2", 1_700_000_000_000L));
+        assertNotEquals(a, JobNames.executionName("com.example.DummyJob", "fire-1", 1_700_000_001_000L));
+        assertTrue(a.startsWith("com.example.dummyjob-"));
+        assertTrue(a.matches(VALID));
+    }
+
+    @Test
+    public void testLongClassNameKeepsSimpleName() {
+        String jobClass = "com.example.some.deeply.nested.pkg.name.that.goes.on.and.on.ReportGenerationJob$Inner";
+        String name = JobNames.executionName(jobClass, "fire-1", System.currentTimeMillis());
+        assertTrue(name.length() <= JobNames.MAX_NAME);
+        assertTrue(name.matches(VALID));
+        assertTrue(name.contains("reportgenerationjob-inner"));
+
+        String cron = JobNames.cronJobName(jobClass);
+        assertTrue(cron.length() <= JobNames.MAX_CRON_NAME);
+        assertTrue(cron.endsWith("-inner-cron"));
+        assertTrue(cron.matches(VALID));
+    }
+
+    @Test
+    public void testCronJobNameUnchangedForShortClass() {
+        assertEquals("com.example.dummyjob-cron", JobNames.cronJobName("com.example.DummyJob"));
+    }
+}
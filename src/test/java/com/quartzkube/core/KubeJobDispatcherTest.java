@@ -50,7 +50,16 @@ public class KubeJobDispatcherTest {
             ex.sendResponseHeaders(201, -1);
             ex.close();
         });
-        server.createContext("/api/v1/namespaces/test/pods/com.example.dummyjob/log", ex -> {
+        java.util.List<String> selectors = new java.util.ArrayList<>();
+        server.createContext("/api/v1/namespaces/test/pods", ex -> {
+            selectors.add(ex.getRequestURI().getQuery());
+            byte[] list = "{\"kind\":\"PodList\",\"apiVersion\":\"v1\",\"items\":[{\"metadata\":{\"name\":\"dummy-pod\"}}]}".getBytes();
+            ex.getResponseHeaders().add("Content-Type", "application/json");
+            ex.sendResponseHeaders(200, list.length);
+            ex.getResponseBody().write(list);
+            ex.close();
+        });
+        server.createContext("/api/v1/namespaces/test/pods/dummy-pod/log", ex -> {
             paths.add(ex.getRequestURI().getPath());
             ex.sendResponseHeaders(200, 0);
             ex.getResponseBody().write("log line\n".getBytes());
@@ -69,7 +78,8 @@ public class KubeJobDispatcherTest {
             server.stop(0);
             System.setProperty("STREAM_LOGS", "false");
         }
-        assertTrue(paths.contains("/api/v1/namespaces/test/pods/com.example.dummyjob/log"));
+        assertTrue(paths.contains("/api/v1/namespaces/test/pods/dummy-pod/log"));
+        assertTrue(selectors.get(0).contains("job-name=com.example.dummyjob-"));
         assertTrue(out.toString().contains("log line"));
     }
 
@@ -181,6 +191,61 @@ public class KubeJobDispatcherTest {
         assertEquals(1, paths.size());
     }
 
+    @Test
+    public void testAsyncLocalDispatch() throws Exception {
+        KubeJobDispatcher dispatcher = new KubeJobDispatcher(true);
+        LocalJob.count = 0;
+        java.util.concurrent.CompletableFuture<Boolean> handle = dispatcher.dispatchJobAsync(LocalJob.class.getName());
+        assertTrue(handle.get(5, java.util.concurrent.TimeUnit.SECONDS));
+        assertEquals(1, LocalJob.count);
+    }
+
+    @Test
+    public void testAsyncDispatchHitsApi() throws Exception {
+        com.sun.net.httpserver.HttpServer server = com.sun.net.httpserver.HttpServer.create(new java.net.InetSocketAddress(0), 0);
+        java.util.List<String> paths = new java.util.concurrent.CopyOnWriteArrayList<>();
+        server.createContext("/apis/batch/v1/namespaces/test/jobs", ex -> {
+            paths.add(ex.getRequestURI().getPath());
+            ex.sendResponseHeaders(201, -1);
+            ex.close();
+        });
+        server.createContext("/apis/batch/v1/namespaces/test/cronjobs", ex -> {
+            paths.add(ex.getRequestURI().getPath());
+            ex.sendResponseHeaders(201, -1);
+            ex.close();
+        });
+        server.start();
+        String url = "http://localhost:" + server.getAddress().getPort();
+        try {
+            KubeJobDispatcher dispatcher = new KubeJobDispatcher(false, url, "test");
+            assertTrue(dispatcher.dispatchJobAsync("com.example.DummyJob").get(5, java.util.concurrent.TimeUnit.SECONDS));
+            dispatcher.dispatchCronJobAsync("com.example.DummyJob", "*/5 * * * *", DispatchSpec.EMPTY)
+                    .get(5, java.util.concurrent.TimeUnit.SECONDS);
+        } finally {
+            server.stop(0);
+        }
+        assertEquals(2, paths.size());
+    }
+
+    @Test
+    public void testAsyncSubmissionFailureCompletesExceptionally() throws Exception {
+        com.sun.net.httpserver.HttpServer server = com.sun.net.httpserver.HttpServer.create(new java.net.InetSocketAddress(0), 0);
+        server.createContext("/apis/batch/v1/namespaces/test/jobs", ex -> {
+            ex.sendResponseHeaders(422, -1);
+            ex.close();
+        });
+        server.start();
+        String url = "http://localhost:" + server.getAddress().getPort();
+        try {
+            KubeJobDispatcher dispatcher = new KubeJobDispatcher(false, url, "test");
+            java.util.concurrent.CompletableFuture<Boolean> handle = dispatcher.dispatchJobAsync("com.example.DummyJob");
+            assertThrows(java.util.concurrent.ExecutionException.class,
+                    () -> handle.get(5, java.util.concurrent.TimeUnit.SECONDS));
+        } finally {
+            server.stop(0);
+        }
+    }
+
     @Test
     public void testTemplateTtl() {
         JobTemplateBuilder builder = new JobTemplateBuilder("img", 120, null, null, "ns");
@@ -295,6 +360,92 @@ public class KubeJobDispatcherTest {
         assertTrue(yaml.contains("value: \"com.example.DummyJob\""));
     }
 
+    @Test
+    public void testExecutionNamedJob() {
+        JobTemplateBuilder builder = new JobTemplateBuilder("img");
+        String name = JobNames.executionName("com.example.DummyJob", "fire-1", 1000L);
+        String yaml = builder.buildJob(name, "com.example.DummyJob", DispatchSpec.EMPTY);
+        assertTrue(yaml.contains("name: " + name));
+        assertTrue(yaml.contains("value: \"com.example.DummyJob\""));
+        // the pod template carries the label the default pod watch selects on
+        assertTrue(yaml.contains("  template:\n    metadata:\n      labels:\n        app.kubernetes.io/managed-by: \"quartzkube\"\n"));
+    }
+
+    @Test
+    public void testIndexedJobTemplate() {
+        JobTemplateBuilder builder = new JobTemplateBuilder("img", null, null, null, "ns", 2);
+        String yaml = builder.buildIndexedJob("batch-x", "com.example.DummyJob", DispatchSpec.EMPTY, 100, 10);
+        assertTrue(yaml.contains("\nspec:\n  completionMode: Indexed\n"));
+        assertTrue(yaml.contains("completions: 100"));
+        assertTrue(yaml.contains("parallelism: 10"));
+        assertTrue(yaml.contains("backoffLimitPerIndex: 2"));
+        assertFalse(yaml.contains("  backoffLimit: "));
+        assertTrue(yaml.contains("name: JOB_COMPLETION_INDEX"));
+        assertTrue(yaml.contains("metadata.annotations['batch.kubernetes.io/job-completion-index']"));
+        assertTrue(yaml.contains("name: JOB_COMPLETIONS\n          value: \"100\""));
+    }
+
+    public static class IndexedLocalJob implements Runnable {
+        static final java.util.List<Integer> seen = new java.util.concurrent.CopyOnWriteArrayList<>();
+        @Override
+        public void run() {
+            seen.add(CompletionIndex.current());
+            if (CompletionIndex.current() == 1) {
+                throw new IllegalStateException("shard 1 failed");
+            }
+        }
+    }
+
+    @Test
+    public void testLocalIndexedDispatch() throws Exception {
+        KubeJobDispatcher dispatcher = new KubeJobDispatcher(true);
+        java.util.Map<Integer, Boolean> results = new java.util.concurrent.ConcurrentHashMap<>();
+        dispatcher.addListener(new JobResultListener() {
+            @Override
+            public void jobFinished(String jobClass, boolean success) {
+                results.put(-1, success);
+            }
+
+            @Override
+            public void jobIndexFinished(String jobClass, int index, boolean success) {
+                results.put(index, success);
+            }
+        });
+        IndexedLocalJob.seen.clear();
+        java.util.concurrent.CompletableFuture<Boolean> handle =
+                dispatcher.dispatchIndexedJobAsync(IndexedLocalJob.class.getName(), 3, 0, DispatchSpec.EMPTY);
+        assertFalse(handle.get(5, java.util.concurrent.TimeUnit.SECONDS));
+        assertTrue(dispatcher.awaitListenerDelivery(1000));
+        assertEquals(java.util.List.of(0, 1, 2), IndexedLocalJob.seen);
+        assertEquals(java.util.Map.of(0, true, 1, false, 2, true), results);
+        assertEquals(-1, CompletionIndex.current());
+    }
+
+    @Test
+    public void testRepeatedDispatchesUseDistinctNames() throws Exception {
+        com.sun.net.httpserver.HttpServer server = com.sun.net.httpserver.HttpServer.create(new java.net.InetSocketAddress(0), 0);
+        java.util.Set<String> names = java.util.concurrent.ConcurrentHashMap.newKeySet();
+        server.createContext("/apis/batch/v1/namespaces/test/jobs", ex -> {
+            String body = new String(ex.getRequestBody().readAllBytes());
+            java.util.regex.Matcher m = java.util.regex.Pattern.compile("\"name\":\"(com\\.example\\.dummyjob-[^\"]+)\"").matcher(body);
+            if (m.find()) {
+                names.add(m.group(1));
+            }
+            ex.sendResponseHeaders(201, -1);
+            ex.close();
+        });
+        server.start();
+        String url = "http://localhost:" + server.getAddress().getPort();
+        try {
+            KubeJobDispatcher dispatcher = new KubeJobDispatcher(false, url, "test");
+            dispatcher.dispatchJob("com.example.DummyJob");
+            dispatcher.dispatchJob("com.example.DummyJob");
+        } finally {
+            server.stop(0);
+        }
+        assertEquals(2, names.size());
+    }
+
     @Test
     public void testConcurrencyLimit() throws Exception {
         KubeJobDispatcher dispatcher = new KubeJobDispatcher(true, "", "default", 1);
@@ -318,6 +469,7 @@ public class KubeJobDispatcherTest {
         dispatcher.addListener((cls, success) -> results.add(success));
         LocalJob.count = 0;
         dispatcher.dispatchJob(LocalJob.class.getName());
+        assertTrue(dispatcher.awaitListenerDelivery(1000));
         assertEquals(1, results.size());
         assertTrue(results.get(0));
     }
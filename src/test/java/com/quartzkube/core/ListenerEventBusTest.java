@@ -0,0 +1,58 @@
+package com.quartzkube.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ListenerEventBusTest {
+
+    @Test
+    public void testEventsDeliveredInOrder() {
+        ListenerEventBus bus = new ListenerEventBus("test-events", 64, 1000);
+        List<Integer> seen = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int id = i;
+            assertTrue(bus.publish(() -> seen.add(id)));
+        }
+        assertTrue(bus.awaitDelivery(1000));
+        bus.shutdown();
+        assertEquals(50, seen.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, seen.get(i));
+        }
+        assertEquals(0, bus.backlog());
+    }
+
+    @Test
+    public void testSlowListenerDoesNotBlockPublisher() throws Exception {
+        Metrics.reset();
+        ListenerEventBus bus = new ListenerEventBus("test-events", 4, 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        assertTrue(bus.publish(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {}
+        }));
+        Thread.sleep(20); // let the consumer pick up the blocking event
+        long start = System.nanoTime();
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (bus.publish(() -> {})) {
+                accepted++;
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis < 50, "publishing took " + elapsedMillis + "ms");
+        // the blocked event still occupies its slot, leaving room for three more
+        assertEquals(3, accepted);
+        assertEquals(7, Metrics.getInstance().getDroppedEvents());
+        release.countDown();
+        assertTrue(bus.awaitDelivery(1000));
+        bus.shutdown();
+    }
+}
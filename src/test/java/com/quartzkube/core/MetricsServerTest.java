@@ -9,6 +9,7 @@ public class MetricsServerTest {
         Metrics.reset();
         Metrics.getInstance().recordSuccess();
         Metrics.getInstance().recordDuration(100);
+        Metrics.getInstance().recordFireLag("reports", 30);
         MetricsServer.start(0);
         int port = MetricsServer.getPort();
         java.net.URL url = new java.net.URL("http://localhost:" + port + "/metrics");
@@ -16,5 +17,10 @@ public class MetricsServerTest {
         MetricsServer.stop();
         assertTrue(body.contains("quartzkube_job_success_total 1"));
         assertTrue(body.contains("quartzkube_job_duration_millis_total 100"));
+        assertTrue(body.contains("quartzkube_fire_lag_millis_bucket{group=\"reports\",le=\"50.0\"} 1"));
+        assertTrue(body.contains("quartzkube_fire_lag_millis_count{group=\"reports\"} 1"));
+        assertTrue(body.contains("# TYPE quartzkube_dispatch_limit gauge"));
+        assertTrue(body.contains("quartzkube_dispatch_waiters "));
+        assertTrue(body.contains("# TYPE quartzkube_warm_idle gauge"));
     }
 }
@@ -0,0 +1,161 @@
+package com.quartzkube.core;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PodInformerTest {
+
+    /** Records the single shared watcher instead of talking to a cluster. */
+    static class FakeApi implements KubernetesApiService {
+        final AtomicInteger watches = new AtomicInteger();
+        volatile Watcher<Pod> watcher;
+
+        @Override
+        public void create(String manifest) {
+        }
+
+        @Override
+        public String readPodLog(String podName) {
+            return "";
+        }
+
+        @Override
+        public java.io.InputStream streamPodLog(String podName, boolean follow) {
+            return java.io.InputStream.nullInputStream();
+        }
+
+        @Override
+        public Watch watchPod(String podName, Watcher<Pod> watcher) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Watch watchPods(String labelSelector, Watcher<Pod> watcher) {
+            watches.incrementAndGet();
+            this.watcher = watcher;
+            return () -> { };
+        }
+
+        @Override
+        public java.util.List<String> listPodNames(String labelSelector) {
+            return java.util.List.of();
+        }
+    }
+
+    private static Pod pod(String name, String jobName, String phase) {
+        return new PodBuilder()
+                .withNewMetadata().withName(name).addToLabels(PodInformer.JOB_NAME_LABEL, jobName).endMetadata()
+                .withNewStatus().withPhase(phase).endStatus()
+                .build();
+    }
+
+    @Test
+    public void testRoutesPhasesThroughOneWatch() {
+        FakeApi api = new FakeApi();
+        PodInformer informer = new PodInformer(api, PodInformer.JOB_NAME_LABEL);
+        CompletableFuture<Boolean> a = new CompletableFuture<>();
+        CompletableFuture<Boolean> b = new CompletableFuture<>();
+        informer.await("job-a", a);
+        informer.await("job-b", b);
+        assertEquals(1, api.watches.get());
+
+        api.watcher.eventReceived(Watcher.Action.MODIFIED, pod("job-a-x1", "job-a", "Running"));
+        assertFalse(a.isDone());
+        api.watcher.eventReceived(Watcher.Action.MODIFIED, pod("job-a-x1", "job-a", "Succeeded"));
+        api.watcher.eventReceived(Watcher.Action.MODIFIED, pod("job-b-y2", "job-b", "Failed"));
+        assertTrue(a.join());
+        assertFalse(b.join());
+        assertEquals(0, informer.waitingJobs());
+        informer.close();
+    }
+
+    @Test
+    public void testPhaseSeenBeforeRegistrationCompletesHandle() {
+        FakeApi api = new FakeApi();
+        PodInformer informer = new PodInformer(api, PodInformer.JOB_NAME_LABEL);
+        informer.await("warmup", new CompletableFuture<>());
+        api.watcher.eventReceived(Watcher.Action.MODIFIED, pod("fast-z9", "fast", "Succeeded"));
+        CompletableFuture<Boolean> handle = new CompletableFuture<>();
+        informer.await("fast", handle);
+        assertTrue(handle.isDone());
+        assertTrue(handle.join());
+        informer.close();
+    }
+
+    @Test
+    public void testStartActionRunsOnceContainerRuns() {
+        FakeApi api = new FakeApi();
+        PodInformer informer = new PodInformer(api, PodInformer.JOB_NAME_LABEL);
+        java.util.List<String> started = new java.util.concurrent.CopyOnWriteArrayList<>();
+        informer.whenStarted("logged", started::add);
+        api.watcher.eventReceived(Watcher.Action.ADDED, pod("logged-q7", "logged", "Pending"));
+        assertTrue(started.isEmpty());
+        api.watcher.eventReceived(Watcher.Action.MODIFIED, pod("logged-q7", "logged", "Running"));
+        api.watcher.eventReceived(Watcher.Action.MODIFIED, pod("logged-q7", "logged", "Succeeded"));
+        assertEquals(java.util.List.of("logged-q7"), started);
+        informer.close();
+    }
+
+    private static Pod indexedPod(String name, String jobName, int index, String phase) {
+        Pod pod = pod(name, jobName, phase);
+        pod.getMetadata().setAnnotations(java.util.Map.of(CompletionIndex.INDEX_ANNOTATION, Integer.toString(index)));
+        return pod;
+    }
+
+    @Test
+    public void testIndexedJobReportsEachIndex() {
+        FakeApi api = new FakeApi();
+        PodInformer informer = new PodInformer(api, PodInformer.JOB_NAME_LABEL);
+        java.util.Map<Integer, Boolean> results = new java.util.concurrent.ConcurrentHashMap<>();
+        java.util.List<String> started = new java.util.concurrent.CopyOnWriteArrayList<>();
+        CompletableFuture<Boolean> handle = new CompletableFuture<>();
+        informer.awaitIndexes("batch", 3, 1, new PodInformer.IndexObserver() {
+            @Override
+            public void podStarted(String podName) {
+                started.add(podName);
+            }
+
+            @Override
+            public void indexFinished(int index, boolean success) {
+                assertNull(results.put(index, success));
+            }
+        }, handle);
+
+        api.watcher.eventReceived(Watcher.Action.MODIFIED, indexedPod("batch-0-a", "batch", 0, "Running"));
+        api.watcher.eventReceived(Watcher.Action.MODIFIED, indexedPod("batch-0-a", "batch", 0, "Succeeded"));
+        api.watcher.eventReceived(Watcher.Action.MODIFIED, indexedPod("batch-0-a", "batch", 0, "Succeeded"));
+        // index 1 may be retried once, so its first failure is not final
+        api.watcher.eventReceived(Watcher.Action.MODIFIED, indexedPod("batch-1-a", "batch", 1, "Failed"));
+        assertFalse(results.containsKey(1));
+        api.watcher.eventReceived(Watcher.Action.MODIFIED, indexedPod("batch-1-b", "batch", 1, "Succeeded"));
+        api.watcher.eventReceived(Watcher.Action.MODIFIED, indexedPod("batch-2-a", "batch", 2, "Failed"));
+        assertFalse(handle.isDone());
+        api.watcher.eventReceived(Watcher.Action.MODIFIED, indexedPod("batch-2-b", "batch", 2, "Failed"));
+
+        assertFalse(handle.join());
+        assertEquals(java.util.Map.of(0, true, 1, true, 2, false), results);
+        assertEquals(java.util.List.of("batch-0-a", "batch-1-a", "batch-1-b", "batch-2-a", "batch-2-b"), started);
+        assertEquals(0, informer.waitingJobs());
+        informer.close();
+    }
+
+    @Test
+    public void testCancelledHandleIsForgotten() {
+        FakeApi api = new FakeApi();
+        PodInformer informer = new PodInformer(api, PodInformer.JOB_NAME_LABEL);
+        CompletableFuture<Boolean> handle = new CompletableFuture<>();
+        informer.await("slow", handle);
+        assertEquals(1, informer.waitingJobs());
+        handle.cancel(false);
+        assertEquals(0, informer.waitingJobs());
+        informer.close();
+    }
+}
@@ -0,0 +1,41 @@
+package com.quartzkube.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PodLogReaderTest {
+
+    @Test
+    public void testSplitsLinesAcrossReads() throws Exception {
+        byte[] log = "first\r\n\nsecond line\nlast".getBytes(StandardCharsets.UTF_8);
+        // hand out three bytes per read so lines span buffer refills
+        InputStream in = new ByteArrayInputStream(log) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+        List<String> lines = new ArrayList<>();
+        long count = PodLogReader.pump(in, "job", (cls, line) -> lines.add(line));
+        assertEquals(List.of("first", "second line", "last"), lines);
+        assertEquals(3, count);
+    }
+
+    @Test
+    public void testOverlongLineIsSplit() throws Exception {
+        byte[] log = new byte[PodLogReader.MAX_LINE_BYTES + 10];
+        java.util.Arrays.fill(log, (byte) 'x');
+        List<String> lines = new ArrayList<>();
+        PodLogReader.pump(new ByteArrayInputStream(log), "job", (cls, line) -> lines.add(line));
+        assertEquals(2, lines.size());
+        assertEquals(PodLogReader.MAX_LINE_BYTES, lines.get(0).length());
+        assertEquals(10, lines.get(1).length());
+    }
+}
@@ -64,10 +64,568 @@ public class QuartzKubeSchedulerTest {
         scheduler.start();
         scheduler.scheduleJob(SlowJob.class);
         scheduler.scheduleJob(SlowJob.class);
-        Thread.sleep(250); // during first run, second should not have executed yet
+        Thread.sleep(100); // during first run, second should not have executed yet
         assertEquals(1, SlowJob.count);
-        Thread.sleep(250); // allow second run to finish
+        Thread.sleep(400); // second run starts as soon as the first finishes
         scheduler.shutdown();
         assertEquals(2, SlowJob.count);
     }
+
+    public static class BlockingJob implements Runnable {
+        @Override
+        public void run() {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException ignored) {}
+        }
+    }
+
+    @Test
+    public void testTriggersFireOnTimeWhileWorkersSaturated() throws Exception {
+        java.util.List<Long> submitted = new java.util.concurrent.CopyOnWriteArrayList<>();
+        java.util.concurrent.ExecutorService single = java.util.concurrent.Executors.newSingleThreadExecutor();
+        java.util.concurrent.ExecutorService workers = new java.util.concurrent.AbstractExecutorService() {
+            @Override public void execute(Runnable command) {
+                submitted.add(System.currentTimeMillis());
+                single.execute(command);
+            }
+            @Override public void shutdown() { single.shutdown(); }
+            @Override public java.util.List<Runnable> shutdownNow() { return single.shutdownNow(); }
+            @Override public boolean isShutdown() { return single.isShutdown(); }
+            @Override public boolean isTerminated() { return single.isTerminated(); }
+            @Override public boolean awaitTermination(long t, java.util.concurrent.TimeUnit u) throws InterruptedException {
+                return single.awaitTermination(t, u);
+            }
+        };
+        QuartzKubeScheduler scheduler = new QuartzKubeScheduler(new InMemoryJobStore(), workers);
+        scheduler.start();
+        scheduler.scheduleJob(BlockingJob.class);
+        long start = System.currentTimeMillis();
+        JobDetail detail = JobBuilder.newJob(CounterJob.class).withIdentity("busy").build();
+        Trigger trig = TriggerBuilder.newTrigger()
+                .startAt(new java.util.Date(start + 100))
+                .withSchedule(org.quartz.SimpleScheduleBuilder.simpleSchedule()
+                        .withIntervalInMilliseconds(100).withRepeatCount(2))
+                .build();
+        scheduler.scheduleJob(detail, trig);
+        Thread.sleep(400);
+        scheduler.shutdown();
+        // the blocking job still holds the only worker, yet all three fires were handed off on schedule
+        assertEquals(4, submitted.size());
+        for (int i = 1; i < 4; i++) {
+            long lag = submitted.get(i) - (start + 100L * i);
+            assertTrue(lag < 50, "fire " + i + " late by " + lag);
+        }
+    }
+
+    @Test
+    public void testCustomJobFactory() throws Exception {
+        java.util.List<Class<?>> requested = new java.util.concurrent.CopyOnWriteArrayList<>();
+        QuartzKubeScheduler scheduler = new QuartzKubeScheduler();
+        scheduler.setJobFactory(cls -> {
+            requested.add(cls);
+            return new CounterJob();
+        });
+        CounterJob.count = 0;
+        scheduler.start();
+        scheduler.scheduleJob(CounterJob.class);
+        Thread.sleep(100);
+        scheduler.shutdown();
+        assertEquals(java.util.List.of(CounterJob.class), requested);
+        assertEquals(1, CounterJob.count);
+    }
+
+    @Test
+    public void testScheduleJobsBatchesPersistence() throws Exception {
+        java.util.List<java.util.Collection<String>> batches = new java.util.concurrent.CopyOnWriteArrayList<>();
+        InMemoryJobStore store = new InMemoryJobStore() {
+            @Override
+            public synchronized void saveJobs(java.util.Collection<String> jobClasses) {
+                batches.add(java.util.List.copyOf(jobClasses));
+                super.saveJobs(jobClasses);
+            }
+        };
+        CounterJob.count = 0;
+        QuartzKubeScheduler scheduler = new QuartzKubeScheduler(store);
+        scheduler.start();
+        java.util.Map<JobDetail, java.util.Set<? extends Trigger>> jobs = new java.util.LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            // durable so the jobs stay registered after their one-shot triggers complete
+            JobDetail detail = JobBuilder.newJob(CounterJob.class).withIdentity("bulk" + i).storeDurably().build();
+            Trigger trig = TriggerBuilder.newTrigger().withIdentity("bulk" + i)
+                    .withSchedule(org.quartz.SimpleScheduleBuilder.simpleSchedule())
+                    .startNow().build();
+            jobs.put(detail, java.util.Set.of(trig));
+        }
+        // neither cron nor simple, so it runs once right away and is persisted like scheduleJob(Class)
+        jobs.put(JobBuilder.newJob(CounterJob.class).withIdentity("once").build(), java.util.Set.of(
+                TriggerBuilder.newTrigger().withIdentity("once")
+                        .withSchedule(org.quartz.CalendarIntervalScheduleBuilder.calendarIntervalSchedule())
+                        .startNow().build()));
+        scheduler.scheduleJobs(jobs, false);
+        Thread.sleep(100);
+        assertEquals(4, CounterJob.count);
+        assertEquals(1, batches.size());
+        assertEquals(java.util.List.of(CounterJob.class.getName()), batches.get(0));
+        // triggered jobs leave no entries that recovery would replay on the next start
+        assertEquals(1, store.loadJobs().size());
+
+        // an existing job key is rejected without scheduling anything
+        JobDetail again = JobBuilder.newJob(CounterJob.class).withIdentity("bulk0").build();
+        JobDetail fresh = JobBuilder.newJob(CounterJob.class).withIdentity("fresh").build();
+        java.util.Map<JobDetail, java.util.Set<? extends Trigger>> clash = new java.util.LinkedHashMap<>();
+        clash.put(fresh, java.util.Set.of(TriggerBuilder.newTrigger().startNow().build()));
+        clash.put(again, java.util.Set.of(TriggerBuilder.newTrigger().startNow().build()));
+        assertThrows(org.quartz.ObjectAlreadyExistsException.class, () -> scheduler.scheduleJobs(clash, false));
+        Thread.sleep(100);
+        assertEquals(4, CounterJob.count);
+        assertEquals(1, batches.size());
+
+        scheduler.scheduleJobs(clash, true);
+        Thread.sleep(100);
+        scheduler.shutdown();
+        assertEquals(6, CounterJob.count);
+        // simple triggers only, so nothing was written
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void testRecoveryRateLimitsCatchUp() throws Exception {
+        CounterJob.count = 0;
+        InMemoryJobStore store = new InMemoryJobStore();
+        store.saveJobs(java.util.List.of(CounterJob.class.getName(), CounterJob.class.getName(),
+                CounterJob.class.getName(), "com.example.Missing"));
+        System.setProperty("RECOVERY_CATCHUP_RATE", "5");
+        System.setProperty("RECOVERY_PAGE_SIZE", "2");
+        QuartzKubeScheduler scheduler = new QuartzKubeScheduler(store);
+        try {
+            scheduler.start();
+            assertEquals(3, Metrics.getInstance().getRecoveredJobs());
+            Thread.sleep(50);
+            // missed fires are released one per 200ms rather than all at once
+            assertEquals(1, CounterJob.count, "recovery took " + Metrics.getInstance().getRecoveryMillis() + "ms");
+            Thread.sleep(450);
+            assertEquals(3, CounterJob.count);
+        } finally {
+            scheduler.shutdown();
+            System.clearProperty("RECOVERY_CATCHUP_RATE");
+            System.clearProperty("RECOVERY_PAGE_SIZE");
+        }
+    }
+
+    public static class LaterJob implements Job {
+        static final java.util.concurrent.atomic.AtomicInteger count = new java.util.concurrent.atomic.AtomicInteger();
+        @Override
+        public void execute(JobExecutionContext context) {
+            count.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void testRecoveredTriggerRearmsFromItsCheckpoint() throws Exception {
+        LaterJob.count.set(0);
+        InMemoryJobStore store = new InMemoryJobStore();
+        long t0 = System.currentTimeMillis();
+        store.saveNextFireTimes(java.util.Map.of("restart.later", t0 + 300, "restart.missed", t0 - 5000));
+        QuartzKubeScheduler scheduler = new QuartzKubeScheduler(store);
+        try {
+            // registered before start: re-armed by recovery
+            scheduler.scheduleJob(JobBuilder.newJob(LaterJob.class).withIdentity("later", "restart").build(),
+                    everyMillis("later", "restart", 10_000));
+            scheduler.start();
+            assertEquals(1, Metrics.getInstance().getRecoveredJobs());
+            // registered after start: a missed fire is caught up once, then the trigger keeps its period
+            Trigger missed = everyMillis("missed", "restart", 10_000);
+            scheduler.scheduleJob(JobBuilder.newJob(LaterJob.class).withIdentity("missed", "restart").build(), missed);
+            Thread.sleep(100);
+            assertEquals(1, LaterJob.count.get());
+            Thread.sleep(Math.max(0, t0 + 500 - System.currentTimeMillis()));
+            // the future fire waited for its checkpointed time instead of firing on registration
+            assertEquals(2, LaterJob.count.get());
+        } finally {
+            scheduler.shutdown();
+        }
+        // shutdown writes every trigger's latest next fire under its own key
+        java.util.Map<String, Long> saved = store.loadNextFireTimes();
+        assertTrue(saved.get("restart.later") > t0 + 300);
+        assertTrue(saved.get("restart.missed") > t0);
+    }
+
+    public static class TickJob implements Job {
+        static final java.util.concurrent.atomic.AtomicInteger count = new java.util.concurrent.atomic.AtomicInteger();
+        @Override
+        public void execute(JobExecutionContext context) {
+            count.incrementAndGet();
+        }
+    }
+
+    private static Trigger everyMillis(String name, String group, long interval) {
+        return TriggerBuilder.newTrigger().withIdentity(name, group).startNow()
+                .withSchedule(org.quartz.SimpleScheduleBuilder.simpleSchedule()
+                        .withIntervalInMilliseconds(interval).repeatForever())
+                .build();
+    }
+
+    @Test
+    public void testPauseResumeAndUnscheduleTrigger() throws Exception {
+        TickJob.count.set(0);
+        QuartzKubeScheduler scheduler = new QuartzKubeScheduler();
+        scheduler.start();
+        try {
+            JobDetail detail = JobBuilder.newJob(TickJob.class).withIdentity("tick").build();
+            Trigger trig = everyMillis("tick", null, 50);
+            scheduler.scheduleJob(detail, trig);
+            Thread.sleep(120);
+            assertTrue(TickJob.count.get() >= 2);
+
+            scheduler.pauseTrigger(trig.getKey());
+            assertEquals(Trigger.TriggerState.PAUSED, scheduler.getTriggerState(trig.getKey()));
+            Thread.sleep(20); // a fire already handed to a worker may still finish
+            int paused = TickJob.count.get();
+            Thread.sleep(150);
+            assertEquals(paused, TickJob.count.get());
+
+            // the missed fires collapse into a single immediate fire on resume
+            scheduler.resumeTrigger(trig.getKey());
+            assertEquals(Trigger.TriggerState.NORMAL, scheduler.getTriggerState(trig.getKey()));
+            Thread.sleep(20);
+            assertEquals(paused + 1, TickJob.count.get());
+            Thread.sleep(100);
+            assertTrue(TickJob.count.get() > paused + 1);
+
+            assertTrue(scheduler.unscheduleJob(trig.getKey()));
+            assertFalse(scheduler.unscheduleJob(trig.getKey()));
+            assertEquals(Trigger.TriggerState.NONE, scheduler.getTriggerState(trig.getKey()));
+            Thread.sleep(20);
+            int stopped = TickJob.count.get();
+            Thread.sleep(150);
+            assertEquals(stopped, TickJob.count.get());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testPauseJobGroupAndReschedule() throws Exception {
+        TickJob.count.set(0);
+        QuartzKubeScheduler scheduler = new QuartzKubeScheduler();
+        scheduler.start();
+        try {
+            scheduler.pauseJobGroup("reports");
+            JobDetail detail = JobBuilder.newJob(TickJob.class).withIdentity("daily", "reports").build();
+            Trigger trig = everyMillis("daily", "reports", 50);
+            scheduler.scheduleJob(detail, trig);
+            // triggers added to a paused group start paused
+            assertEquals(Trigger.TriggerState.PAUSED, scheduler.getTriggerState(trig.getKey()));
+            Thread.sleep(100);
+            assertEquals(0, TickJob.count.get());
+
+            scheduler.resumeJobGroup("reports");
+            Thread.sleep(80);
+            assertTrue(TickJob.count.get() >= 1);
+
+            Trigger replacement = TriggerBuilder.newTrigger().withIdentity("once", "reports")
+                    .startAt(new java.util.Date(System.currentTimeMillis() + 100)).build();
+            java.util.Date first = scheduler.rescheduleJob(trig.getKey(), replacement);
+            assertNotNull(first);
+            assertEquals(Trigger.TriggerState.NONE, scheduler.getTriggerState(trig.getKey()));
+            assertEquals(Trigger.TriggerState.NORMAL, scheduler.getTriggerState(replacement.getKey()));
+            assertNull(scheduler.rescheduleJob(org.quartz.TriggerKey.triggerKey("missing"), replacement));
+            Thread.sleep(20);
+            int before = TickJob.count.get();
+            Thread.sleep(200);
+            // the replacement fires exactly once and is then removed
+            assertEquals(before + 1, TickJob.count.get());
+            assertEquals(Trigger.TriggerState.NONE, scheduler.getTriggerState(replacement.getKey()));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    public static class StampJob implements Job {
+        static final java.util.List<Long> fired = new java.util.concurrent.CopyOnWriteArrayList<>();
+        @Override
+        public void execute(JobExecutionContext context) {
+            fired.add(System.currentTimeMillis());
+        }
+    }
+
+    @Test
+    public void testFireSmoothingSpreadsSharedFireTimes() throws Exception {
+        System.setProperty("FIRE_SMOOTHING_WINDOW_MILLIS", "400");
+        StampJob.fired.clear();
+        QuartzKubeScheduler scheduler = new QuartzKubeScheduler();
+        try {
+            JobDetail a = JobBuilder.newJob(StampJob.class).withIdentity("a", "smooth").build();
+            Trigger t = TriggerBuilder.newTrigger().build();
+            long offset = scheduler.fireOffset(a, t);
+            assertTrue(offset >= 0 && offset < 400);
+            // the offset depends only on the job key
+            QuartzKubeScheduler other = new QuartzKubeScheduler();
+            assertEquals(offset, other.fireOffset(
+                    JobBuilder.newJob(CounterJob.class).withIdentity("a", "smooth").build(), t));
+            other.shutdown();
+            Trigger exact = TriggerBuilder.newTrigger().usingJobData("exactFireTime", "true").build();
+            assertEquals(0, scheduler.fireOffset(a, exact));
+            JobDetail exactJob = JobBuilder.newJob(StampJob.class).withIdentity("b", "smooth")
+                    .usingJobData("exactFireTime", true).build();
+            assertEquals(0, scheduler.fireOffset(exactJob, t));
+
+            scheduler.start();
+            long at = System.currentTimeMillis() + 50;
+            for (int i = 0; i < 30; i++) {
+                scheduler.scheduleJob(JobBuilder.newJob(StampJob.class).withIdentity("job" + i, "smooth").build(),
+                        TriggerBuilder.newTrigger().startAt(new java.util.Date(at)).build());
+            }
+            Thread.sleep(550);
+            assertEquals(30, StampJob.fired.size());
+            long min = java.util.Collections.min(StampJob.fired);
+            long max = java.util.Collections.max(StampJob.fired);
+            assertTrue(min >= at, "fired before the nominal time");
+            assertTrue(max - min > 100, "fires not spread: " + (max - min) + "ms");
+            assertTrue(max < at + 450, "fire outside the smoothing window");
+        } finally {
+            scheduler.shutdown();
+            System.clearProperty("FIRE_SMOOTHING_WINDOW_MILLIS");
+        }
+    }
+
+    public static class StuckJob implements org.quartz.InterruptableJob {
+        static final java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+        static volatile boolean interrupted;
+        @Override
+        public void execute(JobExecutionContext context) {
+            // ignores thread interrupts, as a hung call into a library might
+            while (true) {
+                try {
+                    if (release.await(1, java.util.concurrent.TimeUnit.SECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }
+        @Override
+        public void interrupt() {
+            interrupted = true;
+        }
+    }
+
+    public static class SleepyJob implements Job {
+        static final java.util.concurrent.atomic.AtomicBoolean sawInterrupt = new java.util.concurrent.atomic.AtomicBoolean();
+        @Override
+        public void execute(JobExecutionContext context) {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                sawInterrupt.set(true);
+            }
+        }
+    }
+
+    @Test
+    public void testTimedOutJobIsInterruptedAndFreesItsWorker() throws Exception {
+        Metrics.reset();
+        CounterJob.count = 0;
+        java.util.concurrent.ThreadPoolExecutor workers = (java.util.concurrent.ThreadPoolExecutor)
+                java.util.concurrent.Executors.newFixedThreadPool(1);
+        QuartzKubeScheduler scheduler = new QuartzKubeScheduler(new InMemoryJobStore(), workers);
+        java.util.List<org.quartz.JobExecutionException> results = new java.util.concurrent.CopyOnWriteArrayList<>();
+        scheduler.addJobListener(new org.quartz.listeners.JobListenerSupport() {
+            @Override public String getName() { return "results"; }
+            @Override public void jobWasExecuted(JobExecutionContext c, org.quartz.JobExecutionException e) {
+                results.add(e);
+            }
+        });
+        scheduler.start();
+        try {
+            scheduler.scheduleJob(JobBuilder.newJob(StuckJob.class).withIdentity("stuck")
+                            .usingJobData("timeoutMillis", "100").build(),
+                    TriggerBuilder.newTrigger().startNow().build());
+            Thread.sleep(250);
+            assertTrue(StuckJob.interrupted);
+            assertEquals(1, Metrics.getInstance().getTimeoutCount());
+            // the only worker is still stuck, but a replacement thread takes new fires
+            scheduler.scheduleJob(CounterJob.class);
+            Thread.sleep(150);
+            assertEquals(1, CounterJob.count);
+            assertEquals(2, workers.getCorePoolSize());
+
+            StuckJob.release.countDown();
+            Thread.sleep(150);
+            assertEquals(1, workers.getCorePoolSize());
+            assertTrue(scheduler.awaitListenerDelivery(1000));
+            assertTrue(results.stream().anyMatch(e -> e instanceof JobTimeoutException));
+            assertEquals(0, Metrics.getInstance().getFailureCount());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    public static class BlockingInterruptJob implements org.quartz.InterruptableJob {
+        static final java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+        static volatile boolean interruptCalled;
+        @Override
+        public void execute(JobExecutionContext context) {
+            try {
+                release.await(5, java.util.concurrent.TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+        }
+        @Override
+        public void interrupt() {
+            interruptCalled = true;
+            // blocks like a cancel call into an unresponsive remote service
+            while (true) {
+                try {
+                    if (release.await(5, java.util.concurrent.TimeUnit.SECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException ignored) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBlockingInterruptDoesNotStallTriggers() throws Exception {
+        CounterJob.count = 0;
+        QuartzKubeScheduler scheduler = new QuartzKubeScheduler();
+        scheduler.start();
+        try {
+            scheduler.scheduleJob(JobBuilder.newJob(BlockingInterruptJob.class).withIdentity("blocking")
+                            .usingJobData("timeoutMillis", "50").build(),
+                    TriggerBuilder.newTrigger().startNow().build());
+            Thread.sleep(200);
+            assertTrue(BlockingInterruptJob.interruptCalled);
+            // interrupt() is still blocked while a timed trigger comes due
+            scheduler.scheduleJob(JobBuilder.newJob(CounterJob.class).withIdentity("later").build(),
+                    TriggerBuilder.newTrigger().startAt(new java.util.Date(System.currentTimeMillis() + 50)).build());
+            Thread.sleep(300);
+            assertEquals(1, CounterJob.count);
+        } finally {
+            BlockingInterruptJob.release.countDown();
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testDefaultTimeoutInterruptsWorkerThread() throws Exception {
+        System.setProperty("JOB_TIMEOUT_MILLIS", "100");
+        Metrics.reset();
+        SleepyJob.sawInterrupt.set(false);
+        QuartzKubeScheduler scheduler = new QuartzKubeScheduler();
+        try {
+            Trigger noLimit = TriggerBuilder.newTrigger().usingJobData("timeoutMillis", "0").build();
+            assertEquals(0, scheduler.timeoutMillis(JobBuilder.newJob(SleepyJob.class).build(), noLimit));
+            scheduler.start();
+            scheduler.scheduleJob(SleepyJob.class);
+            Thread.sleep(300);
+            assertTrue(SleepyJob.sawInterrupt.get());
+            assertEquals(1, Metrics.getInstance().getTimeoutCount());
+            assertEquals(0, Metrics.getInstance().getSuccessCount());
+        } finally {
+            scheduler.shutdown();
+            System.clearProperty("JOB_TIMEOUT_MILLIS");
+        }
+    }
+
+    @Test
+    public void testFireLagRecordedPerGroup() throws Exception {
+        Metrics.reset();
+        QuartzKubeScheduler scheduler = new QuartzKubeScheduler(new InMemoryJobStore(),
+                java.util.concurrent.Executors.newSingleThreadExecutor());
+        scheduler.start();
+        try {
+            long start = System.currentTimeMillis();
+            // occupies the only worker for 500ms
+            scheduler.scheduleJob(BlockingJob.class);
+            scheduler.scheduleJob(JobBuilder.newJob(CounterJob.class).withIdentity("late", "lagging").build(),
+                    TriggerBuilder.newTrigger().startAt(new java.util.Date(start + 100)).build());
+            scheduler.scheduleJob(JobBuilder.newJob(CounterJob.class).withIdentity("cron", "cron-lag").build(),
+                    TriggerBuilder.newTrigger().withSchedule(
+                            org.quartz.CronScheduleBuilder.cronSchedule("* * * * * ?")).build());
+            Thread.sleep(1700);
+            LatencyHistogram late = Metrics.getInstance().getFireLagHistograms().get("lagging");
+            assertNotNull(late);
+            assertEquals(1, late.getCount());
+            assertTrue(late.getSumMillis() >= 300, "lag " + late.getSumMillis());
+            assertNotNull(Metrics.getInstance().getFireLagHistograms().get("cron-lag"));
+            assertNotNull(Metrics.getInstance().getQueueWaitHistograms().get("lagging"));
+            // unscheduled one-off fires have no due time to compare against
+            assertFalse(Metrics.getInstance().getFireLagHistograms().containsKey(org.quartz.JobKey.DEFAULT_GROUP));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    public static class ContextJob implements Job {
+        static final java.util.List<JobExecutionContext> seen = new java.util.concurrent.CopyOnWriteArrayList<>();
+        @Override
+        public void execute(JobExecutionContext context) {
+            context.getMergedJobDataMap().put("touched", true);
+            seen.add(context);
+        }
+    }
+
+    @Test
+    public void testJobsReceiveExecutionContext() throws Exception {
+        ContextJob.seen.clear();
+        QuartzKubeScheduler scheduler = new QuartzKubeScheduler();
+        java.util.List<JobExecutionContext> listened = new java.util.concurrent.CopyOnWriteArrayList<>();
+        scheduler.addJobListener(new org.quartz.listeners.JobListenerSupport() {
+            @Override public String getName() { return "contexts"; }
+            @Override public void jobWasExecuted(JobExecutionContext c, org.quartz.JobExecutionException e) {
+                listened.add(c);
+            }
+        });
+        scheduler.start();
+        try {
+            long start = System.currentTimeMillis() + 50;
+            JobDetail detail = JobBuilder.newJob(ContextJob.class).withIdentity("ctx", "contexts")
+                    .usingJobData("region", "eu").usingJobData("size", "small").build();
+            Trigger trigger = TriggerBuilder.newTrigger().withIdentity("ctx-trigger", "contexts")
+                    .usingJobData("size", "large")
+                    .startAt(new java.util.Date(start))
+                    .withSchedule(org.quartz.SimpleScheduleBuilder.simpleSchedule()
+                            .withIntervalInMilliseconds(100).withRepeatCount(1))
+                    .build();
+            scheduler.scheduleJob(detail, trigger);
+            scheduler.scheduleJob(ContextJob.class);
+            Thread.sleep(350);
+            assertTrue(scheduler.awaitListenerDelivery(1000));
+
+            assertEquals(3, ContextJob.seen.size());
+            assertEquals(new java.util.HashSet<>(ContextJob.seen), new java.util.HashSet<>(listened));
+            java.util.List<JobExecutionContext> timed = ContextJob.seen.stream()
+                    .filter(c -> c.getTrigger() != null).toList();
+            assertEquals(2, timed.size());
+            JobExecutionContext first = timed.get(0);
+            JobExecutionContext second = timed.get(1);
+            assertSame(detail, first.getJobDetail());
+            assertSame(trigger, first.getTrigger());
+            assertEquals("eu", first.getMergedJobDataMap().getString("region"));
+            // trigger data overrides job data, and each fire gets its own map
+            assertEquals("large", first.getMergedJobDataMap().getString("size"));
+            assertNotSame(first.getMergedJobDataMap(), second.getMergedJobDataMap());
+            assertFalse(detail.getJobDataMap().containsKey("touched"));
+            assertEquals(start, first.getScheduledFireTime().getTime());
+            assertNull(first.getPreviousFireTime());
+            assertEquals(start + 100, first.getNextFireTime().getTime());
+            assertEquals(start, second.getPreviousFireTime().getTime());
+            assertNull(second.getNextFireTime());
+            assertTrue(first.getFireTime().getTime() >= start);
+            assertTrue(first.getJobInstance() instanceof ContextJob);
+            assertTrue(first.getJobRunTime() >= 0);
+            assertNotEquals(first.getFireInstanceId(), second.getFireInstanceId());
+
+            JobExecutionContext oneOff = ContextJob.seen.stream()
+                    .filter(c -> c.getTrigger() == null).findFirst().orElseThrow();
+            assertEquals(ContextJob.class.getName(), oneOff.getJobDetail().getKey().getName());
+            assertSame(oneOff.getJobDetail(), JobClassInfo.of(ContextJob.class).jobDetail());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package com.quartzkube.core;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import org.junit.jupiter.api.Test;
+import org.quartz.JobBuilder;
+import org.quartz.TriggerBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnableKubernetesMockClient(crud = true)
+public class ShardedLeaderElectionTest {
+    static KubernetesClient client;
+
+    private static void await(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(50);
+        }
+    }
+
+    /** True when every shard is owned by exactly one of the elections. */
+    private static boolean partitioned(List<ShardedLeaderElection> elections, int shards) {
+        Set<Integer> seen = new HashSet<>();
+        for (ShardedLeaderElection e : elections) {
+            for (int shard : e.ownedShards()) {
+                assertTrue(seen.add(shard), "shard " + shard + " owned twice");
+            }
+        }
+        return seen.size() == shards;
+    }
+
+    @Test
+    public void testRendezvousMovesOnlyDepartedMembersShards() {
+        List<String> three = List.of("a", "b", "c");
+        List<String> two = List.of("a", "b");
+        for (int shard = 0; shard < 64; shard++) {
+            String before = ShardedLeaderElection.ownerOf(shard, three);
+            if (!before.equals("c")) {
+                assertEquals(before, ShardedLeaderElection.ownerOf(shard, two));
+            }
+        }
+        for (long key = 0; key < 1000; key++) {
+            int shard = ShardedLeaderElection.jumpHash(key, 16);
+            assertTrue(shard >= 0 && shard < 16);
+            assertEquals(shard, ShardedLeaderElection.jumpHash(key, 16));
+        }
+    }
+
+    @Test
+    public void testReplicasSplitShardsAndRebalance() throws Exception {
+        int shards = 32;
+        List<ShardedLeaderElection> elections = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            elections.add(new ShardedLeaderElection(client, "test", "split", shards, 2000));
+        }
+        elections.forEach(ShardedLeaderElection::start);
+        try {
+            await(() -> partitioned(elections, shards), 10000);
+            Map<ShardedLeaderElection, Set<Integer>> before = new HashMap<>();
+            for (ShardedLeaderElection e : elections) {
+                assertFalse(e.ownedShards().isEmpty(), "a replica was left idle");
+                before.put(e, e.ownedShards());
+            }
+
+            ShardedLeaderElection leaving = elections.remove(2);
+            leaving.stop();
+            await(() -> partitioned(elections, shards), 10000);
+            // survivors keep everything they had and only pick up the departed replica's shards
+            for (ShardedLeaderElection e : elections) {
+                assertTrue(e.ownedShards().containsAll(before.get(e)));
+            }
+        } finally {
+            elections.forEach(ShardedLeaderElection::stop);
+        }
+    }
+
+    @Test
+    public void testRecoveryWaitsForFirstReconcile() throws Exception {
+        ShardedJob.runs.set(0);
+        InMemoryJobStore store = new InMemoryJobStore();
+        store.saveJob(ShardedJob.class.getName());
+        ShardedLeaderElection e = new ShardedLeaderElection(client, "test", "recovery", 4, 2000);
+        QuartzKubeScheduler s = new QuartzKubeScheduler(store);
+        s.setShardedLeaderElection(e);
+        try {
+            s.start();
+            assertTrue(e.isAssigned(ShardedJob.class.getName()));
+            // the recovered fire is not dropped for want of a lease
+            await(() -> ShardedJob.runs.get() == 1, 2000);
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    public static class ShardedJob implements org.quartz.Job {
+        static final AtomicInteger runs = new AtomicInteger();
+        @Override
+        public void execute(org.quartz.JobExecutionContext context) {
+            runs.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void testEachJobFiresOnOneScheduler() throws Exception {
+        int shards = 16;
+        ShardedJob.runs.set(0);
+        List<QuartzKubeScheduler> schedulers = new ArrayList<>();
+        List<ShardedLeaderElection> elections = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ShardedLeaderElection e = new ShardedLeaderElection(client, "test", "jobs", shards, 2000);
+            QuartzKubeScheduler s = new QuartzKubeScheduler();
+            s.setShardedLeaderElection(e);
+            s.start();
+            elections.add(e);
+            schedulers.add(s);
+        }
+        try {
+            await(() -> partitioned(elections, shards), 10000);
+            long at = System.currentTimeMillis() + 200;
+            for (QuartzKubeScheduler s : schedulers) {
+                for (int j = 0; j < 20; j++) {
+                    s.scheduleJob(JobBuilder.newJob(ShardedJob.class).withIdentity("job" + j).build(),
+                            TriggerBuilder.newTrigger().withIdentity("job" + j)
+                                    .startAt(new java.util.Date(at)).build());
+                }
+            }
+            Thread.sleep(500);
+            assertEquals(20, ShardedJob.runs.get());
+        } finally {
+            schedulers.forEach(QuartzKubeScheduler::shutdown);
+        }
+    }
+}
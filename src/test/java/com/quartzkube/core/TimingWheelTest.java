@@ -0,0 +1,70 @@
+package com.quartzkube.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest {
+
+    @Test
+    public void testFiresInDeadlineOrderAcrossLevels() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        TimingWheel wheel = new TimingWheel(1, pool);
+        wheel.start();
+        List<Long> lags = new CopyOnWriteArrayList<>();
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        long now = System.currentTimeMillis();
+        int[] delays = {400, 20, 150};
+        for (int i = 0; i < delays.length; i++) {
+            int idx = i;
+            wheel.schedule(t -> {
+                lags.add(System.currentTimeMillis() - t.deadline());
+                order.add(idx);
+                latch.countDown();
+            }, now + delays[i]);
+        }
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        wheel.stop();
+        pool.shutdownNow();
+        assertEquals(List.of(1, 2, 0), order);
+        for (long lag : lags) {
+            assertTrue(lag >= 0 && lag < 100, "lag " + lag);
+        }
+    }
+
+    @Test
+    public void testCancelAndRearm() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        TimingWheel wheel = new TimingWheel(1, pool);
+        wheel.start();
+        AtomicInteger cancelledRuns = new AtomicInteger();
+        TimingWheel.Timeout cancelled = wheel.schedule(t -> cancelledRuns.incrementAndGet(),
+                System.currentTimeMillis() + 50);
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.rearm(System.currentTimeMillis()));
+
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(3);
+        wheel.schedule(t -> {
+            latch.countDown();
+            if (runs.incrementAndGet() < 3) {
+                t.rearm(t.deadline() + 10);
+            }
+        }, System.currentTimeMillis() + 10);
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        wheel.stop();
+        pool.shutdownNow();
+        assertEquals(3, runs.get());
+        assertEquals(0, cancelledRuns.get());
+    }
+}
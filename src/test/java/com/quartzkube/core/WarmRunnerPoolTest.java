@@ -0,0 +1,155 @@
+package com.quartzkube.core;
+
+import com.quartzkube.runner.WarmRunner;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WarmRunnerPoolTest {
+    private static final String TOKEN = "secret";
+
+    public static class EchoJob implements Runnable {
+        static int runs;
+
+        @Override
+        public void run() {
+            runs++;
+            System.out.println("echo " + runs);
+        }
+    }
+
+    public static class FailingJob implements Runnable {
+        @Override
+        public void run() {
+            throw new IllegalStateException("boom");
+        }
+    }
+
+    /** Runs a runner on a thread of this JVM in place of a runner process. */
+    private static Thread startRunner(WarmRunnerPool pool) {
+        Thread t = new Thread(() -> {
+            try {
+                WarmRunner.connect("127.0.0.1", pool.port(), TOKEN);
+            } catch (java.io.IOException ignored) {
+            }
+        });
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private static void awaitIdle(WarmRunnerPool pool, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.idleRunners() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, pool.idleRunners());
+    }
+
+    @Test
+    public void testRunsJobsAndRecyclesRunner() throws Exception {
+        Metrics.reset();
+        WarmRunnerPool pool = new WarmRunnerPool("127.0.0.1", 0, TOKEN, 1, 2, 0, 1000);
+        try {
+            assertFalse(pool.tryRun(EchoJob.class.getName(), null, null, new CompletableFuture<>()));
+            assertEquals(1, Metrics.getInstance().getWarmFallbacks());
+
+            Thread runner = startRunner(pool);
+            awaitIdle(pool, 1);
+            EchoJob.runs = 0;
+            List<String> lines = new CopyOnWriteArrayList<>();
+            CompletableFuture<Boolean> first = new CompletableFuture<>();
+            assertTrue(pool.tryRun(EchoJob.class.getName(), null, (cls, line) -> lines.add(line), first));
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of("echo 1"), lines);
+            awaitIdle(pool, 1);
+
+            CompletableFuture<Boolean> second = new CompletableFuture<>();
+            assertTrue(pool.tryRun(FailingJob.class.getName(), null, null, second));
+            assertFalse(second.get(5, TimeUnit.SECONDS));
+
+            // the second run was the last one allowed, so the runner exits
+            runner.join(5000);
+            assertFalse(runner.isAlive());
+            assertEquals(0, pool.idleRunners());
+            assertEquals(1, Metrics.getInstance().getWarmRecycles());
+            assertEquals(2, Metrics.getInstance().getWarmRuns());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testUnresponsiveRunnerIsDropped() throws Exception {
+        WarmRunnerPool pool = new WarmRunnerPool("127.0.0.1", 0, TOKEN, 2, 100, 50, 200);
+        try (java.net.Socket silent = new java.net.Socket("127.0.0.1", pool.port())) {
+            silent.getOutputStream().write(("HELLO\t" + TOKEN + "\n").getBytes());
+            silent.getOutputStream().flush();
+            awaitIdle(pool, 1);
+            // never answers PING
+            awaitIdle(pool, 0);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testSilentClientDoesNotBlockRegistration() throws Exception {
+        WarmRunnerPool pool = new WarmRunnerPool("127.0.0.1", 0, TOKEN, 2, 100, 0, 3000);
+        try (java.net.Socket silent = new java.net.Socket("127.0.0.1", pool.port())) {
+            // never sends HELLO, so its handshake waits for the full timeout
+            long started = System.currentTimeMillis();
+            startRunner(pool);
+            while (pool.idleRunners() == 0 && System.currentTimeMillis() - started < 1000) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, pool.idleRunners());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testRunnerWithoutTokenIsRejected() throws Exception {
+        WarmRunnerPool pool = new WarmRunnerPool("127.0.0.1", 0, TOKEN, 2, 100, 0, 1000);
+        try {
+            for (String hello : List.of("HELLO\n", "HELLO\twrong\n")) {
+                try (java.net.Socket socket = new java.net.Socket("127.0.0.1", pool.port())) {
+                    socket.getOutputStream().write(hello.getBytes());
+                    socket.getOutputStream().flush();
+                    java.io.BufferedReader in = new java.io.BufferedReader(
+                            new java.io.InputStreamReader(socket.getInputStream()));
+                    assertEquals("EXIT", in.readLine());
+                }
+            }
+            assertEquals(0, pool.idleRunners());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testSecondPoolOnSamePortFailsToBind() throws Exception {
+        WarmRunnerPool pool = new WarmRunnerPool("127.0.0.1", 0, TOKEN, 1, 1, 0, 1000);
+        try {
+            assertThrows(java.net.BindException.class,
+                    () -> new WarmRunnerPool("127.0.0.1", pool.port(), TOKEN, 1, 1, 0, 1000));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testOnlyPlainDispatchesRunWarm() {
+        assertTrue(WarmRunnerPool.accepts(DispatchSpec.EMPTY));
+        assertTrue(WarmRunnerPool.accepts(DispatchSpec.of(Map.of("env", Map.of("JOB_DATA", "a=1")))));
+        assertFalse(WarmRunnerPool.accepts(DispatchSpec.of(Map.of("k8sImage", "other:1"))));
+        assertFalse(WarmRunnerPool.accepts(DispatchSpec.of(Map.of("env", Map.of("MODE", "fast")))));
+    }
+}